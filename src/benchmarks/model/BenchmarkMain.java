@@ -0,0 +1,120 @@
+package model;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the model and detects regressions. The scores can be recorded to a file
+ * and compared with a recorded baseline afterwards, e.g. before and after a change:
+ *
+ * <p>{@code BenchmarkMain --record before.properties}
+ *
+ * <p>{@code BenchmarkMain --baseline before.properties [--tolerance 0.1] [--include regex]}
+ *
+ * <p>The program exits with status 1 if a benchmark got slower than its baseline by more than the
+ * tolerance.
+ */
+public final class BenchmarkMain {
+
+  private static final double DEFAULT_TOLERANCE = 0.1;
+
+  private BenchmarkMain() {}
+
+  /**
+   * Runs the benchmarks as specified by the command line arguments.
+   *
+   * @param args the command line arguments, see the description of this class
+   * @throws RunnerException if a benchmark failed
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(String[] args) throws RunnerException, IOException {
+    String record = null;
+    String baseline = null;
+    double tolerance = DEFAULT_TOLERANCE;
+    String include = BenchmarkMain.class.getPackage().getName() + "\\..*Benchmark";
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--record":
+          record = args[i + 1];
+          break;
+        case "--baseline":
+          baseline = args[i + 1];
+          break;
+        case "--tolerance":
+          tolerance = Double.parseDouble(args[i + 1]);
+          break;
+        case "--include":
+          include = args[i + 1];
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+      }
+    }
+    Options options = new OptionsBuilder().include(include).build();
+    Map<String, Double> scores = scoresOf(new Runner(options).run());
+    if (record != null) {
+      Properties properties = new Properties();
+      scores.forEach((key, score) -> properties.setProperty(key, Double.toString(score)));
+      try (OutputStream output = new FileOutputStream(record)) {
+        properties.store(output, "Average time in ns/op");
+      }
+    }
+    if (baseline != null && !compare(scores, baseline, tolerance)) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Returns the score of each benchmark, keyed by its name and parameters.
+   */
+  private static Map<String, Double> scoresOf(Collection<RunResult> results) {
+    Map<String, Double> scores = new TreeMap<>();
+    for (RunResult result : results) {
+      StringBuilder key = new StringBuilder(result.getParams().getBenchmark());
+      for (String param : result.getParams().getParamsKeys()) {
+        key.append(':').append(param).append('=').append(result.getParams().getParam(param));
+      }
+      scores.put(key.toString(), result.getPrimaryResult().getScore());
+    }
+    return scores;
+  }
+
+  /**
+   * Prints the change of every score against the baseline and returns {@code false} if a score
+   * exceeds its baseline by more than the tolerance.
+   */
+  private static boolean compare(Map<String, Double> scores, String baseline, double tolerance)
+      throws IOException {
+    Properties properties = new Properties();
+    try (InputStream input = new FileInputStream(baseline)) {
+      properties.load(input);
+    }
+    boolean isWithinTolerance = true;
+    for (Map.Entry<String, Double> score : scores.entrySet()) {
+      String recorded = properties.getProperty(score.getKey());
+      if (recorded == null) {
+        continue;
+      }
+      double change = score.getValue() / Double.parseDouble(recorded) - 1;
+      boolean isRegression = change > tolerance;
+      System.out.printf("%s %+.1f%%%s%n", score.getKey(), 100 * change,
+          isRegression ? " REGRESSION" : "");
+      isWithinTolerance &= !isRegression;
+    }
+    return isWithinTolerance;
+  }
+
+}
@@ -0,0 +1,72 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Board#identifySequences()}. The board only identifies the sequences of changed
+ * rows again, so the benchmarks cover an unchanged board, a board after one move and a new board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+  @Param({"EARLY", "MID", "LATE"})
+  public String phase;
+
+  private Board board;
+
+  private int x;
+
+  private int y;
+
+  private Tile tile;
+
+  @Setup
+  public void setUp() {
+    RummikubGame game = GameFixture.create(GameFixture.Phase.valueOf(phase));
+    board = GameFixture.boardOf(game);
+    for (y = 0; y < board.getHeight(); y++) {
+      for (x = 0; x < board.getWidth(); x++) {
+        tile = board.getTile(x, y);
+        if (tile != null) {
+          return;
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public List<Sequence> identifySequencesUnchanged() {
+    return board.identifySequences();
+  }
+
+  @Benchmark
+  public List<Sequence> identifySequencesAfterMove() {
+    board.removeTile(x, y);
+    board.setTile(x, y, tile);
+    return board.identifySequences();
+  }
+
+  @Benchmark
+  public List<Sequence> identifySequencesOfNewBoard() {
+    return Board.copyOf(board).identifySequences();
+  }
+
+}
@@ -0,0 +1,126 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the methods of {@link RummikubGame} called by the server for every turn, the deal at
+ * the start of a game and the Java serialization of a whole game as sent by every message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+  /**
+   * The seed of the deal benchmark.
+   */
+  private static final long DEAL_SEED = 1;
+
+  @Param({"EARLY", "MID", "LATE"})
+  public String phase;
+
+  private RummikubGame game;
+
+  private byte[] serialized;
+
+  /**
+   * A game whose current player set his move, restored before every invocation as
+   * {@link RummikubGame#isValid()} ends the validated round.
+   */
+  @State(Scope.Thread)
+  public static class PendingRound {
+
+    @Param({"EARLY", "MID", "LATE"})
+    public String phase;
+
+    private RummikubGame game;
+
+    private GameSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+      game = GameFixture.create(GameFixture.Phase.valueOf(phase));
+      snapshot = game.snapshot();
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+      game.restore(snapshot);
+    }
+
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    game = GameFixture.create(GameFixture.Phase.valueOf(phase));
+    serialized = serialize();
+  }
+
+  @Benchmark
+  public boolean isValid(PendingRound round) {
+    return round.game.isValid();
+  }
+
+  @Benchmark
+  public boolean isBoardValid() {
+    return game.isBoardValid();
+  }
+
+  @Benchmark
+  public void markWrongTiles() {
+    game.markWrongTiles();
+  }
+
+  @Benchmark
+  public RummikubGame copyOf() {
+    return RummikubGame.copyOf(game);
+  }
+
+  @Benchmark
+  public RummikubGame deal() {
+    RummikubGame dealt = RummikubGame.create(DEAL_SEED);
+    for (Player player : game.getPlayers()) {
+      dealt.addPlayer(RummikubPlayer.of(player.getName(), player.getAge()));
+    }
+    dealt.start();
+    return dealt;
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(game);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public Object deserialize() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+      return input.readObject();
+    }
+  }
+
+}
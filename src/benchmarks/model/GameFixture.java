@@ -0,0 +1,91 @@
+package model;
+
+import model.bot.ComputerPlayer;
+import model.solver.Solution;
+import model.solver.Solver;
+
+/**
+ * Reproducible games for the benchmarks. Four computer players play a game dealt with a fixed seed
+ * for the number of turns of the phase. Then the current player sets the best move from his rack
+ * without ending his round, so the game is in the state it has when {@link RummikubGame#isValid()}
+ * is called by the server.
+ */
+final class GameFixture {
+
+  /**
+   * The phases of a game, i.e. the number of turns played before the fixture is taken.
+   */
+  enum Phase {
+
+    EARLY(4),
+
+    MID(24),
+
+    LATE(48);
+
+    private final int turns;
+
+    Phase(int turns) {
+      this.turns = turns;
+    }
+
+  }
+
+  /**
+   * The seed of the deal of all fixtures.
+   */
+  private static final long SEED = 25;
+
+  private static final int PLAYERS = 4;
+
+  private static final long BUDGET_IN_MS = 1000;
+
+  private GameFixture() {}
+
+  /**
+   * Returns a new game of the specified phase whose current player set his move but did not end
+   * his round yet.
+   */
+  static RummikubGame create(Phase phase) {
+    RummikubGame game = RummikubGame.create(SEED);
+    for (int i = 0; i < PLAYERS; i++) {
+      game.addPlayer(ComputerPlayer.of("Player " + (i + 1), 20 + i, BUDGET_IN_MS));
+    }
+    game.start();
+    for (int turn = 0; turn < phase.turns; turn++) {
+      ComputerPlayer player = (ComputerPlayer) game.getCurrentPlayer();
+      player.play(game, Solver.solve(game, player));
+      if (game.isWon()) {
+        throw new IllegalStateException("The game ended before the " + phase + " phase.");
+      }
+      game.endCurrentRound();
+    }
+    ComputerPlayer player = (ComputerPlayer) game.getCurrentPlayer();
+    Solution move = Solver.solve(game, player);
+    if (player.play(game, move)) {
+      // playing validates the round, so undo the move and redo it without the validation
+      game.revertTurn();
+      while (game.canRedo()) {
+        game.redo();
+      }
+    }
+    return game;
+  }
+
+  /**
+   * Returns a copy of the board of the specified game.
+   */
+  static Board boardOf(Rummikub game) {
+    Board board = Board.create();
+    for (int y = 0; y < game.getBoardHeight(); y++) {
+      for (int x = 0; x < game.getBoardWidth(); x++) {
+        Tile tile = game.getTile(x, y);
+        if (tile != null) {
+          board.setTile(x, y, tile);
+        }
+      }
+    }
+    return board;
+  }
+
+}
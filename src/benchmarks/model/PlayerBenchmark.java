@@ -0,0 +1,53 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the rack operations of {@link RummikubPlayer} on the rack of the player after the
+ * current one, whose rack is complete.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+
+  @Param({"EARLY", "MID", "LATE"})
+  public String phase;
+
+  private RummikubPlayer player;
+
+  @Setup
+  public void setUp() {
+    RummikubGame game = GameFixture.create(GameFixture.Phase.valueOf(phase));
+    int next = (game.getPlayers().indexOf(game.getCurrentPlayer()) + 1)
+        % game.getPlayers().size();
+    player = (RummikubPlayer) game.getPlayers().get(next);
+  }
+
+  @Benchmark
+  public RummikubPlayer sortRack() {
+    player.sortRack();
+    return player;
+  }
+
+  @Benchmark
+  public int getMinusPoints() {
+    return player.getMinusPoints();
+  }
+
+}
@@ -0,0 +1,58 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import model.solver.Solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the validation of all sequences on the board. The sequences are created for every
+ * invocation, as {@link Board#identifySequences()} does, so the cached meld is not reused.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SequenceBenchmark {
+
+  @Param({"EARLY", "MID", "LATE"})
+  public String phase;
+
+  private List<List<Tile>> sequences;
+
+  private Player player;
+
+  @Setup
+  public void setUp() {
+    RummikubGame game = GameFixture.create(GameFixture.Phase.valueOf(phase));
+    sequences = Solver.sequencesOf(game);
+    player = game.getCurrentPlayer();
+  }
+
+  @Benchmark
+  public void isValid(Blackhole blackhole) {
+    for (List<Tile> tiles : sequences) {
+      Sequence sequence = Sequence.create();
+      for (Tile tile : tiles) {
+        sequence.addTile(tile);
+      }
+      blackhole.consume(sequence.isValid(player));
+    }
+  }
+
+}
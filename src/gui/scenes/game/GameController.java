@@ -334,16 +334,16 @@ public class GameController extends AbstractController implements Initializable
   }
 
   /**
-   * Requests backup from server and cancel current turn.
+   * Reverts all moves of the current turn locally and cancels current turn.
    *
    * @param event ActionEvent.
    */
   @FXML
   private void handleCancelButton(ActionEvent event) {
     unhighlightAsFalseSequence();
-    isBoardChanged.setValue(false);
-    resetSelectedTile();
-    client.getBackup();
+    RummikubGame game = (RummikubGame) client.getCurrentGame();
+    game.revertTurn();
+    updateView(game);
   }
 
   /**
@@ -436,12 +436,12 @@ public class GameController extends AbstractController implements Initializable
    */
   private void highlightAsFalseSequence() {
     boolean isWrong = false;
-    Rummikub game = client.getCurrentGame();
-    ((RummikubGame) game).markWrongTiles();
+    RummikubGame game = (RummikubGame) client.getCurrentGame();
+    game.markWrongTiles();
     for (int col = 0; col < boardColumnNumber; col++) {
       for (int row = 0; row < boardRowNumber; row++) {
         Tile tile = game.getTile(col, row);
-        if (tile != null && !tile.isInCorrectSequence()) {
+        if (tile != null && !game.isInCorrectSequence(tile)) {
           TileView tileView = boardTileViews.get(col).get(row);
           falseSequenceTileViews.add(tileView);
           tileView.highlightAsFalseSequence();
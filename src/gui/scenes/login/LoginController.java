@@ -114,9 +114,6 @@ public abstract class LoginController extends AbstractController implements Init
       case "ipTextField":
         isValid = isIpValid(text);
         break;
-      case "ipLocalTextField":
-        isValid = isIpValid(text);
-        break;
       default:
         // Unreachable, all possible text fields are checked.
         throw new AssertionError();
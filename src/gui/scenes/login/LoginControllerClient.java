@@ -5,9 +5,7 @@ import gui.utils.AnimationManager;
 import gui.utils.SceneLoader;
 import gui.utils.SoundManager;
 import java.io.IOException;
-import java.net.InetAddress;
 import java.net.URL;
-import java.net.UnknownHostException;
 import java.util.ResourceBundle;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -25,8 +23,6 @@ public class LoginControllerClient extends LoginController implements Initializa
   @FXML
   private TextField ipTextField;
 
-  @FXML
-  private TextField ipLocalTextField;
 
   @Override
   public void initialize(URL arg0, ResourceBundle arg1) {
@@ -34,13 +30,6 @@ public class LoginControllerClient extends LoginController implements Initializa
     this.nameTextField.getStyleClass().add("noerror");
     this.ageTextField.getStyleClass().add("noerror");
     this.ipTextField.getStyleClass().add("noerror");
-    this.ipLocalTextField.getStyleClass().add("noerror");
-
-    try {
-      this.ipLocalTextField.setText(InetAddress.getLocalHost().getHostAddress());
-    } catch (UnknownHostException e) {
-      // Do nothing
-    }
   }
 
   /**
@@ -54,19 +43,17 @@ public class LoginControllerClient extends LoginController implements Initializa
     setUpValidation(this.nameTextField);
     setUpValidation(this.ageTextField);
     setUpValidation(this.ipTextField);
-    setUpValidation(this.ipLocalTextField);
 
     String name = this.nameTextField.getText();
     String age = this.ageTextField.getText();
     String ip = this.ipTextField.getText();
-    String localIp = this.ipLocalTextField.getText();
 
-    if (!isNameValid(name) || !isAgeValid(age) || !isIpValid(ip) || !isIpValid(localIp)) {
+    if (!isNameValid(name) || !isAgeValid(age) || !isIpValid(ip)) {
       return;
     }
 
     Player player = createPlayerFromInput(name, age);
-    createClient(player, ip, localIp);
+    createClient(player, ip);
   }
 
   /**
@@ -76,11 +63,10 @@ public class LoginControllerClient extends LoginController implements Initializa
    *
    * @param player is the {@code Player} instance which is associated with the Client
    * @param ipAddress is the IP address of the Host
-   * @param ipLocal is the local Client IP address
    */
-  private void createClient(Player player, String ipAddress, String ipLocal) {
+  private void createClient(Player player, String ipAddress) {
     try {
-      Client.createSingletonClient(player, ipAddress, ipLocal);
+      Client.createSingletonClient(player, ipAddress);
       // Shows an alert if there is no host with this IP address
     } catch (IOException e) {
       String errorTitle = "Invalid IP!";
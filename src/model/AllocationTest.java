@@ -0,0 +1,147 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the bytes allocated per call of the methods used to validate a turn. Each test fails
+ * if a method allocates more than its budget, so changes that add garbage to the validation are
+ * noticed. The calls are repeated before the measurement so they are compiled and escape analysis
+ * applies, as on a long-running server.
+ */
+@DisplayName("Allocation tests.")
+class AllocationTest {
+
+  private static final int WARMUP_CALLS = 20_000;
+
+  private static final int MEASURED_CALLS = 10_000;
+
+  /**
+   * The number of measurements, the lowest one counts as the compiler may still be at work during
+   * the first ones.
+   */
+  private static final int ROUNDS = 10;
+
+  /**
+   * The budget of {@link RummikubGame#isValid()} on a board without changes (in bytes per call).
+   */
+  private static final long IS_VALID_BUDGET = 0;
+
+  /**
+   * The budget of {@link Board#identifySequences()} on a board without changes (in bytes per call).
+   */
+  private static final long UNCHANGED_BOARD_BUDGET = 0;
+
+  /**
+   * The budget of {@link Board#identifySequences()} after one row changed (in bytes per call). The
+   * changed sequence and the list of all sequences are new, 208 bytes were recorded.
+   */
+  private static final long CHANGED_ROW_BUDGET = 256;
+
+  /**
+   * The budget of the queries on a player's rack (in bytes per call).
+   */
+  private static final long RACK_QUERIES_BUDGET = 0;
+
+  private RummikubGame game;
+
+  private Board board;
+
+  private RummikubPlayer player;
+
+  @BeforeEach
+  void setUp() {
+    game = RummikubGame.create(1L);
+    game.addPlayer(RummikubPlayer.of("Anna", 17));
+    game.addPlayer(RummikubPlayer.of("Paul", 20));
+    game.start();
+    player = (RummikubPlayer) game.getCurrentPlayer();
+    board = Board.create();
+    for (int value = 1; value <= 13; value++) {
+      for (Color color : Color.values()) {
+        int y = color.ordinal() * 2 + (value > 7 ? 1 : 0);
+        int x = value > 7 ? value - 8 : value - 1;
+        game.setTile(x, y, RummikubTile.createTile(color, value), player);
+        board.setTile(x, y, RummikubTile.createTile(color, value));
+      }
+    }
+  }
+
+  private static com.sun.management.ThreadMXBean threads() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+    assumeTrue(sunThreads.isThreadAllocatedMemorySupported());
+    sunThreads.setThreadAllocatedMemoryEnabled(true);
+    return sunThreads;
+  }
+
+  /**
+   * Returns the average number of bytes allocated by the specified call in the round with the
+   * fewest allocations.
+   */
+  private static long bytesPerCall(Runnable call) {
+    com.sun.management.ThreadMXBean threads = threads();
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      call.run();
+    }
+    long id = Thread.currentThread().getId();
+    long fewest = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      long before = threads.getThreadAllocatedBytes(id);
+      for (int i = 0; i < MEASURED_CALLS; i++) {
+        call.run();
+      }
+      fewest = Math.min(fewest, (threads.getThreadAllocatedBytes(id) - before) / MEASURED_CALLS);
+    }
+    return fewest;
+  }
+
+  private static void assertWithinBudget(long budget, long bytes) {
+    assertTrue(bytes <= budget, () -> bytes + " bytes per call exceed the budget of " + budget);
+  }
+
+  @Test
+  @DisplayName("Validating the game.")
+  void testIsValid() {
+    assertWithinBudget(IS_VALID_BUDGET, bytesPerCall(game::isValid));
+  }
+
+  @Test
+  @DisplayName("Identifying sequences without changes.")
+  void testIdentifySequencesWithoutChanges() {
+    assertWithinBudget(UNCHANGED_BOARD_BUDGET, bytesPerCall(board::identifySequences));
+  }
+
+  @Test
+  @DisplayName("Identifying sequences after a change.")
+  void testIdentifySequencesAfterChange() {
+    Tile tile = board.getTile(3, 0);
+    assertWithinBudget(CHANGED_ROW_BUDGET, bytesPerCall(() -> {
+      board.removeTile(3, 0);
+      board.setTile(3, 0, tile);
+      board.identifySequences();
+    }));
+  }
+
+  @Test
+  @DisplayName("Querying the rack.")
+  void testRackQueries() {
+    Rack rack = player.getTileRack();
+    Tile tile = rack.get(0);
+    int[] sink = new int[1];
+    assertWithinBudget(RACK_QUERIES_BUDGET, bytesPerCall(() -> {
+      sink[0] += player.getMinusPoints() + rack.getValueSum() + rack.getJokerCount()
+          + rack.count(Color.RED, 7) + rack.getRunStarts(Color.BLUE, 3)
+          + (rack.contains(tile) ? 1 : 0) + (rack.canFormGroup(5) ? 1 : 0)
+          + (rack.canFormRun(Color.BLACK, 2, 4) ? 1 : 0);
+    }));
+  }
+
+}
@@ -1,12 +1,21 @@
 package model;
 
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * The board is a grid, each position has either a tile or is empty. Tiles on the board can be
- * accessed by their Cartesian coordinate.
+ * accessed by their Cartesian coordinate. Internally each row of the board stores the ids of its
+ * tiles. Copies and snapshots share the rows with the board, a row is copied when it is modified
+ * the next time.
+ *
+ * <p>The board keeps the sequences it identified and tracks which columns of which rows changed
+ * since then. Identifying the sequences again only rebuilds the sequences of changed rows, and
+ * within such a row every sequence whose tiles did not change is reused together with its cached
+ * validation result.
  */
 public class Board implements Serializable {
 
@@ -15,23 +24,72 @@ public class Board implements Serializable {
   /**
    * The width of this board.
    */
-  private static final int WIDTH = 22;
+  static final int WIDTH = 22;
 
   /**
    * The height of this board.
    */
-  private static final int HEIGHT = 8;
+  static final int HEIGHT = 8;
 
   /**
-   * Coordinate system to save the positions of tiles on the board.
+   * Marks an empty position on the board.
    */
-  private Tile[][] grid;
+  private static final byte EMPTY = -1;
+
+  /**
+   * The Zobrist keys of all tiles at all positions, indexed by
+   * {@code (y * WIDTH + x) * NUMBER_OF_TILES + id}.
+   */
+  private static final long[] KEYS =
+      Zobrist.keys(0x3C6EF372FE94F82BL, WIDTH * HEIGHT * RummikubTile.NUMBER_OF_TILES);
+
+  /**
+   * Coordinate system to save the positions of tiles on the board. Each row holds the ids of its
+   * tiles, i.e. {@code rows[y][x]} is the id of the tile at {@code (x, y)} or {@code EMPTY}.
+   */
+  private byte[][] rows;
+
+  /**
+   * The tiles that are part of an incorrect sequence on this board.
+   */
+  private TileIdSet wrongTiles;
+
+  /**
+   * The Zobrist hash of all tiles on this board.
+   */
+  private long hash;
+
+  /**
+   * Bit mask of the rows that are shared with a snapshot or a copy of this board. A shared row is
+   * copied before it is modified, so snapshots never change.
+   */
+  private transient int sharedRows;
+
+  /**
+   * For each row a bit mask of the columns that changed since the sequences were identified the
+   * last time. {@code null} if no sequences were identified yet.
+   */
+  private transient int[] dirtyColumns;
+
+  /**
+   * For each row the sequences of this row indexed by the column they start at.
+   */
+  private transient Sequence[][] sequencesByStart;
+
+  /**
+   * All sequences on this board as identified the last time.
+   */
+  private transient List<Sequence> sequences;
 
   /**
    * Initializes a new {@code Board}.
    */
   private Board() {
-    this.grid = new Tile[WIDTH][HEIGHT];
+    this.rows = new byte[HEIGHT][WIDTH];
+    for (byte[] row : rows) {
+      Arrays.fill(row, EMPTY);
+    }
+    this.wrongTiles = new TileIdSet();
   }
 
   /**
@@ -51,10 +109,14 @@ public class Board implements Serializable {
    * @throws IndexOutOfBoundsException if the specified position is out of range
    */
   boolean setTile(int x, int y, Tile tile) {
-    if (this.grid[x][y] != null) {
+    checkColumn(x);
+    if (this.rows[y][x] != EMPTY) {
       return false;
     }
-    this.grid[x][y] = tile;
+    ensureRowIsOwned(y);
+    this.rows[y][x] = (byte) tile.getId();
+    hash ^= keyOf(x, y, this.rows[y][x]);
+    markAsChanged(x, y);
     return true;
   }
 
@@ -66,7 +128,13 @@ public class Board implements Serializable {
    * @throws IndexOutOfBoundsException if the specified position is out of range
    */
   void removeTile(int x, int y) {
-    this.grid[x][y] = null;
+    checkColumn(x);
+    if (this.rows[y][x] != EMPTY) {
+      hash ^= keyOf(x, y, this.rows[y][x]);
+    }
+    ensureRowIsOwned(y);
+    this.rows[y][x] = EMPTY;
+    markAsChanged(x, y);
   }
 
   /**
@@ -78,67 +146,205 @@ public class Board implements Serializable {
    * @throws IndexOutOfBoundsException if the specified position is out of range
    */
   Tile getTile(int x, int y) {
-    return this.grid[x][y];
+    checkColumn(x);
+    return tileOf(this.rows[y][x]);
+  }
+
+  /**
+   * Returns the Zobrist hash of all tiles on this board.
+   */
+  long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns the Zobrist key of the tile with the specified id at the specified position.
+   */
+  private static long keyOf(int x, int y, byte id) {
+    return KEYS[(y * WIDTH + x) * RummikubTile.NUMBER_OF_TILES + id];
   }
 
   /**
    * Returns the width of this board.
    */
   int getWidth() {
-    return grid.length;
+    return rows[0].length;
   }
 
   /**
    * Returns the height of this board.
    */
   int getHeight() {
-    return grid[0].length;
+    return rows.length;
   }
 
   /**
-   * Returns a list of all sequences on this board.
+   * Throws an {@code IndexOutOfBoundsException} if the specified X-coordinate is out of range.
    */
-  List<Sequence> identifySequences() {
-    List<Sequence> sequencesOnBoard = new LinkedList<>();
-    for (int i = 0; i < getHeight(); i++) {
-      Sequence sequenceTemp = Sequence.create();
-      for (int j = 0; j < getWidth(); j++) {
+  private void checkColumn(int x) {
+    if (x < 0 || x >= getWidth()) {
+      throw new IndexOutOfBoundsException("Column " + x + " is out of range.");
+    }
+  }
+
+  /**
+   * Returns the tile with the specified id or {@code null} if the id marks an empty position.
+   */
+  private static Tile tileOf(byte id) {
+    return id == EMPTY ? null : RummikubTile.byId(id);
+  }
+
+  /**
+   * Copies the specified row if it is shared with a snapshot or a copy of this board.
+   */
+  private void ensureRowIsOwned(int y) {
+    if ((sharedRows & (1 << y)) != 0) {
+      rows[y] = rows[y].clone();
+      sharedRows &= ~(1 << y);
+    }
+  }
+
+  /**
+   * Returns the rows of this board for a snapshot. The rows are not copied but shared with the
+   * snapshot, this board copies a row before it is modified the next time.
+   *
+   * @return the rows of this board, indexed by the Y-coordinate
+   */
+  byte[][] shareRows() {
+    sharedRows = (1 << getHeight()) - 1;
+    return rows.clone();
+  }
 
-        Tile current = grid[j][i];
-        if (current == null) {
-          if (!sequenceTemp.isEmpty()) {
-            // the end of a sequence is reached, thus it has to be added to the list
-            sequencesOnBoard.add(sequenceTemp);
-            sequenceTemp = Sequence.create();
-          }
-        } else {
-          // current != null, the current position holds a tile
-          sequenceTemp.addTile(current);
+  /**
+   * Replaces all tiles of this board by the tiles of the specified shared rows and removes all
+   * markings.
+   *
+   * @param sharedRows rows as returned by {@link #shareRows()}
+   */
+  void restoreRows(byte[][] sharedRows) {
+    this.rows = sharedRows.clone();
+    this.sharedRows = (1 << getHeight()) - 1;
+    this.wrongTiles.clear();
+    this.dirtyColumns = null;
+    this.sequences = null;
+    this.hash = 0;
+    for (int y = 0; y < getHeight(); y++) {
+      for (int x = 0; x < getWidth(); x++) {
+        if (rows[y][x] != EMPTY) {
+          hash ^= keyOf(x, y, rows[y][x]);
         }
       }
-      if (!sequenceTemp.isEmpty()) {
-        // the last position at the row (index getWidth - 1) holds a tile and is thus part of a
-        // sequence
-        sequencesOnBoard.add(sequenceTemp);
-      }
     }
-    return sequencesOnBoard;
   }
 
   /**
-   * Removes the markings for all tiles on this board.
+   * Marks the specified position as changed, so its sequence is identified again.
    */
-  void removeTileMarkings() {
+  private void markAsChanged(int x, int y) {
+    if (dirtyColumns != null) {
+      dirtyColumns[y] |= 1 << x;
+    }
+  }
+
+  /**
+   * Returns an unmodifiable list of all sequences on this board. Only the rows that changed since
+   * the last invocation are scanned again.
+   */
+  synchronized List<Sequence> identifySequences() {
+    if (dirtyColumns == null) {
+      dirtyColumns = new int[getHeight()];
+      Arrays.fill(dirtyColumns, (1 << getWidth()) - 1);
+      sequencesByStart = new Sequence[getHeight()][getWidth()];
+    } else if (sequences != null && !hasChanged()) {
+      return sequences;
+    }
+    List<Sequence> sequencesOnBoard = new ArrayList<>();
     for (int i = 0; i < getHeight(); i++) {
-      for (int j = 0; j < getWidth(); j++) {
-        Tile current = grid[j][i];
-        if (current != null) {
-          ((RummikubTile) current).removeMarking();
+      if (dirtyColumns[i] != 0) {
+        identifySequences(i);
+        dirtyColumns[i] = 0;
+      }
+      for (Sequence s : sequencesByStart[i]) {
+        if (s != null) {
+          sequencesOnBoard.add(s);
+        }
+      }
+    }
+    sequences = Collections.unmodifiableList(sequencesOnBoard);
+    return sequences;
+  }
+
+  /**
+   * Returns {@code true} if any position changed since the sequences were identified the last
+   * time.
+   */
+  private boolean hasChanged() {
+    for (int columns : dirtyColumns) {
+      if (columns != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Identifies the sequences of the specified row again. A sequence whose position and length did
+   * not change and that contains no changed column is kept.
+   *
+   * @param y the Y-coordinate of the row
+   */
+  private void identifySequences(int y) {
+    byte[] row = rows[y];
+    Sequence[] byStart = sequencesByStart[y];
+    int j = 0;
+    while (j < getWidth()) {
+      if (row[j] == EMPTY) {
+        byStart[j++] = null;
+        continue;
+      }
+      int start = j;
+      while (j < getWidth() && row[j] != EMPTY) {
+        j++;
+      }
+      int length = j - start;
+      int columns = ((1 << length) - 1) << start;
+      Sequence old = byStart[start];
+      if (old == null || old.size() != length || (dirtyColumns[y] & columns) != 0) {
+        Sequence sequence = Sequence.create();
+        for (int x = start; x < j; x++) {
+          sequence.addTile(tileOf(row[x]));
         }
+        byStart[start] = sequence;
+      }
+      for (int x = start + 1; x < j; x++) {
+        byStart[x] = null;
       }
     }
   }
 
+  /**
+   * Marks the specified tile as part of an incorrect sequence.
+   *
+   * @param tile the tile to be marked
+   */
+  void markAsWrong(Tile tile) {
+    wrongTiles.add(tile);
+  }
+
+  /**
+   * Returns {@code true} if the specified tile is marked as part of an incorrect sequence.
+   */
+  boolean isMarkedAsWrong(Tile tile) {
+    return wrongTiles.contains(tile);
+  }
+
+  /**
+   * Removes the markings for all tiles on this board.
+   */
+  void removeTileMarkings() {
+    wrongTiles.clear();
+  }
+
   /**
    * Returns a copy of the specified board.
    * 
@@ -147,11 +353,8 @@ public class Board implements Serializable {
    */
   static Board copyOf(Board other) {
     Board copy = create();
-    for (int i = 0; i < other.getHeight(); i++) {
-      for (int j = 0; j < other.getWidth(); j++) {
-        copy.setTile(j, i, (RummikubTile.copyOf((RummikubTile) other.getTile(j, i))));
-      }
-    }
+    copy.restoreRows(other.shareRows());
+    copy.wrongTiles = TileIdSet.copyOf(other.wrongTiles);
     return copy;
   }
 
@@ -160,8 +363,8 @@ public class Board implements Serializable {
     StringBuilder s = new StringBuilder();
     for (int i = 0; i < getHeight(); i++) {
       for (int j = 0; j < getWidth(); j++) {
-        if (grid[j][i] != null) {
-          s.append("(" + j + "," + i + "): " + grid[j][i] + "\n");
+        if (rows[i][j] != EMPTY) {
+          s.append("(" + j + "," + i + "): " + tileOf(rows[i][j]) + "\n");
         }
       }
     }
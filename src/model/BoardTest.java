@@ -0,0 +1,64 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Board tests.")
+class BoardTest {
+
+  private Board board;
+
+  @BeforeEach
+  void setUp() {
+    board = Board.create();
+    for (int value = 1; value <= 3; value++) {
+      board.setTile(value, 0, RummikubTile.createTile(Color.RED, value));
+      board.setTile(value + 5, 0, RummikubTile.createTile(Color.BLUE, value));
+      board.setTile(value, 1, RummikubTile.createTile(Color.BLACK, value));
+    }
+  }
+
+  @Test
+  @DisplayName("Identifying sequences without changes.")
+  void testIdentifySequencesWithoutChanges() {
+    List<Sequence> sequences = board.identifySequences();
+    assertAll(
+        () -> assertEquals(3, sequences.size()),
+        () -> assertSame(sequences, board.identifySequences()));
+  }
+
+  @Test
+  @DisplayName("Only changed sequences are identified again.")
+  void testIdentifySequencesAfterChange() {
+    List<Sequence> before = board.identifySequences();
+    board.setTile(4, 0, RummikubTile.createTile(Color.RED, 4));
+    List<Sequence> after = board.identifySequences();
+    assertAll(
+        () -> assertEquals(3, after.size()),
+        () -> assertNotSame(before.get(0), after.get(0)),
+        () -> assertEquals(4, after.get(0).size()),
+        () -> assertSame(before.get(1), after.get(1)),
+        () -> assertSame(before.get(2), after.get(2)));
+  }
+
+  @Test
+  @DisplayName("Removing a tile splits a sequence.")
+  void testIdentifySequencesAfterRemoval() {
+    board.identifySequences();
+    board.removeTile(2, 1);
+    List<Sequence> after = board.identifySequences();
+    assertAll(
+        () -> assertEquals(4, after.size()),
+        () -> assertEquals(1, after.get(2).size()),
+        () -> assertEquals(1, after.get(3).size()));
+  }
+
+}
@@ -0,0 +1,551 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.UUID;
+
+/**
+ * A compact binary format of a {@link RummikubGame}. Tiles are written as their ids, so the board
+ * takes one byte per position, and the racks and the pool are arrays of ids. Each player is written
+ * with a small header holding his name, age, id and state. All numbers are big-endian.
+ *
+ * <p>Version {@value #VERSION} of the format is:
+ *
+ * <pre>
+ * magic       u16     0x524B
+ * version     u8
+ * turns       i32     0 if the game has not been started
+ * players     u8      followed by each player, see below
+ * current     u8      index of the current player, 0xFF for none
+ * winner      u8      index of the winner, 0xFF for none
+ * pool        u8      followed by the ids in the order they are pulled
+ * width       u8
+ * height      u8      followed by the id of each position row by row, 0xFF if empty
+ *
+ * kind        u8      0 for a human, otherwise the kind of the {@link PlayerFactory}
+ * name        u16     followed by the name encoded in UTF-8
+ * age         i32
+ * id          2 i64   the most and least significant bits of the UUID
+ * state       u8      bit 0: first move done, bit 1: pulled from the pool
+ * rack        u8      followed by the ids in the order of the rack
+ * set tiles   u8      followed by the ids of the tiles set to the board during the round
+ * data                the values written by the {@link PlayerFactory}, none for a human
+ * </pre>
+ *
+ * <p>Decoding is strict: any unknown version, id out of range, tile that occurs twice in the game,
+ * truncated input or trailing byte is rejected. Tiles may be missing, as the tiles of a player who
+ * left the game leave with him. The markings of wrong tiles and the moves of the current turn are
+ * local to a game and are not encoded.
+ */
+public final class GameCodec {
+
+  /**
+   * The first two bytes of every encoded game or player.
+   */
+  private static final int MAGIC = 0x524B;
+
+  /**
+   * The number of bytes of the magic number and the version.
+   */
+  private static final int HEADER_LENGTH = 3;
+
+  /**
+   * The version of the format written by this codec.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * Marks an empty position, a missing player or a missing winner.
+   */
+  private static final int NONE = 0xFF;
+
+  private static final int HUMAN = 0;
+
+  private static final int FIRST_MOVE_DONE = 1;
+
+  private static final int PULLED_FROM_POOL = 2;
+
+  /**
+   * The maximal number of players in one game.
+   */
+  private static final int MAXIMUM_PLAYERS = 4;
+
+  /**
+   * The maximal length of a name in bytes.
+   */
+  private static final int MAXIMUM_NAME_LENGTH = 0xFFFF;
+
+  /**
+   * The initial capacity of the array holding an encoded game, enough for most games.
+   */
+  private static final int INITIAL_CAPACITY = 512;
+
+  private GameCodec() {}
+
+  /**
+   * Returns the encoded form of the specified game.
+   *
+   * @param game the game to be encoded
+   * @return the encoded game
+   * @throws IllegalArgumentException if a player of the game cannot be encoded
+   */
+  public static byte[] encode(RummikubGame game) {
+    return encode(game.snapshot());
+  }
+
+  /**
+   * Returns the encoded form of the game saved in the specified snapshot. Only the snapshot is
+   * read, so it may be encoded on any thread while the game goes on.
+   *
+   * @param snapshot the snapshot of the game to be encoded
+   * @return the encoded game
+   * @throws IllegalArgumentException if a player of the game cannot be encoded
+   */
+  public static byte[] encode(GameSnapshot snapshot) {
+    Output out = new Output(INITIAL_CAPACITY);
+    out.writeHeader();
+    out.writeInt(snapshot.getTurns());
+    List<Player> players = snapshot.getPlayers();
+    out.writeByte(players.size());
+    for (int i = 0; i < players.size(); i++) {
+      writePlayer(out, (RummikubPlayer) players.get(i), snapshot.getPlayerState(i));
+    }
+    out.writeByte(indexOf(players, snapshot.getCurrentPlayer()));
+    out.writeByte(indexOf(players, snapshot.getWinner()));
+    TilePool pool = snapshot.getPoolOfTiles();
+    out.writeByte(pool.size());
+    for (int i = 0; i < pool.size(); i++) {
+      out.writeByte(pool.idAt(i));
+    }
+    byte[][] rows = snapshot.getBoardRows();
+    out.writeByte(rows[0].length);
+    out.writeByte(rows.length);
+    for (byte[] row : rows) {
+      out.write(row);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Returns the game encoded in the specified bytes. The players of the returned game equal the
+   * encoded players.
+   *
+   * @param bytes an encoded game as returned by {@link #encode(RummikubGame)}
+   * @return the decoded game
+   * @throws IllegalArgumentException if the bytes are not a valid encoded game
+   */
+  public static RummikubGame decode(byte[] bytes) {
+    Input in = new Input(bytes);
+    in.readHeader();
+    int turns = in.readInt();
+    if (turns < 0) {
+      throw corrupt("negative number of turns");
+    }
+    int count = in.readByte();
+    if (count > MAXIMUM_PLAYERS) {
+      throw corrupt(count + " players");
+    }
+    TileIdSet seen = new TileIdSet();
+    List<Player> players = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      players.add(readPlayer(in, seen));
+    }
+    Player currentPlayer = readPlayerIndex(in, players);
+    Player winner = readPlayerIndex(in, players);
+    if ((turns == 0) != (currentPlayer == null)) {
+      throw corrupt("current player does not match the number of turns");
+    }
+    byte[] pool = readIds(in, in.readByte(), seen);
+    RummikubGame game = RummikubGame.create();
+    if (in.readByte() != game.getBoardWidth() || in.readByte() != game.getBoardHeight()) {
+      throw corrupt("wrong size of the board");
+    }
+    byte[][] rows = new byte[game.getBoardHeight()][game.getBoardWidth()];
+    for (byte[] row : rows) {
+      for (int x = 0; x < row.length; x++) {
+        int id = in.readByte();
+        row[x] = id == NONE ? -1 : checkId(id, seen);
+      }
+    }
+    in.readEnd();
+    if (turns == 0 && !seen.isEmpty()) {
+      throw corrupt("tiles in a game that has not been started");
+    }
+    game.restore(new GameSnapshot(rows, players, TilePool.of(pool), currentPlayer, winner, turns));
+    return game;
+  }
+
+  /**
+   * Returns the encoded form of the specified player, including his rack and state.
+   *
+   * @param player the player to be encoded
+   * @return the encoded player
+   * @throws IllegalArgumentException if the player cannot be encoded
+   */
+  public static byte[] encodePlayer(RummikubPlayer player) {
+    Output out = new Output(INITIAL_CAPACITY);
+    out.writeHeader();
+    writePlayer(out, player, player.saveState());
+    return out.toByteArray();
+  }
+
+  /**
+   * Returns the player encoded in the specified bytes. The returned player equals the encoded
+   * player but is not part of a game.
+   *
+   * @param bytes an encoded player as returned by {@link #encodePlayer(RummikubPlayer)}
+   * @return the decoded player
+   * @throws IllegalArgumentException if the bytes are not a valid encoded player
+   */
+  public static RummikubPlayer decodePlayer(byte[] bytes) {
+    Input in = new Input(bytes);
+    in.readHeader();
+    RummikubPlayer player = readPlayer(in, new TileIdSet());
+    in.readEnd();
+    return player;
+  }
+
+  /**
+   * Returns the encoded form of the specified changes of a turn, i.e. the state of the pull and
+   * the number of changed positions as {@code u8}, followed by the X- and Y-coordinate and the tile
+   * id ({@code 0xFF} if empty) of each changed position.
+   *
+   * @param turn the changes to be encoded
+   * @return the encoded changes
+   */
+  public static byte[] encodeTurn(TurnDelta turn) {
+    Output out = new Output(HEADER_LENGTH + 2 + 3 * turn.size());
+    out.writeHeader();
+    out.writeByte(turn.isPull() ? PULLED_FROM_POOL : 0);
+    out.writeByte(turn.size());
+    for (int i = 0; i < turn.size(); i++) {
+      out.writeByte(turn.getX(i));
+      out.writeByte(turn.getY(i));
+      out.writeByte(turn.getId(i));
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Returns the changes of a turn encoded in the specified bytes.
+   *
+   * @param bytes encoded changes as returned by {@link #encodeTurn(TurnDelta)}
+   * @return the decoded changes
+   * @throws IllegalArgumentException if the bytes are not valid encoded changes, e.g. a position
+   *         or a tile occurs twice
+   */
+  public static TurnDelta decodeTurn(byte[] bytes) {
+    Input in = new Input(bytes);
+    in.readHeader();
+    int state = in.readByte();
+    if ((state & ~PULLED_FROM_POOL) != 0) {
+      throw corrupt("unknown state of turn " + state);
+    }
+    int count = in.readByte();
+    byte[] columns = new byte[count];
+    byte[] rows = new byte[count];
+    byte[] ids = new byte[count];
+    boolean[] isChanged = new boolean[Board.WIDTH * Board.HEIGHT];
+    TileIdSet seen = new TileIdSet();
+    for (int i = 0; i < count; i++) {
+      int x = in.readByte();
+      int y = in.readByte();
+      if (x >= Board.WIDTH || y >= Board.HEIGHT || isChanged[y * Board.WIDTH + x]) {
+        throw corrupt("invalid position (" + x + ", " + y + ")");
+      }
+      isChanged[y * Board.WIDTH + x] = true;
+      int id = in.readByte();
+      columns[i] = (byte) x;
+      rows[i] = (byte) y;
+      ids[i] = id == NONE ? TurnDelta.EMPTY : checkId(id, seen);
+    }
+    in.readEnd();
+    return new TurnDelta(columns, rows, ids, state != 0);
+  }
+
+  private static void writePlayer(Output out, RummikubPlayer player, RummikubPlayer.State state) {
+    PlayerFactory factory = Factories.of(player.getClass());
+    out.writeByte(factory == null ? HUMAN : factory.getKind());
+    byte[] name = player.getName() == null ? new byte[0]
+        : player.getName().getBytes(StandardCharsets.UTF_8);
+    if (name.length > MAXIMUM_NAME_LENGTH) {
+      throw new IllegalArgumentException("The name of the player is too long.");
+    }
+    out.writeShort(name.length);
+    out.write(name);
+    out.writeInt(player.getAge());
+    out.writeLong(player.getId().getMostSignificantBits());
+    out.writeLong(player.getId().getLeastSignificantBits());
+    out.writeByte((state.isFirstMoveDone() ? FIRST_MOVE_DONE : 0)
+        | (state.hasPulledFromPool() ? PULLED_FROM_POOL : 0));
+    byte[] rack = state.getRack();
+    out.writeByte(state.getRackSize());
+    for (int i = 0; i < state.getRackSize(); i++) {
+      out.writeByte(rack[i]);
+    }
+    TileIdSet setTiles = state.getSetTiles();
+    out.writeByte(setTiles.size());
+    for (int id = 0; id < RummikubTile.NUMBER_OF_TILES; id++) {
+      if (setTiles.contains(id)) {
+        out.writeByte(id);
+      }
+    }
+    if (factory != null) {
+      ByteBuffer data = ByteBuffer.allocate(factory.getDataLength());
+      factory.writeData(player, data);
+      out.write(data.array());
+    }
+  }
+
+  /**
+   * Reads a player and adds the tiles on his rack to the specified tiles seen so far.
+   */
+  private static RummikubPlayer readPlayer(Input in, TileIdSet seen) {
+    int kind = in.readByte();
+    PlayerFactory factory = kind < NONE ? Factories.BY_KIND[kind] : null;
+    if (kind != HUMAN && factory == null) {
+      throw corrupt("unknown kind of player " + kind);
+    }
+    String name = new String(in.read(in.readShort()), StandardCharsets.UTF_8);
+    int age = in.readInt();
+    UUID id = new UUID(in.readLong(), in.readLong());
+    int state = in.readByte();
+    if ((state & ~(FIRST_MOVE_DONE | PULLED_FROM_POOL)) != 0) {
+      throw corrupt("unknown state of player " + state);
+    }
+    int rackSize = in.readByte();
+    byte[] rack = readIds(in, rackSize, seen);
+    TileIdSet setTiles = new TileIdSet();
+    int setCount = in.readByte();
+    for (int i = 0; i < setCount; i++) {
+      int setId = in.readByte();
+      if (setId >= RummikubTile.NUMBER_OF_TILES || setTiles.contains(setId)) {
+        throw corrupt("invalid set tile " + setId);
+      }
+      setTiles.add(setId);
+    }
+    ByteBuffer data = factory == null ? null : ByteBuffer.wrap(in.read(factory.getDataLength()));
+    RummikubPlayer player;
+    try {
+      player = factory == null ? RummikubPlayer.of(name, age) : factory.create(name, age, data);
+    } catch (IllegalArgumentException e) {
+      throw corrupt(e.getMessage());
+    }
+    player.setId(id);
+    player.restoreState(new RummikubPlayer.State(rack, rackSize, setTiles,
+        (state & FIRST_MOVE_DONE) != 0, (state & PULLED_FROM_POOL) != 0));
+    return player;
+  }
+
+  /**
+   * Reads the specified number of tile ids and adds them to the tiles seen so far.
+   */
+  private static byte[] readIds(Input in, int count, TileIdSet seen) {
+    byte[] ids = new byte[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = checkId(in.readByte(), seen);
+    }
+    return ids;
+  }
+
+  /**
+   * Adds the specified tile id to the tiles seen so far and returns it.
+   *
+   * @throws IllegalArgumentException if the id is out of range or was seen before
+   */
+  private static byte checkId(int id, TileIdSet seen) {
+    if (id >= RummikubTile.NUMBER_OF_TILES) {
+      throw corrupt("invalid tile id " + id);
+    }
+    if (seen.contains(id)) {
+      throw corrupt("tile " + RummikubTile.byId(id) + " occurs twice");
+    }
+    seen.add(id);
+    return (byte) id;
+  }
+
+  private static Player readPlayerIndex(Input in, List<Player> players) {
+    int index = in.readByte();
+    if (index == NONE) {
+      return null;
+    }
+    if (index >= players.size()) {
+      throw corrupt("invalid player index " + index);
+    }
+    return players.get(index);
+  }
+
+  private static int indexOf(List<Player> players, Player player) {
+    return player == null ? NONE : players.indexOf(player);
+  }
+
+  private static IllegalArgumentException corrupt(String reason) {
+    return new IllegalArgumentException("Invalid encoded game: " + reason + ".");
+  }
+
+  /**
+   * The factories of the players other than humans by their kind and by the class of their
+   * players, loaded when a player is encoded or decoded first.
+   */
+  private static final class Factories {
+
+    static final PlayerFactory[] BY_KIND = new PlayerFactory[NONE];
+
+    static final Map<Class<?>, PlayerFactory> BY_CLASS = new HashMap<>();
+
+    static {
+      for (PlayerFactory factory
+          : ServiceLoader.load(PlayerFactory.class, GameCodec.class.getClassLoader())) {
+        int kind = factory.getKind();
+        if (kind <= HUMAN || kind >= NONE || BY_KIND[kind] != null) {
+          throw new IllegalStateException("Invalid kind of player " + kind + ".");
+        }
+        BY_KIND[kind] = factory;
+        BY_CLASS.put(factory.getPlayerClass(), factory);
+      }
+    }
+
+    /**
+     * Returns the factory of the specified class of players or of its nearest superclass,
+     * {@code null} for human players.
+     */
+    static PlayerFactory of(Class<?> type) {
+      for (Class<?> c = type; c != RummikubPlayer.class && c != null; c = c.getSuperclass()) {
+        PlayerFactory factory = BY_CLASS.get(c);
+        if (factory != null) {
+          return factory;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * A growing array of bytes the encoded game is written to.
+   */
+  private static final class Output {
+
+    private byte[] bytes;
+
+    private int size;
+
+    Output(int capacity) {
+      this.bytes = new byte[capacity];
+    }
+
+    void writeHeader() {
+      writeShort(MAGIC);
+      writeByte(VERSION);
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      bytes[size++] = (byte) value;
+    }
+
+    void writeShort(int value) {
+      writeByte(value >>> 8);
+      writeByte(value);
+    }
+
+    void writeInt(int value) {
+      writeShort(value >>> 16);
+      writeShort(value);
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    void write(byte[] values) {
+      ensureCapacity(values.length);
+      System.arraycopy(values, 0, bytes, size, values.length);
+      size += values.length;
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > bytes.length) {
+        byte[] grown = new byte[Math.max(bytes.length * 2, size + length)];
+        System.arraycopy(bytes, 0, grown, 0, size);
+        bytes = grown;
+      }
+    }
+
+    byte[] toByteArray() {
+      byte[] result = new byte[size];
+      System.arraycopy(bytes, 0, result, 0, size);
+      return result;
+    }
+
+  }
+
+  /**
+   * The encoded bytes read from the start, every read checks the end of the bytes.
+   */
+  private static final class Input {
+
+    private final byte[] bytes;
+
+    private int position;
+
+    Input(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    void readHeader() {
+      if (readShort() != MAGIC) {
+        throw corrupt("wrong magic number");
+      }
+      int version = readByte();
+      if (version != VERSION) {
+        throw corrupt("unsupported version " + version);
+      }
+    }
+
+    /**
+     * Returns the next byte as an unsigned value.
+     */
+    int readByte() {
+      if (position == bytes.length) {
+        throw corrupt("unexpected end");
+      }
+      return bytes[position++] & 0xFF;
+    }
+
+    int readShort() {
+      return readByte() << 8 | readByte();
+    }
+
+    int readInt() {
+      return readShort() << 16 | readShort();
+    }
+
+    long readLong() {
+      return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+    }
+
+    byte[] read(int length) {
+      if (length > bytes.length - position) {
+        throw corrupt("unexpected end");
+      }
+      byte[] values = new byte[length];
+      System.arraycopy(bytes, position, values, 0, length);
+      position += length;
+      return values;
+    }
+
+    void readEnd() {
+      if (position != bytes.length) {
+        throw corrupt((bytes.length - position) + " trailing bytes");
+      }
+    }
+
+  }
+
+}
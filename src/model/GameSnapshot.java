@@ -0,0 +1,126 @@
+package model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable snapshot of a {@link RummikubGame}, i.e. its board, the racks and states of all
+ * players, the pool and the current turn. Snapshots are structurally shared with the game: taking
+ * a snapshot does not copy any tiles, instead the game copies a row of its board or a rack when it
+ * modifies it the next time. Thus a snapshot can be taken after every turn and only the parts
+ * changed during a turn are allocated. A snapshot never changes, so it may be read on any thread
+ * while its game goes on.
+ *
+ * @see RummikubGame#snapshot()
+ * @see RummikubGame#restore(GameSnapshot)
+ */
+public final class GameSnapshot implements Serializable {
+
+  private static final long serialVersionUID = 3349412387702957541L;
+
+  /**
+   * The rows of the board, shared with the game's board and never modified.
+   */
+  private final byte[][] boardRows;
+
+  /**
+   * The players of the game in the order of their turns.
+   */
+  private final List<Player> players;
+
+  /**
+   * The state of each player, in the same order as {@link #players}.
+   */
+  private final List<RummikubPlayer.State> playerStates;
+
+  /**
+   * The pool of tiles, sharing its tiles with the game's pool.
+   */
+  private final TilePool poolOfTiles;
+
+  /**
+   * The current player.
+   */
+  private final Player currentPlayer;
+
+  /**
+   * The winner of the game or {@code null}.
+   */
+  private final Player winner;
+
+  /**
+   * The number of turns played.
+   */
+  private final int turns;
+
+  /**
+   * Initializes a new {@code GameSnapshot} with the specified values.
+   */
+  GameSnapshot(byte[][] boardRows, List<Player> players, TilePool poolOfTiles,
+      Player currentPlayer, Player winner, int turns) {
+    this.boardRows = boardRows;
+    this.players = Collections.unmodifiableList(new ArrayList<>(players));
+    List<RummikubPlayer.State> states = new ArrayList<>(players.size());
+    for (Player p : players) {
+      states.add(((RummikubPlayer) p).saveState());
+    }
+    this.playerStates = Collections.unmodifiableList(states);
+    this.poolOfTiles = TilePool.copyOf(poolOfTiles);
+    this.currentPlayer = currentPlayer;
+    this.winner = winner;
+    this.turns = turns;
+  }
+
+  /**
+   * Returns the rows of the board. The returned rows must not be modified.
+   */
+  byte[][] getBoardRows() {
+    return boardRows;
+  }
+
+  /**
+   * Returns the players of the game in the order of their turns.
+   */
+  public List<Player> getPlayers() {
+    return players;
+  }
+
+  /**
+   * Returns the state of the player at the specified index of {@link #getPlayers()}.
+   */
+  RummikubPlayer.State getPlayerState(int index) {
+    return playerStates.get(index);
+  }
+
+  /**
+   * Returns a copy of the pool of tiles.
+   */
+  TilePool getPoolOfTiles() {
+    return TilePool.copyOf(poolOfTiles);
+  }
+
+  /**
+   * Returns the current player.
+   */
+  public Player getCurrentPlayer() {
+    return currentPlayer;
+  }
+
+  /**
+   * Returns the winner of the game or {@code null} if the game was not won when the snapshot was
+   * taken.
+   */
+  public Player getWinner() {
+    return winner;
+  }
+
+  /**
+   * Returns the number of turns played when the snapshot was taken.
+   */
+  public int getTurns() {
+    return turns;
+  }
+
+}
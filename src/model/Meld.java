@@ -0,0 +1,103 @@
+package model;
+
+import java.util.List;
+
+/**
+ * The result of validating a sequence of tiles, i.e. a legal run or group together with the values
+ * its jokers represent. Validating tiles with {@link #of(List)} never changes the tiles, so it is
+ * safe to validate tiles that are shared by several games or threads.
+ *
+ * <p>Instances are immutable and canonical, there is exactly one instance for each legal sequence
+ * of tile colors and values.
+ */
+public final class Meld {
+
+  /**
+   * {@code true} if this meld is a run, {@code false} if it is a group.
+   */
+  private final boolean isRun;
+
+  /**
+   * The value at each position of this meld, jokers included.
+   */
+  private final byte[] values;
+
+  /**
+   * The sum of all values in this meld.
+   */
+  private final int valueSum;
+
+  /**
+   * Initializes a new {@code Meld} with the specified values.
+   *
+   * @param isRun {@code true} if the meld is a run, {@code false} if it is a group
+   * @param values the value at each position, the array is not copied
+   * @param valueSum the sum of all values
+   */
+  Meld(boolean isRun, byte[] values, int valueSum) {
+    this.isRun = isRun;
+    this.values = values;
+    this.valueSum = valueSum;
+  }
+
+  /**
+   * Returns the meld formed by the specified tiles or {@code null} if the tiles are neither a run
+   * nor a group. The tiles are not modified, in particular the values of jokers stay untouched.
+   *
+   * @param tiles the tiles in the order they are placed on the board
+   * @return the meld formed by the tiles or {@code null} if the tiles do not form a legal meld
+   */
+  public static Meld of(List<? extends Tile> tiles) {
+    return MeldTable.lookupMeld(tiles);
+  }
+
+  /**
+   * Returns {@code true} if this meld is a run.
+   */
+  public boolean isRun() {
+    return isRun;
+  }
+
+  /**
+   * Returns {@code true} if this meld is a group.
+   */
+  public boolean isGroup() {
+    return !isRun;
+  }
+
+  /**
+   * Returns the number of tiles in this meld.
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Returns the value of the tile at the specified position. If the tile is a joker the value it
+   * represents in this meld is returned.
+   *
+   * @param position the position of the tile (counted from left to right)
+   * @throws IndexOutOfBoundsException if the specified position is out of range
+   */
+  public int getValue(int position) {
+    return values[position];
+  }
+
+  /**
+   * Returns the sum of all values in this meld including the values the jokers represent.
+   */
+  public int getValueSum() {
+    return valueSum;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder(isRun ? "Run" : "Group");
+    s.append(" [");
+    for (int i = 0; i < values.length; i++) {
+      s.append(i == 0 ? "" : ", ").append(values[i]);
+    }
+    return s.append("]").toString();
+  }
+
+}
@@ -0,0 +1,280 @@
+package model;
+
+import java.util.List;
+
+/**
+ * A lookup table of all legal runs and groups. The table is built once when this class is loaded
+ * and afterwards answers in constant time whether a sequence of tiles is a legal meld and which
+ * values the jokers in it represent. As the table is never modified after initialization it can be
+ * used by any number of threads without synchronization.
+ *
+ * <p>A candidate sequence is encoded as a compact key of two {@code long}s. Every tile is encoded
+ * with six bits ({@code 0} for a joker, otherwise {@code color * 13 + value}), the first ten tiles
+ * and the length of the sequence are stored in the low word and the remaining tiles of long runs
+ * in the high word. The result of a lookup is the canonical {@link Meld} stored for the key.
+ *
+ * @see <a href="http://rummikub.com/wp-content/uploads/2017/01/2600-English-manual.pdf">Rummikub
+ *      rules</a>
+ */
+final class MeldTable {
+
+  /**
+   * Minimal number of tiles for a sequence to be valid.
+   */
+  static final int MINIMAL_SIZE = 3;
+
+  /**
+   * Maximal size of a group.
+   */
+  static final int MAXIMAL_GROUP_SIZE = 4;
+
+  /**
+   * Maximal size of a run.
+   */
+  static final int MAXIMAL_RUN_SIZE = 13;
+
+  /**
+   * The number of jokers in the game, no meld can contain more jokers than this.
+   */
+  private static final int NUMBER_OF_JOKERS = 2;
+
+  /**
+   * The code of a joker within a key.
+   */
+  private static final int JOKER_CODE = 0;
+
+  /**
+   * The number of bits used to encode one tile within a key.
+   */
+  private static final int BITS_PER_TILE = 6;
+
+  /**
+   * The number of tiles stored in the low word of a key.
+   */
+  private static final int TILES_IN_LOW_WORD = 10;
+
+  /**
+   * The position of the sequence length within the low word of a key.
+   */
+  private static final int LENGTH_SHIFT = BITS_PER_TILE * TILES_IN_LOW_WORD;
+
+  /**
+   * The number of bits used to address a slot of the table. The table holds about 11,000 melds so
+   * 2^15 slots keep the load factor at about one third.
+   */
+  private static final int TABLE_BITS = 15;
+
+  /**
+   * Low words of all keys in the table.
+   */
+  private static final long[] KEYS_LOW = new long[1 << TABLE_BITS];
+
+  /**
+   * High words of all keys in the table.
+   */
+  private static final long[] KEYS_HIGH = new long[1 << TABLE_BITS];
+
+  /**
+   * The canonical {@code Meld} instances, {@code null} marks an empty slot.
+   */
+  private static final Meld[] RESULTS = new Meld[1 << TABLE_BITS];
+
+  static {
+    // runs are added first, so a sequence that is both a run and a group (e.g. [Red 5, Joker,
+    // Joker]) resolves its jokers as a run
+    addAllRuns();
+    addAllGroups();
+  }
+
+  /**
+   * Prevents instantiation.
+   */
+  private MeldTable() {}
+
+  /**
+   * Returns the canonical {@link Meld} formed by the specified tiles or {@code null} if the tiles
+   * are neither a run nor a group.
+   *
+   * @param tiles the tiles in the order they are placed on the board
+   */
+  static Meld lookupMeld(List<? extends Tile> tiles) {
+    int slot = slotOf(tiles);
+    return slot < 0 ? null : RESULTS[slot];
+  }
+
+  /**
+   * Returns the six bit code of the specified tile as used within keys.
+   */
+  private static int encode(Tile tile) {
+    if (tile.isJoker()) {
+      return JOKER_CODE;
+    }
+    return encode(tile.getColor(), tile.getValue());
+  }
+
+  /**
+   * Returns the six bit code of a regular tile with the specified color and value.
+   */
+  private static int encode(Color color, int value) {
+    return color.ordinal() * RummikubTile.HIGHEST_VALUE + value;
+  }
+
+  /**
+   * Returns the slot for the key of the specified tiles or {@code -1} if the tiles cannot form a
+   * meld because of their number.
+   */
+  private static int slotOf(List<? extends Tile> tiles) {
+    int size = tiles.size();
+    if (size < MINIMAL_SIZE || size > MAXIMAL_RUN_SIZE) {
+      return -1;
+    }
+    long low = (long) size << LENGTH_SHIFT;
+    long high = 0;
+    for (int i = 0; i < size; i++) {
+      long code = encode(tiles.get(i));
+      if (i < TILES_IN_LOW_WORD) {
+        low |= code << (i * BITS_PER_TILE);
+      } else {
+        high |= code << ((i - TILES_IN_LOW_WORD) * BITS_PER_TILE);
+      }
+    }
+    return slotOf(low, high);
+  }
+
+  /**
+   * Returns the low word of the key for the specified tile codes.
+   */
+  private static long lowWord(int[] codes, int length) {
+    long low = (long) length << LENGTH_SHIFT;
+    for (int i = 0; i < Math.min(length, TILES_IN_LOW_WORD); i++) {
+      low |= (long) codes[i] << (i * BITS_PER_TILE);
+    }
+    return low;
+  }
+
+  /**
+   * Returns the high word of the key for the specified tile codes.
+   */
+  private static long highWord(int[] codes, int length) {
+    long high = 0;
+    for (int i = TILES_IN_LOW_WORD; i < length; i++) {
+      high |= (long) codes[i] << ((i - TILES_IN_LOW_WORD) * BITS_PER_TILE);
+    }
+    return high;
+  }
+
+  /**
+   * Returns the slot holding the specified key or the empty slot where it would be stored.
+   */
+  private static int slotOf(long low, long high) {
+    long hash = (low ^ (high * 0xC2B2AE3D27D4EB4FL)) * 0x9E3779B97F4A7C15L;
+    int slot = (int) (hash >>> (Long.SIZE - TABLE_BITS));
+    int mask = RESULTS.length - 1;
+    while (RESULTS[slot] != null && (KEYS_LOW[slot] != low || KEYS_HIGH[slot] != high)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Adds the specified meld unless the table already holds a meld for the same tiles.
+   */
+  private static void add(int[] codes, int length, boolean isRun, int[] jokerValues,
+      int valueSum) {
+    long low = lowWord(codes, length);
+    long high = highWord(codes, length);
+    int slot = slotOf(low, high);
+    if (RESULTS[slot] != null) {
+      return;
+    }
+    byte[] values = new byte[length];
+    for (int i = 0, jokers = 0; i < length; i++) {
+      if (codes[i] == JOKER_CODE) {
+        values[i] = (byte) jokerValues[jokers++];
+      } else {
+        values[i] = (byte) ((codes[i] - 1) % RummikubTile.HIGHEST_VALUE + 1);
+      }
+    }
+    KEYS_LOW[slot] = low;
+    KEYS_HIGH[slot] = high;
+    RESULTS[slot] = new Meld(isRun, values, valueSum);
+  }
+
+  /**
+   * Adds every run of every color, length and start value with up to two tiles replaced by jokers.
+   */
+  private static void addAllRuns() {
+    int[] codes = new int[MAXIMAL_RUN_SIZE];
+    int[] jokerValues = new int[NUMBER_OF_JOKERS];
+    for (Color color : Color.values()) {
+      for (int length = MINIMAL_SIZE; length <= MAXIMAL_RUN_SIZE; length++) {
+        int lastStart = RummikubTile.HIGHEST_VALUE - length + 1;
+        for (int start = RummikubTile.LOWEST_VALUE; start <= lastStart; start++) {
+          int valueSum = 0;
+          for (int i = 0; i < length; i++) {
+            valueSum += start + i;
+          }
+          // every set bit of the mask marks a position that is taken by a joker
+          for (int jokerMask = 0; jokerMask < 1 << length; jokerMask++) {
+            if (Integer.bitCount(jokerMask) > NUMBER_OF_JOKERS) {
+              continue;
+            }
+            int jokers = 0;
+            for (int i = 0; i < length; i++) {
+              if ((jokerMask & (1 << i)) != 0) {
+                codes[i] = JOKER_CODE;
+                jokerValues[jokers++] = start + i;
+              } else {
+                codes[i] = encode(color, start + i);
+              }
+            }
+            for (int i = jokers; i < NUMBER_OF_JOKERS; i++) {
+              jokerValues[i] = 0;
+            }
+            add(codes, length, true, jokerValues, valueSum);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds every group of every value in every order of colors with up to two jokers.
+   */
+  private static void addAllGroups() {
+    int[] codes = new int[MAXIMAL_GROUP_SIZE];
+    for (int value = RummikubTile.LOWEST_VALUE; value <= RummikubTile.HIGHEST_VALUE; value++) {
+      for (int length = MINIMAL_SIZE; length <= MAXIMAL_GROUP_SIZE; length++) {
+        addGroups(codes, 0, length, value, 0, 0);
+      }
+    }
+  }
+
+  /**
+   * Recursively fills the positions from {@code position} to {@code length - 1} with unused
+   * colors or jokers and adds every completed group.
+   *
+   * @param usedColors bit mask of the colors already used in the group
+   * @param jokers the number of jokers already used in the group
+   */
+  private static void addGroups(int[] codes, int position, int length, int value,
+      int usedColors, int jokers) {
+    if (position == length) {
+      int[] jokerValues = {jokers > 0 ? value : 0, jokers > 1 ? value : 0};
+      add(codes, length, false, jokerValues, value * length);
+      return;
+    }
+    for (Color color : Color.values()) {
+      int bit = 1 << color.ordinal();
+      if ((usedColors & bit) == 0) {
+        codes[position] = encode(color, value);
+        addGroups(codes, position + 1, length, value, usedColors | bit, jokers);
+      }
+    }
+    if (jokers < NUMBER_OF_JOKERS) {
+      codes[position] = JOKER_CODE;
+      addGroups(codes, position + 1, length, value, usedColors, jokers + 1);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("MeldTable tests.")
+class MeldTableTest {
+
+  private static final Tile JOKER = RummikubTile.createJoker();
+
+  @Test
+  @DisplayName("Jokers in a run represent the missing values.")
+  void testJokerValuesInRun() {
+    Meld meld = MeldTable.lookupMeld(Arrays.asList(JOKER, RummikubTile.createTile(Color.RED, 4),
+        JOKER, RummikubTile.createTile(Color.RED, 6)));
+    assertAll(
+        () -> assertTrue(meld.isRun()),
+        () -> assertEquals(3, meld.getValue(0)),
+        () -> assertEquals(5, meld.getValue(2)),
+        () -> assertEquals(18, meld.getValueSum()));
+  }
+
+  @Test
+  @DisplayName("Jokers in a group represent the group's value.")
+  void testJokerValuesInGroup() {
+    Meld meld = MeldTable.lookupMeld(Arrays.asList(RummikubTile.createTile(Color.BLUE, 9), JOKER,
+        RummikubTile.createTile(Color.RED, 9)));
+    assertAll(
+        () -> assertFalse(meld.isRun()),
+        () -> assertEquals(9, meld.getValue(1)),
+        () -> assertEquals(27, meld.getValueSum()));
+  }
+
+  @Test
+  @DisplayName("Leading jokers cannot represent values below one.")
+  void testLeadingJokersBelowLowestValue() {
+    assertNull(MeldTable.lookupMeld(Arrays.asList(JOKER, JOKER,
+        RummikubTile.createTile(Color.RED, 2), RummikubTile.createTile(Color.RED, 3))));
+  }
+
+  @Test
+  @DisplayName("Sequences that are both run and group resolve as run.")
+  void testRunPrecedence() {
+    Meld meld = MeldTable.lookupMeld(
+        Arrays.asList(RummikubTile.createTile(Color.RED, 5), JOKER, JOKER));
+    assertAll(
+        () -> assertTrue(meld.isRun()),
+        () -> assertEquals(6, meld.getValue(1)),
+        () -> assertEquals(7, meld.getValue(2)));
+  }
+
+  @Test
+  @DisplayName("Runs of all thirteen values are found.")
+  void testLongestRun() {
+    List<Tile> tiles = new ArrayList<>();
+    for (int value = 1; value < 13; value++) {
+      tiles.add(RummikubTile.createTile(Color.ORANGE, value));
+    }
+    tiles.add(JOKER);
+    Meld meld = MeldTable.lookupMeld(tiles);
+    assertAll(
+        () -> assertTrue(meld.isRun()),
+        () -> assertEquals(13, meld.size()),
+        () -> assertEquals(13, meld.getValue(12)),
+        () -> assertEquals(91, meld.getValueSum()));
+  }
+
+  @Test
+  @DisplayName("Equal sequences of tiles share one canonical meld.")
+  void testCanonical() {
+    assertSame(
+        MeldTable.lookupMeld(Arrays.asList(RummikubTile.createTile(Color.BLUE, 9), JOKER,
+            RummikubTile.createTile(Color.RED, 9))),
+        MeldTable.lookupMeld(Arrays.asList(RummikubTile.createTile(Color.BLUE, 9), JOKER,
+            RummikubTile.createTile(Color.RED, 9))));
+  }
+
+}
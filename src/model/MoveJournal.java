@@ -0,0 +1,242 @@
+package model;
+
+/**
+ * The journal of the moves made during the current turn of a {@link RummikubGame}. Each move is
+ * packed into a single {@code int}: the kind of the move, the id of the moved tile and either the
+ * position on the board or the index on a player's rack. The journal keeps undone moves until a new
+ * move is recorded, so they can be redone.
+ */
+final class MoveJournal {
+
+  /**
+   * A tile was removed from the board.
+   */
+  static final int POLL = 0;
+
+  /**
+   * A tile was set to the board.
+   */
+  static final int SET = 1;
+
+  /**
+   * A tile was removed from a player's rack.
+   */
+  static final int RACK_REMOVE = 2;
+
+  /**
+   * A tile was added to a player's rack.
+   */
+  static final int RACK_ADD = 3;
+
+  /**
+   * The initial capacity of the array holding the moves.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * The number of bits of the id of the tile, the ids are less than 128.
+   *
+   * <p>The bits of a packed move, from the lowest to the highest: the id of the tile (7 bits), the
+   * first position (8 bits), the second position (8 bits), the kind (2 bits) and the flag (1 bit).
+   * The positions are the X- and Y-coordinate on the board, or the index on the rack and the index
+   * of the player.
+   */
+  private static final int ID_BITS = 7;
+
+  /**
+   * The number of bits of each position.
+   */
+  private static final int POSITION_BITS = 8;
+
+  /**
+   * The position of the kind of the move.
+   */
+  private static final int KIND_SHIFT = ID_BITS + 2 * POSITION_BITS;
+
+  /**
+   * The position of the flag of a {@link #RACK_REMOVE} move.
+   */
+  private static final int FLAG_SHIFT = KIND_SHIFT + 2;
+
+  /**
+   * Selects the id of the tile of a move.
+   */
+  private static final int MASK_ID = (1 << ID_BITS) - 1;
+
+  /**
+   * Selects a position of a move after shifting it to the lowest bits.
+   */
+  private static final int MASK_POSITION = (1 << POSITION_BITS) - 1;
+
+  /**
+   * The recorded moves, the first {@link #size} moves are done and the moves up to {@link #end}
+   * were undone and can be redone.
+   */
+  private int[] moves;
+
+  /**
+   * The number of moves done.
+   */
+  private int size;
+
+  /**
+   * The number of moves done or undone.
+   */
+  private int end;
+
+  /**
+   * Initializes an empty {@code MoveJournal}.
+   */
+  MoveJournal() {
+    this.moves = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Returns a move of a tile on the board.
+   *
+   * @param kind either {@link #POLL} or {@link #SET}
+   * @param x the X-coordinate of the position
+   * @param y the Y-coordinate of the position
+   * @param tile the moved tile
+   */
+  static int boardMove(int kind, int x, int y, Tile tile) {
+    return pack(kind, x, y, tile, false);
+  }
+
+  /**
+   * Returns a move of a tile on a player's rack.
+   *
+   * @param kind either {@link #RACK_REMOVE} or {@link #RACK_ADD}
+   * @param player the index of the player in the game
+   * @param index the index of the tile on the rack
+   * @param tile the moved tile
+   * @param flag for {@link #RACK_REMOVE} whether the tile was added to the player's set tiles
+   */
+  static int rackMove(int kind, int player, int index, Tile tile, boolean flag) {
+    return pack(kind, index, player, tile, flag);
+  }
+
+  /**
+   * Returns the move of the specified kind packed into an {@code int}, see {@link #ID_BITS}.
+   *
+   * @param x the first position, i.e. the X-coordinate or the index on the rack
+   * @param y the second position, i.e. the Y-coordinate or the index of the player
+   */
+  private static int pack(int kind, int x, int y, Tile tile, boolean flag) {
+    return (flag ? 1 << FLAG_SHIFT : 0) | kind << KIND_SHIFT
+        | y << (ID_BITS + POSITION_BITS) | x << ID_BITS | tile.getId();
+  }
+
+  /**
+   * Returns the kind of the specified move.
+   */
+  static int kindOf(int move) {
+    return (move >>> KIND_SHIFT) & 3;
+  }
+
+  /**
+   * Returns the moved tile of the specified move.
+   */
+  static Tile tileOf(int move) {
+    return RummikubTile.byId(move & MASK_ID);
+  }
+
+  /**
+   * Returns the X-coordinate of a board move or the rack index of a rack move.
+   */
+  static int xOf(int move) {
+    return (move >>> ID_BITS) & MASK_POSITION;
+  }
+
+  /**
+   * Returns the Y-coordinate of a board move or the player index of a rack move.
+   */
+  static int yOf(int move) {
+    return (move >>> (ID_BITS + POSITION_BITS)) & MASK_POSITION;
+  }
+
+  /**
+   * Returns the flag of the specified move.
+   */
+  static boolean flagOf(int move) {
+    return (move >>> FLAG_SHIFT) != 0;
+  }
+
+  /**
+   * Records the specified move. All undone moves are discarded.
+   *
+   * @param move the move as returned by {@link #boardMove} or {@link #rackMove}
+   */
+  void record(int move) {
+    if (size == moves.length) {
+      int[] grown = new int[moves.length * 2];
+      System.arraycopy(moves, 0, grown, 0, size);
+      moves = grown;
+    }
+    moves[size++] = move;
+    end = size;
+  }
+
+  /**
+   * Returns the number of moves done.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the move done at the specified index, counted from the first move of the turn.
+   *
+   * @param index the index of the move, less than {@link #size()}
+   */
+  int get(int index) {
+    return moves[index];
+  }
+
+  /**
+   * Returns {@code true} if there is a move to be undone.
+   */
+  boolean canUndo() {
+    return size > 0;
+  }
+
+  /**
+   * Returns {@code true} if there is an undone move to be redone.
+   */
+  boolean canRedo() {
+    return size < end;
+  }
+
+  /**
+   * Returns the last move done and marks it as undone.
+   *
+   * @throws IllegalStateException if there is no move to be undone
+   */
+  int undo() {
+    if (!canUndo()) {
+      throw new IllegalStateException("No move to be undone.");
+    }
+    return moves[--size];
+  }
+
+  /**
+   * Returns the last move undone and marks it as done.
+   *
+   * @throws IllegalStateException if there is no move to be redone
+   */
+  int redo() {
+    if (!canRedo()) {
+      throw new IllegalStateException("No move to be redone.");
+    }
+    return moves[size++];
+  }
+
+  /**
+   * Removes all moves from this journal.
+   */
+  void clear() {
+    size = 0;
+    end = 0;
+  }
+
+}
@@ -0,0 +1,48 @@
+package model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and creates the players of a kind other than the human {@link RummikubPlayer}, e.g. the
+ * computer players, for the {@link GameCodec}. The codec finds the factories with a
+ * {@link java.util.ServiceLoader}, thus the model does not depend on the packages defining these
+ * kinds: a package lists its factory in {@code META-INF/services/model.PlayerFactory}.
+ */
+public interface PlayerFactory {
+
+  /**
+   * Returns the kind written in front of each player of this factory, between 1 and 254 as 0
+   * denotes a human player.
+   */
+  int getKind();
+
+  /**
+   * Returns the class of the players of this factory.
+   */
+  Class<? extends RummikubPlayer> getPlayerClass();
+
+  /**
+   * Returns the number of bytes written for each player of this factory.
+   */
+  int getDataLength();
+
+  /**
+   * Writes the values of the specified player that are not part of every player, exactly
+   * {@link #getDataLength()} bytes.
+   *
+   * @param player a player of the class of this factory
+   * @param data the buffer the values are written to
+   */
+  void writeData(RummikubPlayer player, ByteBuffer data);
+
+  /**
+   * Returns a new player with the specified name and age and the values read from the data.
+   *
+   * @param name the name of the player
+   * @param age the age of the player
+   * @param data the buffer holding the values written by {@link #writeData}
+   * @return the newly created player
+   * @throws IllegalArgumentException if the values are invalid
+   */
+  RummikubPlayer create(String name, int age, ByteBuffer data);
+}
@@ -0,0 +1,536 @@
+package model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The rack of a player, i.e. an ordered collection of tiles. Besides the order of the tiles the
+ * rack maintains a count matrix of all regular tiles by color and value, the number of jokers, a
+ * bit set of the tile ids and the sum of all values. Thus queries like "how many red sevens are on
+ * the rack" or "can a blue run from 4 to 7 be formed" are answered in constant time.
+ */
+public final class Rack implements Serializable {
+
+  private static final long serialVersionUID = -3296474862019823761L;
+
+  /**
+   * The number of different values of regular tiles.
+   */
+  private static final int VALUES = RummikubTile.HIGHEST_VALUE - RummikubTile.LOWEST_VALUE + 1;
+
+  /**
+   * The minimal number of tiles in a run or group.
+   */
+  private static final int MINIMAL_MELD_SIZE = 3;
+
+  /**
+   * All colors, {@link Color#values()} returns a new array on every call.
+   */
+  private static final Color[] COLORS = Color.values();
+
+  /**
+   * The initial capacity of the array holding the order of the tiles.
+   */
+  private static final int INITIAL_CAPACITY = 32;
+
+  /**
+   * The Zobrist keys of the tiles on a rack, indexed by the tile id.
+   */
+  private static final long[] KEYS =
+      Zobrist.keys(0x6A09E667F3BCC908L, RummikubTile.NUMBER_OF_TILES);
+
+  /**
+   * The ids of the tiles in the order they are placed on the rack.
+   */
+  private byte[] order;
+
+  /**
+   * The number of tiles on the rack.
+   */
+  private int size;
+
+  /**
+   * Indicates whether {@link #order} is shared with a snapshot and thus has to be copied before it
+   * is modified.
+   */
+  private transient boolean isOrderShared;
+
+  /**
+   * The number of regular tiles on the rack indexed by {@code color * 13 + value - 1}.
+   */
+  private final byte[] counts;
+
+  /**
+   * For each color a bit mask of the values on the rack, bit {@code value - 1} is set if at least
+   * one tile of this color and value is on the rack.
+   */
+  private final short[] valueMasks;
+
+  /**
+   * The number of jokers on the rack.
+   */
+  private int jokerCount;
+
+  /**
+   * The sum of the values of all regular tiles on the rack.
+   */
+  private int valueSum;
+
+  /**
+   * The tiles on the rack.
+   */
+  private final TileIdSet ids;
+
+  /**
+   * The Zobrist hash of the tiles on the rack, independent of their order.
+   */
+  private long hash;
+
+  /**
+   * The list view of this rack, created on first use.
+   */
+  private transient List<Tile> view;
+
+  /**
+   * Notified about changes made through the list view, may be {@code null}.
+   */
+  private transient Listener listener;
+
+  /**
+   * Initializes an empty {@code Rack}.
+   */
+  Rack() {
+    this.order = new byte[INITIAL_CAPACITY];
+    this.counts = new byte[Color.values().length * VALUES];
+    this.valueMasks = new short[Color.values().length];
+    this.ids = new TileIdSet();
+  }
+
+  /**
+   * Returns the number of tiles on this rack.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns {@code true} if there is no tile on this rack.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the tile at the specified index.
+   *
+   * @param index the index of the tile (counted from left to right)
+   * @throws IndexOutOfBoundsException if the specified index is out of range
+   */
+  public Tile get(int index) {
+    checkIndex(index, size);
+    return RummikubTile.byId(order[index]);
+  }
+
+  /**
+   * Returns {@code true} if the specified tile is on this rack.
+   */
+  public boolean contains(Tile tile) {
+    return ids.contains(tile);
+  }
+
+  /**
+   * Returns the number of tiles with the specified color and value on this rack.
+   *
+   * @param color the color of the tiles
+   * @param value the value of the tiles
+   * @throws IndexOutOfBoundsException if the specified value is less than 1 or greater than 13
+   */
+  public int count(Color color, int value) {
+    checkIndex(value - RummikubTile.LOWEST_VALUE, VALUES);
+    return counts[indexOf(color, value)];
+  }
+
+  /**
+   * Returns the number of jokers on this rack.
+   */
+  public int getJokerCount() {
+    return jokerCount;
+  }
+
+  /**
+   * Returns the sum of the values of all regular tiles on this rack, jokers are not included.
+   */
+  public int getValueSum() {
+    return valueSum;
+  }
+
+  /**
+   * Returns a bit mask of the values of the specified color on this rack. Bit {@code value - 1} is
+   * set if at least one tile with the color and value is on this rack.
+   */
+  public int getValueMask(Color color) {
+    return valueMasks[color.ordinal()];
+  }
+
+  /**
+   * Returns {@code true} if a run of the specified color and length starting at {@code start} can
+   * be formed with the tiles on this rack, missing values may be replaced by jokers.
+   *
+   * @param color the color of the run
+   * @param start the lowest value of the run
+   * @param length the number of tiles in the run
+   */
+  public boolean canFormRun(Color color, int start, int length) {
+    if (length < MINIMAL_MELD_SIZE || start < RummikubTile.LOWEST_VALUE
+        || start + length - 1 > RummikubTile.HIGHEST_VALUE) {
+      return false;
+    }
+    int range = ((1 << length) - 1) << (start - RummikubTile.LOWEST_VALUE);
+    int missing = length - Integer.bitCount(valueMasks[color.ordinal()] & range);
+    return missing <= jokerCount;
+  }
+
+  /**
+   * Returns a bit mask of all values a run of the specified color and length can start with, using
+   * jokers for missing values. Bit {@code value - 1} is set if {@code canFormRun(color, value,
+   * length)} is {@code true}.
+   *
+   * @param color the color of the runs
+   * @param length the number of tiles in the runs
+   */
+  public int getRunStarts(Color color, int length) {
+    int starts = 0;
+    int lastStart = RummikubTile.HIGHEST_VALUE - length + 1;
+    for (int start = RummikubTile.LOWEST_VALUE; start <= lastStart; start++) {
+      if (canFormRun(color, start, length)) {
+        starts |= 1 << (start - RummikubTile.LOWEST_VALUE);
+      }
+    }
+    return starts;
+  }
+
+  /**
+   * Returns {@code true} if a group of the specified value can be formed with the tiles on this
+   * rack, missing colors may be replaced by jokers.
+   *
+   * @param value the value of the group
+   */
+  public boolean canFormGroup(int value) {
+    if (value < RummikubTile.LOWEST_VALUE || value > RummikubTile.HIGHEST_VALUE) {
+      return false;
+    }
+    int colors = 0;
+    for (Color color : COLORS) {
+      if (counts[indexOf(color, value)] > 0) {
+        colors++;
+      }
+    }
+    return colors + jokerCount >= MINIMAL_MELD_SIZE;
+  }
+
+  /**
+   * Returns the Zobrist hash of the tiles on this rack. The hash does not depend on the order of
+   * the tiles.
+   */
+  long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns a modifiable list view of this rack. Changes to the list are written through to the
+   * rack, so the counts are always up to date.
+   */
+  public List<Tile> asList() {
+    if (view == null) {
+      view = new View();
+    }
+    return view;
+  }
+
+  /**
+   * Sets the listener that is notified about all changes made through the list view of this rack.
+   *
+   * @param listener the listener or {@code null}
+   */
+  void setListener(Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Returns the index of the leftmost occurrence of the specified tile on this rack or -1 if the
+   * tile is not on this rack.
+   */
+  int indexOf(Tile tile) {
+    if (contains(tile)) {
+      for (int i = 0; i < size; i++) {
+        if (order[i] == tile.getId()) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Adds the specified tile to the right end of this rack.
+   *
+   * @param tile the tile to be added
+   */
+  void add(Tile tile) {
+    add(size, tile);
+  }
+
+  /**
+   * Inserts the specified tile at the specified index of this rack.
+   *
+   * @param index the index the tile is inserted at (counted from left to right)
+   * @param tile the tile to be added
+   * @throws IndexOutOfBoundsException if the specified index is out of range
+   */
+  void add(int index, Tile tile) {
+    checkIndex(index, size + 1);
+    if (size == order.length) {
+      // a restored rack may share an empty array
+      byte[] grown = new byte[Math.max(order.length * 2, INITIAL_CAPACITY)];
+      System.arraycopy(order, 0, grown, 0, size);
+      order = grown;
+      isOrderShared = false;
+    }
+    ensureOrderIsOwned();
+    System.arraycopy(order, index, order, index + 1, size - index);
+    order[index] = (byte) tile.getId();
+    size++;
+    count(tile, 1);
+  }
+
+  /**
+   * Removes the tile at the specified index from this rack.
+   *
+   * @param index the index of the tile (counted from left to right)
+   * @return the removed tile
+   * @throws IndexOutOfBoundsException if the specified index is out of range
+   */
+  Tile remove(int index) {
+    Tile tile = get(index);
+    ensureOrderIsOwned();
+    System.arraycopy(order, index + 1, order, index, size - index - 1);
+    size--;
+    count(tile, -1);
+    return tile;
+  }
+
+  /**
+   * Removes all tiles from this rack.
+   */
+  void clear() {
+    while (size > 0) {
+      remove(size - 1);
+    }
+  }
+
+  /**
+   * Sorts this rack by the values in ascending order, jokers are placed at the right end. The order
+   * of tiles with equal values is retained.
+   */
+  void sortByValue() {
+    // counting sort with one bucket per value and the last bucket for jokers
+    int[] starts = new int[VALUES + 2];
+    for (int i = 0; i < size; i++) {
+      starts[bucketOf(order[i]) + 1]++;
+    }
+    for (int i = 1; i < starts.length; i++) {
+      starts[i] += starts[i - 1];
+    }
+    byte[] sorted = new byte[order.length];
+    for (int i = 0; i < size; i++) {
+      sorted[starts[bucketOf(order[i])]++] = order[i];
+    }
+    order = sorted;
+    isOrderShared = false;
+  }
+
+  /**
+   * Returns the ids of the tiles on this rack for a snapshot. Only the first {@link #size()}
+   * entries are used. The array is not copied but shared with the snapshot, this rack copies it
+   * before it is modified the next time.
+   */
+  byte[] shareOrder() {
+    isOrderShared = true;
+    return order;
+  }
+
+  /**
+   * Replaces all tiles of this rack by the specified tiles.
+   *
+   * @param sharedOrder the ids of the tiles as returned by {@link #shareOrder()}
+   * @param size the number of tiles
+   */
+  void restore(byte[] sharedOrder, int size) {
+    Arrays.fill(counts, (byte) 0);
+    Arrays.fill(valueMasks, (short) 0);
+    jokerCount = 0;
+    valueSum = 0;
+    hash = 0;
+    ids.clear();
+    this.order = sharedOrder;
+    this.size = size;
+    this.isOrderShared = true;
+    for (int i = 0; i < size; i++) {
+      count(RummikubTile.byId(order[i]), 1);
+    }
+  }
+
+  /**
+   * Copies the order of the tiles if it is shared with a snapshot.
+   */
+  private void ensureOrderIsOwned() {
+    if (isOrderShared) {
+      order = order.clone();
+      isOrderShared = false;
+    }
+  }
+
+  /**
+   * Returns the bucket of the tile with the specified id used for sorting.
+   */
+  private static int bucketOf(byte id) {
+    Tile tile = RummikubTile.byId(id);
+    return tile.isJoker() ? VALUES : tile.getValue() - RummikubTile.LOWEST_VALUE;
+  }
+
+  /**
+   * Updates the counts for the specified tile that was added ({@code delta == 1}) or removed
+   * ({@code delta == -1}).
+   */
+  private void count(Tile tile, int delta) {
+    hash ^= KEYS[tile.getId()];
+    if (delta > 0) {
+      ids.add(tile);
+    } else if (!occurs(tile.getId())) {
+      ids.remove(tile.getId());
+    }
+    if (tile.isJoker()) {
+      jokerCount += delta;
+      return;
+    }
+    int index = indexOf(tile.getColor(), tile.getValue());
+    counts[index] += delta;
+    valueSum += delta * tile.getValue();
+    int bit = 1 << (tile.getValue() - RummikubTile.LOWEST_VALUE);
+    int color = tile.getColor().ordinal();
+    valueMasks[color] = (short) (counts[index] > 0 ? valueMasks[color] | bit
+        : valueMasks[color] & ~bit);
+  }
+
+  /**
+   * Returns {@code true} if the specified id is on this rack, e.g. as a list being sorted holds
+   * some tiles twice for a moment.
+   */
+  private boolean occurs(int id) {
+    for (int i = 0; i < size; i++) {
+      if (order[i] == id) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the index of the specified color and value in the count matrix.
+   */
+  private static int indexOf(Color color, int value) {
+    return color.ordinal() * VALUES + value - RummikubTile.LOWEST_VALUE;
+  }
+
+  /**
+   * Throws an {@code IndexOutOfBoundsException} unless {@code 0 <= index < length}.
+   */
+  private static void checkIndex(int index, int length) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return asList().toString();
+  }
+
+  /**
+   * A list view of the rack that writes all changes through to the rack.
+   */
+  private final class View extends AbstractList<Tile> implements RandomAccess {
+
+    @Override
+    public Tile get(int index) {
+      return Rack.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return o instanceof Tile && Rack.this.contains((Tile) o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+      return o instanceof Tile ? Rack.this.indexOf((Tile) o) : -1;
+    }
+
+    @Override
+    public void add(int index, Tile tile) {
+      Rack.this.add(index, tile);
+      modCount++;
+      if (listener != null) {
+        listener.rackChanged(true, index, tile);
+      }
+    }
+
+    @Override
+    public Tile remove(int index) {
+      modCount++;
+      Tile tile = Rack.this.remove(index);
+      if (listener != null) {
+        listener.rackChanged(false, index, tile);
+      }
+      return tile;
+    }
+
+    /**
+     * Replaces the tile at the specified index by removing it and adding the specified tile at the
+     * same index, so the listener is notified about both changes.
+     */
+    @Override
+    public Tile set(int index, Tile tile) {
+      Tile replaced = remove(index);
+      add(index, tile);
+      return replaced;
+    }
+
+  }
+
+  /**
+   * A listener that is notified about the changes made through the list view of a rack.
+   */
+  @FunctionalInterface
+  interface Listener {
+
+    /**
+     * Called after a tile was added to or removed from the rack.
+     *
+     * @param isAdded {@code true} if the tile was added, {@code false} if it was removed
+     * @param index the index of the tile on the rack
+     * @param tile the added or removed tile
+     */
+    void rackChanged(boolean isAdded, int index, Tile tile);
+
+  }
+
+}
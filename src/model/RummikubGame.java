@@ -1,10 +1,12 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * The main class that coordinates the game Rummikub.
@@ -28,6 +30,18 @@ public class RummikubGame implements Rummikub, Serializable {
    */
   private static final int NUMBER_OF_TILES_AT_START = 14;
 
+  /**
+   * The Zobrist keys of the current player, indexed by the index of the player.
+   */
+  private static final long[] CURRENT_PLAYER_KEYS = Zobrist.keys(0xA54FF53A5F1D36F1L,
+      MAXIMUM_PLAYERS);
+
+  /**
+   * The number of bits the hash of a rack is rotated by per player index, so equal racks of
+   * different players contribute different keys.
+   */
+  private static final int RACK_HASH_ROTATION = 16;
+
   /**
    * All players in the current game. This list is ordered by the player's ages so the order
    * represents the actual order of the players.
@@ -42,7 +56,7 @@ public class RummikubGame implements Rummikub, Serializable {
   /**
    * The pool of tiles i.e., the tiles that can be pulled.
    */
-  private final Deque<Tile> poolOfTiles;
+  private TilePool poolOfTiles;
 
   /**
    * The current player.
@@ -60,13 +74,26 @@ public class RummikubGame implements Rummikub, Serializable {
    */
   private int turns;
 
+  /**
+   * The moves made during the current turn. The journal is local to each copy of the game, it is
+   * neither serialized nor copied.
+   */
+  private transient MoveJournal journal;
+
+  /**
+   * The random number generator used to shuffle the pool of tiles, {@code null} if a generator
+   * with a random seed should be used.
+   */
+  private transient SplittableRandom random;
+
   /**
    * Initializes a new {@code RummikubGame}.
    */
   private RummikubGame() {
     this.players = new LinkedList<>();
     this.board = Board.create();
-    this.poolOfTiles = new LinkedList<>();
+    this.poolOfTiles = TilePool.empty();
+    this.journal = new MoveJournal();
   }
 
   /**
@@ -77,7 +104,8 @@ public class RummikubGame implements Rummikub, Serializable {
   private RummikubGame(Board board) {
     this.players = new LinkedList<>();
     this.board = board;
-    this.poolOfTiles = new LinkedList<>();
+    this.poolOfTiles = TilePool.empty();
+    this.journal = new MoveJournal();
   }
 
   /**
@@ -88,6 +116,31 @@ public class RummikubGame implements Rummikub, Serializable {
     return new RummikubGame();
   }
 
+  /**
+   * Returns a new {@code RummikubGame} without players whose pool of tiles is shuffled with the
+   * specified random number generator when the game is started. Games created with generators of
+   * equal seeds and started with the same players deal the same tiles.
+   *
+   * @param random the random number generator used to shuffle the pool of tiles
+   * @return the newly created {@code RummikubGame}
+   */
+  public static RummikubGame create(SplittableRandom random) {
+    RummikubGame game = new RummikubGame();
+    game.random = random;
+    return game;
+  }
+
+  /**
+   * Returns a new {@code RummikubGame} without players whose pool of tiles is shuffled with a
+   * random number generator of the specified seed, see {@link #create(SplittableRandom)}.
+   *
+   * @param seed the seed of the random number generator
+   * @return the newly created {@code RummikubGame}
+   */
+  public static RummikubGame create(long seed) {
+    return create(new SplittableRandom(seed));
+  }
+
   @Override
   public boolean addPlayer(Player p) {
     if (players.size() == MAXIMUM_PLAYERS || turns != 0) {
@@ -95,6 +148,7 @@ public class RummikubGame implements Rummikub, Serializable {
       return false;
     }
     players.add(p);
+    ((RummikubPlayer) p).setGame(this);
     return true;
   }
 
@@ -108,6 +162,7 @@ public class RummikubGame implements Rummikub, Serializable {
     Collections.sort(players, (p1, p2) -> p1.getAge() - p2.getAge());
     currentPlayer = players.get(0);
     turns = 1;
+    journal.clear();
   }
 
   /**
@@ -115,21 +170,7 @@ public class RummikubGame implements Rummikub, Serializable {
    * two additional jokers.
    */
   private void fillPoolOfTiles() {
-    LinkedList<Tile> listOfTiles = new LinkedList<>();
-    for (Color colorOfTile : Color.values()) {
-      for (int j = RummikubTile.LOWEST_VALUE; j <= RummikubTile.HIGHEST_VALUE; j++) {
-        Tile firstTileToAdd = RummikubTile.createTile(colorOfTile, j);
-        Tile secondTileToAdd = RummikubTile.createTile(colorOfTile, j);
-        listOfTiles.add(firstTileToAdd);
-        listOfTiles.add(secondTileToAdd);
-      }
-    }
-    Tile firstjokerToAdd = RummikubTile.createJoker();
-    Tile secondjokerToAdd = RummikubTile.createJoker();
-    listOfTiles.add(firstjokerToAdd);
-    listOfTiles.add(secondjokerToAdd);
-    Collections.shuffle(listOfTiles);
-    this.poolOfTiles.addAll(listOfTiles);
+    this.poolOfTiles = TilePool.filled(random == null ? new SplittableRandom() : random);
   }
 
   /**
@@ -153,6 +194,9 @@ public class RummikubGame implements Rummikub, Serializable {
     }
     Tile tile = board.getTile(x, y);
     board.removeTile(x, y);
+    if (tile != null) {
+      journal.record(MoveJournal.boardMove(MoveJournal.POLL, x, y, tile));
+    }
     return tile;
   }
 
@@ -161,18 +205,136 @@ public class RummikubGame implements Rummikub, Serializable {
     if (player != currentPlayer) {
       throw new IllegalStateException("It's not this players turn.");
     }
-    board.setTile(x, y, tile);
+    if (board.setTile(x, y, tile)) {
+      journal.record(MoveJournal.boardMove(MoveJournal.SET, x, y, tile));
+    }
+  }
+
+  /**
+   * Records a move on the rack of the specified player, see {@link RummikubPlayer#setGame}.
+   *
+   * @param player the player whose rack changed
+   * @param isAdded {@code true} if the tile was added to the rack
+   * @param index the index of the tile on the rack
+   * @param tile the moved tile
+   * @param isNewlySet whether the tile was added to the tiles the player set to the board
+   */
+  void recordRackMove(RummikubPlayer player, boolean isAdded, int index, Tile tile,
+      boolean isNewlySet) {
+    int kind = isAdded ? MoveJournal.RACK_ADD : MoveJournal.RACK_REMOVE;
+    journal.record(MoveJournal.rackMove(kind, players.indexOf(player), index, tile, isNewlySet));
+  }
+
+  /**
+   * Returns the journal of the moves made during the current turn.
+   */
+  MoveJournal getJournal() {
+    return journal;
+  }
+
+  /**
+   * Returns {@code true} if a move of the current turn can be undone.
+   */
+  public boolean canUndo() {
+    return journal.canUndo();
+  }
+
+  /**
+   * Returns {@code true} if an undone move of the current turn can be redone.
+   */
+  public boolean canRedo() {
+    return journal.canRedo();
+  }
+
+  /**
+   * Undoes the last move of the current turn, i.e. the last call of {@link #pollTile},
+   * {@link #setTile}, {@link Player#getTileFromRack(int)} or a change of a rack through
+   * {@link Player#getRack()}. The game is changed locally, neither a copy nor the server is
+   * needed.
+   *
+   * @throws IllegalStateException if there is no move to be undone
+   */
+  public void undo() {
+    int move = journal.undo();
+    Tile tile = MoveJournal.tileOf(move);
+    int x = MoveJournal.xOf(move);
+    int y = MoveJournal.yOf(move);
+    switch (MoveJournal.kindOf(move)) {
+      case MoveJournal.POLL:
+        board.setTile(x, y, tile);
+        break;
+      case MoveJournal.SET:
+        board.removeTile(x, y);
+        break;
+      default:
+        boolean isAdded = MoveJournal.kindOf(move) == MoveJournal.RACK_ADD;
+        ((RummikubPlayer) players.get(y)).revertRackMove(isAdded, x, tile,
+            MoveJournal.flagOf(move));
+    }
+  }
+
+  /**
+   * Redoes the last undone move of the current turn.
+   *
+   * @throws IllegalStateException if there is no move to be redone
+   */
+  public void redo() {
+    int move = journal.redo();
+    Tile tile = MoveJournal.tileOf(move);
+    int x = MoveJournal.xOf(move);
+    int y = MoveJournal.yOf(move);
+    switch (MoveJournal.kindOf(move)) {
+      case MoveJournal.POLL:
+        board.removeTile(x, y);
+        break;
+      case MoveJournal.SET:
+        board.setTile(x, y, tile);
+        break;
+      default:
+        boolean isAdded = MoveJournal.kindOf(move) == MoveJournal.RACK_ADD;
+        ((RummikubPlayer) players.get(y)).repeatRackMove(isAdded, x, tile);
+    }
+  }
+
+  /**
+   * Undoes all moves of the current turn so the board and the racks are in the state they had at
+   * the beginning of the turn. The undone moves can be redone.
+   */
+  public void revertTurn() {
+    while (journal.canUndo()) {
+      undo();
+    }
   }
 
   @Override
   public boolean isValid() {
     List<Sequence> sequencesOnBoard = board.identifySequences();
-    for (Sequence s : sequencesOnBoard) {
-      if (!s.isValid(currentPlayer)) {
+    int valueSetByPlayer = 0;
+    for (int i = 0; i < sequencesOnBoard.size(); i++) {
+      Sequence s = sequencesOnBoard.get(i);
+      Meld meld = s.validate(currentPlayer);
+      if (meld == null) {
         return false;
       }
+      valueSetByPlayer += s.getValueSetBy(currentPlayer, meld);
     }
-    return ((RummikubPlayer) currentPlayer).validateRound();
+    return ((RummikubPlayer) currentPlayer).validateRound(valueSetByPlayer);
+  }
+
+  /**
+   * Returns {@code true} if all sequences on the board are valid for the current player. Unlike
+   * {@link #isValid()} this method does not change the state of the game, neither the tiles nor the
+   * players are modified. Thus it can be called from any number of threads as long as no thread
+   * modifies this game at the same time.
+   */
+  public boolean isBoardValid() {
+    List<Sequence> sequencesOnBoard = board.identifySequences();
+    for (int i = 0; i < sequencesOnBoard.size(); i++) {
+      if (sequencesOnBoard.get(i).validate(currentPlayer) == null) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -191,6 +353,12 @@ public class RummikubGame implements Rummikub, Serializable {
       return false;
     }
     players.remove(p);
+    ((RummikubPlayer) p).setGame(null);
+    journal.clear();
+    if (p == currentPlayer) {
+      // the turn passes to a player still in the game, just like at the end of a round
+      currentPlayer = players.isEmpty() ? null : players.get((turns - 1) % players.size());
+    }
     return true;
   }
 
@@ -220,6 +388,7 @@ public class RummikubGame implements Rummikub, Serializable {
   public void endCurrentRound() {
     // the player list is already properly sorted so only the index needs to be converted
     currentPlayer = players.get((++turns - 1) % players.size());
+    journal.clear();
   }
 
   @Override
@@ -237,7 +406,14 @@ public class RummikubGame implements Rummikub, Serializable {
 
   @Override
   public Tile pullTile() {
-    return this.poolOfTiles.pop();
+    return this.poolOfTiles.pull();
+  }
+
+  /**
+   * Returns the number of tiles left in the pool.
+   */
+  public int getPoolSize() {
+    return poolOfTiles.size();
   }
 
   @Override
@@ -260,6 +436,29 @@ public class RummikubGame implements Rummikub, Serializable {
     return board.getHeight();
   }
 
+  /**
+   * Returns a 64-bit Zobrist hash of the current position of this game, i.e. the tiles on the board,
+   * the tiles on each player's rack, the tiles in the pool and the current player. The hashes of
+   * the board, the racks and the pool are maintained incrementally when a tile is moved, so this
+   * method runs in constant time. Equal positions have equal hashes in every JVM, thus the hashes
+   * of copies of a game can be compared instead of the games themselves.
+   *
+   * @return the hash of the current position
+   */
+  public long getHash() {
+    long hash = board.getHash() ^ poolOfTiles.getHash();
+    int index = 0;
+    for (Player p : players) {
+      long rackHash = ((RummikubPlayer) p).getTileRack().getHash();
+      hash ^= Long.rotateLeft(rackHash, RACK_HASH_ROTATION * index);
+      if (p == currentPlayer) {
+        hash ^= CURRENT_PLAYER_KEYS[index];
+      }
+      index++;
+    }
+    return hash;
+  }
+
   /**
    * Removes all markings for all tiles on this game's board.
    */
@@ -267,6 +466,16 @@ public class RummikubGame implements Rummikub, Serializable {
     board.removeTileMarkings();
   }
 
+  /**
+   * Returns {@code true} if the specified tile is not marked as part of an incorrect sequence on
+   * this game's board, see {@link #markWrongTiles()}.
+   *
+   * @param tile a tile on this game's board
+   */
+  public boolean isInCorrectSequence(Tile tile) {
+    return !board.isMarkedAsWrong(tile);
+  }
+
   /**
    * Marks all wrongly set tiles on this game's board.
    */
@@ -274,7 +483,7 @@ public class RummikubGame implements Rummikub, Serializable {
     List<Sequence> sequencesOnBoard = board.identifySequences();
     for (Sequence s : sequencesOnBoard) {
       if (!s.isValid(currentPlayer)) {
-        s.markAsFalse();
+        s.markAsFalse(board);
       }
     }
   }
@@ -288,14 +497,60 @@ public class RummikubGame implements Rummikub, Serializable {
   public static RummikubGame copyOf(RummikubGame other) {
     RummikubGame copy = new RummikubGame(Board.copyOf(other.board));
     for (Player player : other.players) {
-      copy.players.add(RummikubPlayer.copyOf((RummikubPlayer) player));
-    }
-    for (Tile tile : other.poolOfTiles) {
-      copy.poolOfTiles.add(RummikubTile.copyOf((RummikubTile) tile));
+      RummikubPlayer playerCopy = RummikubPlayer.copyOf((RummikubPlayer) player);
+      copy.players.add(playerCopy);
+      playerCopy.setGame(copy);
     }
+    copy.poolOfTiles = TilePool.copyOf(other.poolOfTiles);
     return copy;
   }
 
+  /**
+   * Returns an immutable snapshot of the current state of this game. Taking a snapshot does not
+   * copy the board, the racks or the pool, they are shared with the snapshot until this game
+   * modifies them. Thus snapshots are cheap enough to be taken after every turn.
+   *
+   * @return a snapshot of this game
+   */
+  public GameSnapshot snapshot() {
+    return new GameSnapshot(board.shareRows(), players, poolOfTiles, currentPlayer, winner, turns);
+  }
+
+  /**
+   * Restores the state of this game and its players saved in the specified snapshot. The players
+   * in the snapshot must be the players of this game, i.e. the snapshot must have been taken by
+   * {@link #snapshot()} of this game.
+   *
+   * @param snapshot the snapshot to be restored
+   */
+  public void restore(GameSnapshot snapshot) {
+    board.restoreRows(snapshot.getBoardRows());
+    players.clear();
+    players.addAll(snapshot.getPlayers());
+    for (int i = 0; i < players.size(); i++) {
+      RummikubPlayer player = (RummikubPlayer) players.get(i);
+      player.restoreState(snapshot.getPlayerState(i));
+      player.setGame(this);
+    }
+    poolOfTiles = snapshot.getPoolOfTiles();
+    currentPlayer = snapshot.getCurrentPlayer();
+    winner = snapshot.getWinner();
+    turns = snapshot.getTurns();
+    journal.clear();
+  }
+
+  /**
+   * Restores the transient journal and the references of the players to this game after
+   * deserialization.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    journal = new MoveJournal();
+    for (Player p : players) {
+      ((RummikubPlayer) p).setGame(this);
+    }
+  }
+
   @Override
   public String toString() {
     StringBuilder s = new StringBuilder();
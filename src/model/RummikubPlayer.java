@@ -1,11 +1,7 @@
 package model;
 
 import java.io.Serializable;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -19,17 +15,17 @@ public class RummikubPlayer implements Player, Serializable {
   /**
    * Minimal sum of all tile values set by the player to successfully make his first move.
    */
-  private static final int MIN_SUM_VALUE_FOR_FIRST_MOVE = 30;
+  public static final int MIN_SUM_VALUE_FOR_FIRST_MOVE = 30;
 
   /**
    * The minus points for a joker on the players rack.
    */
-  private static final int JOKER_MINUS_POINTS = 30;
+  public static final int JOKER_MINUS_POINTS = 30;
 
   /**
    * The tiles the player currently has on his rack.
    */
-  private final List<Tile> tilesOnRack;
+  private final Rack tilesOnRack;
 
   /**
    * The player's name.
@@ -60,7 +56,13 @@ public class RummikubPlayer implements Player, Serializable {
   /**
    * The tiles this player set to the board during one round.
    */
-  private Set<Tile> setTiles;
+  private final TileIdSet setTiles;
+
+  /**
+   * The game this player takes part in, which records the moves on this player's rack. This
+   * variable is {@code null} if the player is not part of a game.
+   */
+  private transient RummikubGame game;
 
   /**
    * Initializes a new {@code RummikubPlayer} with the specified values.
@@ -68,13 +70,13 @@ public class RummikubPlayer implements Player, Serializable {
    * @param name the name of this player
    * @param age non-negative age of this player
    */
-  private RummikubPlayer(String name, int age) {
-    this.tilesOnRack = new LinkedList<>();
+  protected RummikubPlayer(String name, int age) {
+    this.tilesOnRack = new Rack();
     this.name = name;
     this.age = age;
     this.id = UUID.randomUUID();
     this.isFirstMoveDone = false;
-    this.setTiles = new HashSet<>();
+    this.setTiles = new TileIdSet();
   }
 
   /**
@@ -93,16 +95,82 @@ public class RummikubPlayer implements Player, Serializable {
     return new RummikubPlayer(name, age);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned list is a view of this player's {@link Rack}, see {@link #getTileRack()}.
+   */
   @Override
   public List<Tile> getRack() {
+    return tilesOnRack.asList();
+  }
+
+  /**
+   * Returns the rack of this player which provides constant time queries about the tiles on it.
+   */
+  public Rack getTileRack() {
     return tilesOnRack;
   }
 
   @Override
   public Tile getTileFromRack(int index) {
-    // it may be better to add a deep copy instead of the actual tile
-    setTiles.add(tilesOnRack.get(index));
-    return tilesOnRack.remove(index);
+    Tile tile = tilesOnRack.get(index);
+    boolean isNewlySet = !setTiles.contains(tile);
+    setTiles.add(tile);
+    tilesOnRack.remove(index);
+    if (game != null) {
+      game.recordRackMove(this, false, index, tile, isNewlySet);
+    }
+    return tile;
+  }
+
+  /**
+   * Sets the game this player takes part in. The game records all moves on this player's rack made
+   * by {@link #getTileFromRack(int)} or through the list returned by {@link #getRack()}.
+   *
+   * @param game the game or {@code null} if this player left the game
+   */
+  void setGame(RummikubGame game) {
+    this.game = game;
+    tilesOnRack.setListener(game == null ? null
+        : (isAdded, index, tile) -> game.recordRackMove(this, isAdded, index, tile, false));
+  }
+
+  /**
+   * Reverts a move on this player's rack without recording it. As sorting the rack is not recorded
+   * the tile is looked up by its id, and a removed tile is put back at its former index or at the
+   * right end if the rack became shorter.
+   *
+   * @param isAdded {@code true} if the tile was added by the move
+   * @param index the index of the tile on the rack
+   * @param tile the moved tile
+   * @param isNewlySet whether the move added the tile to the tiles set to the board
+   */
+  void revertRackMove(boolean isAdded, int index, Tile tile, boolean isNewlySet) {
+    if (isAdded) {
+      tilesOnRack.remove(tilesOnRack.indexOf(tile));
+    } else {
+      tilesOnRack.add(Math.min(index, tilesOnRack.size()), tile);
+      if (isNewlySet) {
+        setTiles.remove(tile.getId());
+      }
+    }
+  }
+
+  /**
+   * Repeats a move on this player's rack without recording it.
+   *
+   * @param isAdded {@code true} if the tile is added by the move
+   * @param index the index of the tile on the rack
+   * @param tile the moved tile
+   */
+  void repeatRackMove(boolean isAdded, int index, Tile tile) {
+    if (isAdded) {
+      tilesOnRack.add(Math.min(index, tilesOnRack.size()), tile);
+    } else {
+      tilesOnRack.remove(tilesOnRack.indexOf(tile));
+      setTiles.add(tile);
+    }
   }
 
   /**
@@ -123,16 +191,8 @@ public class RummikubPlayer implements Player, Serializable {
 
   @Override
   public void sortRack() {
-    Collections.sort(tilesOnRack, (tile1, tile2) -> {
-      // joker is the highest possible value
-      if (tile1.isJoker() && !tile2.isJoker()) {
-        return 1;
-      } else if (!tile1.isJoker() && tile2.isJoker()) {
-        return -1;
-      } else {
-        return tile1.getValue() - tile2.getValue();
-      }
-    });
+    // joker is the highest possible value
+    tilesOnRack.sortByValue();
   }
 
   @Override
@@ -155,36 +215,27 @@ public class RummikubPlayer implements Player, Serializable {
 
   @Override
   public int getMinusPoints() {
-    int sum = 0;
-    for (Tile tile : tilesOnRack) {
-      if (tile.isJoker()) {
-        sum += JOKER_MINUS_POINTS;
-      } else {
-        sum += tile.getValue();
-      }
-    }
-    return -sum;
+    return -(tilesOnRack.getValueSum() + tilesOnRack.getJokerCount() * JOKER_MINUS_POINTS);
   }
 
   /**
    * Validates the round of this player. A player's round is valid if the player pulled a tile or
    * set at least one tile to the board. If it is his first move the values of the tiles set to the
-   * board must add up to at least 30.
+   * board must add up to at least 30. As the value of a joker depends on the sequence it is part
+   * of, the sum of the values is calculated by the game.
    * 
    * <p>Note that this method does not validate the entire game, it only checks if the player made
    * at least one move no matter if the state of the entire game is valid or invalid.
    * 
    * <p>Note also that this method clears the tiles that this player set to the board so
-   * {@link #getSetTiles()} will return an empty {@code Set}.
+   * {@link #getSetTiles()} will return an empty set.
    * 
+   * @param valueSum the sum of the values of all tiles this player set to the board during his
+   *        round
    * @return {@code true} if the round was valid from this player's perspective
    */
-  boolean validateRound() {
-    int valueSum = 0;
-    for (Tile t : setTiles) {
-      valueSum += t.getValue();
-    }
-    setTiles = new HashSet<>();
+  boolean validateRound(int valueSum) {
+    setTiles.clear();
     if (hasPulledFromPool) {
       hasPulledFromPool = false;
       return true;
@@ -199,17 +250,40 @@ public class RummikubPlayer implements Player, Serializable {
   /**
    * Returns {@code true} if this player successfully made his first move, otherwise {@code false}.
    */
-  boolean isFirstMoveDone() {
+  public boolean isFirstMoveDone() {
     return isFirstMoveDone;
   }
 
+  /**
+   * Returns {@code true} if this player pulled a tile from the pool during his round.
+   */
+  boolean hasPulledFromPool() {
+    return hasPulledFromPool;
+  }
+
   /**
    * Returns the tiles this player set to the board during his round.
    */
-  Set<Tile> getSetTiles() {
+  TileIdSet getSetTiles() {
     return setTiles;
   }
 
+  /**
+   * Returns the unique identifier of this player.
+   */
+  UUID getId() {
+    return id;
+  }
+
+  /**
+   * Replaces the unique identifier of this player, so a decoded player equals the encoded one.
+   *
+   * @param id the identifier of the encoded player
+   */
+  void setId(UUID id) {
+    this.id = id;
+  }
+
   /**
    * Returns a copy of the player with the specified values.
    * 
@@ -218,16 +292,32 @@ public class RummikubPlayer implements Player, Serializable {
    */
   public static RummikubPlayer copyOf(RummikubPlayer other) {
     RummikubPlayer copy = of(other.name, other.age);
-    copy.isFirstMoveDone = other.isFirstMoveDone;
-    for (Tile tile : other.tilesOnRack) {
-      copy.tilesOnRack.add(RummikubTile.copyOf((RummikubTile) tile));
-    }
-    for (Tile tile : other.setTiles) {
-      copy.setTiles.add(RummikubTile.copyOf((RummikubTile) tile));
-    }
+    copy.restoreState(other.saveState());
     return copy;
   }
 
+  /**
+   * Returns the current state of this player for a snapshot. The rack is shared with the returned
+   * state and copied by this player before it is modified the next time.
+   */
+  State saveState() {
+    return new State(tilesOnRack.shareOrder(), tilesOnRack.size(), TileIdSet.copyOf(setTiles),
+        isFirstMoveDone, hasPulledFromPool);
+  }
+
+  /**
+   * Restores the specified state of this player.
+   *
+   * @param state a state as returned by {@link #saveState()}
+   */
+  void restoreState(State state) {
+    tilesOnRack.restore(state.rack, state.rackSize);
+    setTiles.clear();
+    setTiles.addAll(state.setTiles);
+    isFirstMoveDone = state.isFirstMoveDone;
+    hasPulledFromPool = state.hasPulledFromPool;
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -275,4 +365,88 @@ public class RummikubPlayer implements Player, Serializable {
     return name + " (" + age + ")" + "\n" + tilesOnRack;
   }
 
+  /**
+   * The immutable state of a player at a certain point of the game, except for his name, age and
+   * id which never change.
+   */
+  static final class State implements Serializable {
+
+    private static final long serialVersionUID = -1840931561427705293L;
+
+    /**
+     * The ids of the tiles on the rack, shared with the rack and never modified.
+     */
+    private final byte[] rack;
+
+    /**
+     * The number of tiles on the rack.
+     */
+    private final int rackSize;
+
+    /**
+     * The tiles the player set to the board during his round.
+     */
+    private final TileIdSet setTiles;
+
+    /**
+     * Indicates whether the player successfully made the first move.
+     */
+    private final boolean isFirstMoveDone;
+
+    /**
+     * Indicates whether the player pulled a tile from the pool.
+     */
+    private final boolean hasPulledFromPool;
+
+    /**
+     * Initializes a new {@code State} with the specified values.
+     */
+    State(byte[] rack, int rackSize, TileIdSet setTiles, boolean isFirstMoveDone,
+        boolean hasPulledFromPool) {
+      this.rack = rack;
+      this.rackSize = rackSize;
+      this.setTiles = setTiles;
+      this.isFirstMoveDone = isFirstMoveDone;
+      this.hasPulledFromPool = hasPulledFromPool;
+    }
+
+    /**
+     * Returns the ids of the tiles on the rack, only the first {@link #getRackSize()} entries are
+     * used. The returned array must not be modified.
+     */
+    byte[] getRack() {
+      return rack;
+    }
+
+    /**
+     * Returns the number of tiles on the rack.
+     */
+    int getRackSize() {
+      return rackSize;
+    }
+
+    /**
+     * Returns the tiles the player set to the board during his round. The returned set must not be
+     * modified.
+     */
+    TileIdSet getSetTiles() {
+      return setTiles;
+    }
+
+    /**
+     * Returns {@code true} if the player successfully made the first move.
+     */
+    boolean isFirstMoveDone() {
+      return isFirstMoveDone;
+    }
+
+    /**
+     * Returns {@code true} if the player pulled a tile from the pool.
+     */
+    boolean hasPulledFromPool() {
+      return hasPulledFromPool;
+    }
+
+  }
+
 }
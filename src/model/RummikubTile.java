@@ -1,20 +1,37 @@
 package model;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 /**
  * This class represents all tiles including jokers for the game Rummikub. Regular tiles can only
  * have values between 1 and 13.
+ *
+ * <p>The game consists of {@value #NUMBER_OF_TILES} physical tiles, each regular tile exists twice
+ * and there are two jokers. Every physical tile is represented by exactly one immutable instance of
+ * this class with a stable id between 0 and 105, so tiles can be compared by identity and stored as
+ * plain {@code byte}s. State that belongs to a game, like the marking of wrongly set tiles, is kept
+ * by the game itself.
  */
 public class RummikubTile implements Serializable, Tile {
 
   private static final long serialVersionUID = -7432276029287581575L;
 
   /**
-   * Represents the initial joker value. After being set the joker's value is the value it
-   * represents in the sequence it is part of.
+   * The number of tiles in the game, i.e. two of each regular tile and two jokers.
    */
-  private static final int INITIAL_JOKER_VALUE = 0;
+  public static final int NUMBER_OF_TILES = 106;
+
+  /**
+   * The id of the first joker, the second joker has the id {@code FIRST_JOKER_ID + 1}.
+   */
+  static final int FIRST_JOKER_ID = NUMBER_OF_TILES - 2;
+
+  /**
+   * The value of a joker. The value a joker represents depends on the sequence it is part of and
+   * can be obtained from the respective {@link Meld}.
+   */
+  private static final int JOKER_VALUE = 0;
 
   /**
    * The lowest possible value a tile can have.
@@ -26,6 +43,35 @@ public class RummikubTile implements Serializable, Tile {
    */
   static final int HIGHEST_VALUE = 13;
 
+  /**
+   * The number of copies of each regular tile.
+   */
+  private static final int COPIES = 2;
+
+  /**
+   * All tiles of the game indexed by their id.
+   */
+  private static final RummikubTile[] TILES = new RummikubTile[NUMBER_OF_TILES];
+
+  static {
+    for (Color color : Color.values()) {
+      for (int value = LOWEST_VALUE; value <= HIGHEST_VALUE; value++) {
+        for (int copy = 0; copy < COPIES; copy++) {
+          int id = idOf(color, value, copy);
+          TILES[id] = new RummikubTile(id, color, value, false);
+        }
+      }
+    }
+    for (int id = FIRST_JOKER_ID; id < NUMBER_OF_TILES; id++) {
+      TILES[id] = new RummikubTile(id, null, JOKER_VALUE, true);
+    }
+  }
+
+  /**
+   * The tile's id, unique among all tiles of the game.
+   */
+  private final int id;
+
   /**
    * Flag to mark if the tile is a joker. {@code true} indicates that this tile is a joker.
    */
@@ -37,54 +83,76 @@ public class RummikubTile implements Serializable, Tile {
   private final Color color;
 
   /**
-   * The tile's value. Must be greater than 0 and less than 14.
+   * The tile's value. Must be greater than 0 and less than 14 for regular tiles.
    */
-  private int value;
-
-  /**
-   * Flag to mark if the tile is part of a correct sequence. {@code false} indicates that this tile
-   * is at a wrong position on the board.
-   */
-  private boolean isInCorrectSequence;
+  private final int value;
 
   /**
    * Initializes a new {@code Tile} with the specified values.
-   * 
+   *
+   * @param id the unique id of the tile
    * @param color the color of the tile
    * @param value the value of the tile
    * @param joker indicates whether the tile is a joker or not
    */
-  private RummikubTile(Color color, int value, boolean joker) {
+  private RummikubTile(int id, Color color, int value, boolean joker) {
+    this.id = id;
     this.color = color;
     this.value = value;
     this.isJoker = joker;
-    this.isInCorrectSequence = true;
   }
 
   /**
-   * Returns a tile with the specified values. The value must be greater than 0 and less than 14
-   * i.e., {@code value >= 1 && value <= 13}.
-   * 
+   * Returns the first of the two tiles with the specified values. The value must be greater than 0
+   * and less than 14 i.e., {@code value >= 1 && value <= 13}.
+   *
    * @param color the color of the tile
    * @param value the value of the tile
-   * @return the newly created tile
+   * @return the tile with the specified values
    * @throws IllegalArgumentException if the specified value is less than 1 or greater than 13
    */
   public static RummikubTile createTile(Color color, int value) {
     if (value < LOWEST_VALUE || value > HIGHEST_VALUE) {
       throw new IllegalArgumentException();
     }
-    return new RummikubTile(color, value, false);
+    return TILES[idOf(color, value, 0)];
   }
 
   /**
-   * Returns a joker. Note that the joker has no color so {@link #getColor()} will fail with an
-   * {@code IllegalArgumentException}.
-   * 
-   * @return the newly created joker
+   * Returns the first joker. Note that the joker has no color so {@link #getColor()} will fail with
+   * an {@code IllegalArgumentException}.
+   *
+   * @return the first joker
    */
   public static RummikubTile createJoker() {
-    return new RummikubTile(null, INITIAL_JOKER_VALUE, true);
+    return TILES[FIRST_JOKER_ID];
+  }
+
+  /**
+   * Returns the tile with the specified id.
+   *
+   * @param id the id of the tile
+   * @return the tile with the specified id
+   * @throws IllegalArgumentException if there is no tile with the specified id i.e.,
+   *         {@code id < 0 || id >= 106}
+   */
+  public static RummikubTile byId(int id) {
+    if (id < 0 || id >= NUMBER_OF_TILES) {
+      throw new IllegalArgumentException("There is no tile with the id " + id + ".");
+    }
+    return TILES[id];
+  }
+
+  /**
+   * Returns the id of the specified copy of a regular tile.
+   */
+  private static int idOf(Color color, int value, int copy) {
+    return (color.ordinal() * HIGHEST_VALUE + value - LOWEST_VALUE) * COPIES + copy;
+  }
+
+  @Override
+  public int getId() {
+    return id;
   }
 
   @Override
@@ -107,50 +175,10 @@ public class RummikubTile implements Serializable, Tile {
   }
 
   /**
-   * Sets the value of a joker to the value it is supposed to be in a sequence. For example in [Red
-   * 3, Red 4, Joker] the joker's value is 5 in order to complete the run it is part of.
-   * 
-   * @throws IllegalArgumentException if this tile was not a joker i.e., {@code isJoker() == false}
-   */
-  void setJokerValue(int jokerValue) {
-    if (!isJoker) {
-      throw new IllegalArgumentException();
-    }
-    value = jokerValue;
-  }
-
-  @Override
-  public boolean isInCorrectSequence() {
-    return this.isInCorrectSequence;
-  }
-
-  /**
-   * Marks this tile as false, this indicates it is part of an incorrect sequence.
-   */
-  void markAsFalse() {
-    isInCorrectSequence = false;
-  }
-
-  /**
-   * Removes the marking of this tile, that means after calling this method
-   * {@link #isInCorrectSequence()} will return {@code true} after any invocation of this method.
+   * Replaces a deserialized tile with the canonical instance with the same id.
    */
-  void removeMarking() {
-    isInCorrectSequence = true;
-  }
-
-  /**
-   * Returns a copy of the tile with the specified values.
-   * 
-   * @param other the tile to be copied
-   * @return the copy of the original tile
-   */
-  static RummikubTile copyOf(RummikubTile other) {
-    if (!other.isJoker) {
-      return createTile(other.getColor(), other.getValue());
-    } else {
-      return createJoker();
-    }
+  private Object readResolve() throws ObjectStreamException {
+    return TILES[id];
   }
 
   @Override
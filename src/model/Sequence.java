@@ -1,9 +1,7 @@
 package model;
 
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * A sequence consists of a fixed set of tiles. A sequence can either be valid or invalid by the
@@ -15,30 +13,28 @@ import java.util.Set;
 class Sequence {
 
   /**
-   * Minimal number of tiles for a sequence to be valid.
+   * Marks the tiles of a sequence that do not form a meld in {@link #meld}.
    */
-  private static final int MINIMAL_SIZE = 3;
+  private static final Meld NO_MELD = new Meld(false, new byte[0], 0);
 
   /**
-   * Maximal size of a group.
-   */
-  private static final int MAXIMAL_GROUP_SIZE = 4;
-
-  /**
-   * Maximal size of a run.
+   * The tiles in this sequence.
    */
-  private static final int MAXIMAL_RUN_SIZE = 13;
+  private List<Tile> tileSet;
 
   /**
-   * The tiles in this sequence.
+   * The meld formed by the tiles of this sequence, {@link #NO_MELD} if they do not form a meld or
+   * {@code null} if it was not looked up since the last tile was added. A meld is immutable and
+   * the field is read once, so a thread reading a sequence shared by the board sees either the
+   * meld or {@code null} and looks it up again.
    */
-  private List<Tile> tileSet;
+  private Meld meld;
 
   /**
    * Initializes an empty sequence.
    */
   private Sequence() {
-    tileSet = new LinkedList<>();
+    tileSet = new ArrayList<>();
   }
 
   /**
@@ -57,7 +53,7 @@ class Sequence {
   static Sequence copyOf(Sequence other) {
     Sequence copy = Sequence.create();
     for (Tile tile : other.tileSet) {
-      copy.addTile(RummikubTile.copyOf((RummikubTile) tile));
+      copy.addTile(tile);
     }
     return copy;
   }
@@ -69,6 +65,14 @@ class Sequence {
    */
   void addTile(Tile t) {
     tileSet.add(t);
+    meld = null;
+  }
+
+  /**
+   * Returns the number of tiles in this sequence.
+   */
+  int size() {
+    return tileSet.size();
   }
 
   /**
@@ -79,132 +83,68 @@ class Sequence {
   }
 
   /**
-   * Marks all tiles in this sequence as false.
+   * Marks all tiles in this sequence as false on the specified board.
+   *
+   * @param board the board this sequence is part of
    */
-  void markAsFalse() {
-    tileSet.forEach(tile -> ((RummikubTile) tile).markAsFalse());
+  void markAsFalse(Board board) {
+    tileSet.forEach(board::markAsWrong);
   }
 
   /**
-   * Returns {@code true} if this sequence is valid i.e., it is a either a run or a group.
+   * Returns {@code true} if this sequence is valid i.e., it is a either a run or a group. A run
+   * consists of at least three tiles of the same color and the values have to be successive and in
+   * ascending order (e.g. 4, 5, 6). A group consists of three to four tiles and their values have to
+   * be identical (e.g. 4, 4, 4), there cannot be two tiles of the same color in a group.
    */
   boolean isValid(Player currentPlayer) {
+    return validate(currentPlayer) != null;
+  }
+
+  /**
+   * Returns the meld formed by this sequence if it is valid for the specified player, otherwise
+   * {@code null}. The values the jokers represent can be obtained from the returned meld.
+   */
+  Meld validate(Player currentPlayer) {
     if (!((RummikubPlayer) currentPlayer).isFirstMoveDone()) {
       if (!isCorrectFirstMove(currentPlayer)) {
         // during the first move the player is not allowed to use tiles already set on the board by
         // other players
-        return false;
+        return null;
       }
     }
-    return isRun() || isGroup();
+    return getMeld();
   }
 
   /**
-   * Returns {@code true} if this sequence is a run. A run consists of at least three tiles of the
-   * same color and the values have to be successive and in ascending order (e.g. 4, 5, 6).
+   * Returns the meld formed by the tiles of this sequence or {@code null} if they do not form a
+   * meld. The result is cached until another tile is added.
    */
-  private boolean isRun() {
-    if (!hasMinimalSize() || tileSet.size() > MAXIMAL_RUN_SIZE) {
-      return false;
-    }
-    // ensure the tile to start with is no joker as a joker has neither color nor value so
-    // comparisons won't work
-    Tile firstTileWithValue = getFirstTileThatIsNoJoker();
-    Color colorOfRun = firstTileWithValue.getColor();
-    int value = firstTileWithValue.getValue();
-    int indexOfFirstValue = tileSet.indexOf(firstTileWithValue);
-
-    if (indexOfFirstValue != 0) {
-      for (int i = indexOfFirstValue - 1; i >= 0; i--) {
-        // set previous joker values
-        int valueTemp = value;
-        ((RummikubTile) tileSet.get(i)).setJokerValue(--valueTemp);
-      }
-    }
-
-    for (int i = indexOfFirstValue + 1; i < tileSet.size(); i++) {
-      Tile currentTile = tileSet.get(i);
-
-      if (value < i) {
-        // the sequence started with a joker and currentTile has a lower value than its
-        // index/position in the sequence e.g., [Joker, 1, 2] is false as the Joker would count as 0
-        // which is forbidden
-        return false;
-      } else if (currentTile.isJoker()) {
-        // set the value of the joker to the value it is supposed to be
-        // it is possible that this method will set values that are greater than 13, but this has no
-        // impact as the game is not valid in this case, thus the value is not saved
-        ((RummikubTile) currentTile).setJokerValue(++value);
-      } else {
-        Color currentColor = currentTile.getColor();
-        int currentValue = currentTile.getValue();
-
-        if (currentColor == colorOfRun && currentValue == value + 1) {
-          value++;
-        } else {
-          return false;
-        }
-      }
-    }
-    if (value > 13) {
-      // the sequence ends with a Joker and this Joker would count as a value that is too high
-      // e.g., [12, 13, Joker]
-      return false;
+  private Meld getMeld() {
+    Meld cached = meld;
+    if (cached == null) {
+      cached = Meld.of(tileSet);
+      meld = cached == null ? NO_MELD : cached;
     }
-    return true;
+    return cached == NO_MELD ? null : cached;
   }
 
   /**
-   * Returns {@code true} if this sequence is a group. A group consists of three to four tiles and
-   * their values have to be identical (e.g. 4, 4, 4). There cannot be two tiles of the same color
-   * in a group.
+   * Returns the sum of the values of all tiles in this sequence that the specified player set to
+   * the board during his round. Jokers count with the value they represent in the specified meld.
+   *
+   * @param p the player whose tiles are summed up
+   * @param meld the meld formed by this sequence
    */
-  private boolean isGroup() {
-    if (!hasMinimalSize() || tileSet.size() > MAXIMAL_GROUP_SIZE) {
-      return false;
-    }
-    // ensure the tile to start with is no joker as a joker has neither color nor value so
-    // comparisons won't work
-    Tile firstTileWithValue = getFirstTileThatIsNoJoker();
-    Set<Color> usedColors = new HashSet<>();
-    usedColors.add(firstTileWithValue.getColor());
-    int valueOfGroup = firstTileWithValue.getValue();
-    int indexOfFirstValue = tileSet.indexOf(firstTileWithValue);
-
-    if (indexOfFirstValue != 0) {
-      for (int i = 0; i < indexOfFirstValue; i++) {
-        // set previous joker values
-        ((RummikubTile) tileSet.get(i)).setJokerValue(valueOfGroup);
+  int getValueSetBy(Player p, Meld meld) {
+    TileIdSet playerTiles = ((RummikubPlayer) p).getSetTiles();
+    int sum = 0;
+    for (int i = 0; i < tileSet.size(); i++) {
+      if (playerTiles.contains(tileSet.get(i))) {
+        sum += meld.getValue(i);
       }
     }
-
-    for (int i = indexOfFirstValue + 1; i < tileSet.size(); i++) {
-      Tile currentTile = tileSet.get(i);
-
-      if (currentTile.isJoker()) {
-        // set the value of the joker to the value it is supposed to be
-        // it is possible that this method will set values that are greater than 13, but this has no
-        // impact as the game is not valid in this case, thus the value is not saved
-        ((RummikubTile) currentTile).setJokerValue(valueOfGroup);
-      } else {
-        Color currentColor = currentTile.getColor();
-        int currentValue = currentTile.getValue();
-
-        if ((!usedColors.contains(currentColor) && currentValue == valueOfGroup)) {
-          usedColors.add(currentColor);
-        } else {
-          return false;
-        }
-      }
-    }
-    return true;
-  }
-
-  /**
-   * Returns {@code true} if this sequence has the required minimal size of three tiles.
-   */
-  private boolean hasMinimalSize() {
-    return tileSet.size() >= MINIMAL_SIZE;
+    return sum;
   }
 
   /**
@@ -219,9 +159,9 @@ class Sequence {
    * Returns {@code true} if the entire sequence was not set by the player {@code p}.
    */
   private boolean allTilesNotByPlayer(Player p) {
-    Set<Tile> playerTiles = ((RummikubPlayer) p).getSetTiles();
-    for (Tile t : tileSet) {
-      if (playerTiles.contains(t)) {
+    TileIdSet playerTiles = ((RummikubPlayer) p).getSetTiles();
+    for (int i = 0; i < tileSet.size(); i++) {
+      if (playerTiles.contains(tileSet.get(i))) {
         return false;
       }
     }
@@ -232,30 +172,15 @@ class Sequence {
    * Returns {@code true} if the entire sequence was set by the player {@code p}.
    */
   private boolean allTilesByPlayer(Player p) {
-    Set<Tile> playerTiles = ((RummikubPlayer) p).getSetTiles();
-    for (Tile t : tileSet) {
-      if (!playerTiles.contains(t)) {
+    TileIdSet playerTiles = ((RummikubPlayer) p).getSetTiles();
+    for (int i = 0; i < tileSet.size(); i++) {
+      if (!playerTiles.contains(tileSet.get(i))) {
         return false;
       }
     }
     return true;
   }
 
-  /**
-   * Returns the first tile in this sequence that is no joker.
-   */
-  private Tile getFirstTileThatIsNoJoker() {
-    assert tileSet.size() >= MINIMAL_SIZE;
-
-    for (Tile t : tileSet) {
-      if (!t.isJoker()) {
-        return t;
-      }
-    }
-    // unreachable as there are only two jokers in the game and tileSet.size() > 2 at this point
-    throw new AssertionError();
-  }
-
   @Override
   public String toString() {
     return tileSet.toString();
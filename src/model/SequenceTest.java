@@ -1,5 +1,7 @@
 package model;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -7,6 +9,7 @@ import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -198,4 +201,19 @@ class SequenceTest {
     assertFalse(s.isValid(juergen));
   }
 
+  @Test
+  @DisplayName("Validation without side effects.")
+  void testValidateLeavesJokersUntouched() {
+    Tile joker = RummikubTile.createJoker();
+    Sequence s = Sequence.create();
+    s.addTile(RummikubTile.createTile(Color.BLUE, 7));
+    s.addTile(RummikubTile.createTile(Color.BLUE, 8));
+    s.addTile(joker);
+    Meld meld = s.validate(juergen);
+    assertAll(
+        () -> assertTrue(meld.isRun()),
+        () -> assertEquals(9, meld.getValue(2)),
+        () -> assertEquals(0, joker.getValue()));
+  }
+
 }
@@ -6,16 +6,23 @@ package model;
  */
 public interface Tile {
 
+  /**
+   * Returns the id of this tile. Every physical tile of the game has its own id between 0 and 105,
+   * i.e. the two copies of a regular tile as well as the two jokers have different ids.
+   */
+  int getId();
+
   /**
    * Returns the color of this tile. Does not work with jokers i. e. {@code isJoker() == true}.
-   * 
+   *
    * @throws IllegalArgumentException if this tile is a joker
    */
   Color getColor();
 
   /**
-   * Returns the value of this tile. If this tile is a joker i.e., {@code isJoker() == true}, the
-   * respective value the joker represents is returned.
+   * Returns the value of this tile. If this tile is a joker i.e., {@code isJoker() == true}, 0 is
+   * returned as the value a joker represents depends on the sequence it is part of, see
+   * {@link Meld#getValue(int)}.
    */
   int getValue();
 
@@ -24,9 +31,4 @@ public interface Tile {
    */
   boolean isJoker();
 
-  /**
-   * Returns {@code true} if this tile is part of a correct sequence on the board.
-   */
-  boolean isInCorrectSequence();
-
 }
@@ -0,0 +1,137 @@
+package model;
+
+import java.io.Serializable;
+
+/**
+ * A set of tiles backed by a bit set over the tile ids. As there are only
+ * {@value RummikubTile#NUMBER_OF_TILES} tiles in the game the whole set fits into two {@code long}s,
+ * so all operations run in constant time and never allocate.
+ */
+final class TileIdSet implements Serializable {
+
+  private static final long serialVersionUID = 2311846917357027318L;
+
+  /**
+   * The tiles with the ids 0 to 63.
+   */
+  private long low;
+
+  /**
+   * The tiles with the ids 64 to 105.
+   */
+  private long high;
+
+  /**
+   * Initializes an empty {@code TileIdSet}.
+   */
+  TileIdSet() {}
+
+  /**
+   * Returns a copy of the specified set.
+   *
+   * @param other the set to be copied
+   * @return a copy of the original set
+   */
+  static TileIdSet copyOf(TileIdSet other) {
+    TileIdSet copy = new TileIdSet();
+    copy.low = other.low;
+    copy.high = other.high;
+    return copy;
+  }
+
+  /**
+   * Adds the specified tile to this set.
+   *
+   * @param t the tile to be added
+   */
+  void add(Tile t) {
+    add(t.getId());
+  }
+
+  /**
+   * Adds the tile with the specified id to this set.
+   *
+   * @param id the id of the tile to be added
+   */
+  void add(int id) {
+    if (id < Long.SIZE) {
+      low |= 1L << id;
+    } else {
+      high |= 1L << (id - Long.SIZE);
+    }
+  }
+
+  /**
+   * Adds all tiles of the specified set to this set.
+   *
+   * @param other the tiles to be added
+   */
+  void addAll(TileIdSet other) {
+    low |= other.low;
+    high |= other.high;
+  }
+
+  /**
+   * Removes the tile with the specified id from this set.
+   *
+   * @param id the id of the tile to be removed
+   */
+  void remove(int id) {
+    if (id < Long.SIZE) {
+      low &= ~(1L << id);
+    } else {
+      high &= ~(1L << (id - Long.SIZE));
+    }
+  }
+
+  /**
+   * Returns {@code true} if this set contains the specified tile.
+   */
+  boolean contains(Tile t) {
+    return contains(t.getId());
+  }
+
+  /**
+   * Returns {@code true} if this set contains the tile with the specified id.
+   */
+  boolean contains(int id) {
+    if (id < Long.SIZE) {
+      return (low & (1L << id)) != 0;
+    }
+    return (high & (1L << (id - Long.SIZE))) != 0;
+  }
+
+  /**
+   * Returns the number of tiles in this set.
+   */
+  int size() {
+    return Long.bitCount(low) + Long.bitCount(high);
+  }
+
+  /**
+   * Returns {@code true} if this set contains no tiles.
+   */
+  boolean isEmpty() {
+    return low == 0 && high == 0;
+  }
+
+  /**
+   * Removes all tiles from this set.
+   */
+  void clear() {
+    low = 0;
+    high = 0;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (int id = 0; id < RummikubTile.NUMBER_OF_TILES; id++) {
+      if (contains(id)) {
+        s.append(s.length() > 1 ? ", " : "").append(RummikubTile.byId(id));
+      }
+    }
+    return s.append("]").toString();
+  }
+
+}
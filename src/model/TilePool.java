@@ -0,0 +1,140 @@
+package model;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * The pool of tiles, i.e. the tiles that can be pulled. The pool stores the ids of its tiles in an
+ * array that is shuffled once when the pool is filled and never changed afterwards, pulling a tile
+ * only advances an index. Thus copies of a pool share the array and copying takes constant time.
+ */
+final class TilePool implements Serializable {
+
+  private static final long serialVersionUID = 4720365929563013347L;
+
+  /**
+   * The Zobrist keys of the tiles in the pool, indexed by the tile id.
+   */
+  private static final long[] KEYS =
+      Zobrist.keys(0xBB67AE8584CAA73BL, RummikubTile.NUMBER_OF_TILES);
+
+  /**
+   * The ids of all tiles that were put into the pool in the order they are pulled.
+   */
+  private final byte[] tiles;
+
+  /**
+   * The index of the next tile to be pulled.
+   */
+  private int next;
+
+  /**
+   * The Zobrist hash of the tiles left in the pool, independent of their order.
+   */
+  private long hash;
+
+  /**
+   * Initializes a new {@code TilePool}.
+   *
+   * @param tiles the ids of the tiles in the order they are pulled, the array is not copied
+   * @param next the index of the next tile to be pulled
+   * @param hash the hash of the tiles left in the pool
+   */
+  private TilePool(byte[] tiles, int next, long hash) {
+    this.tiles = tiles;
+    this.next = next;
+    this.hash = hash;
+  }
+
+  /**
+   * Returns an empty {@code TilePool}.
+   */
+  static TilePool empty() {
+    return new TilePool(new byte[0], 0, 0);
+  }
+
+  /**
+   * Returns a {@code TilePool} holding all tiles of the game in an order determined by the
+   * specified random number generator. The tiles are shuffled in place, so pools filled with
+   * generators of equal seeds deal equal tiles.
+   *
+   * @param random the random number generator used to shuffle the tiles
+   */
+  static TilePool filled(SplittableRandom random) {
+    byte[] tiles = new byte[RummikubTile.NUMBER_OF_TILES];
+    long hash = 0;
+    for (int id = 0; id < tiles.length; id++) {
+      tiles[id] = (byte) id;
+      hash ^= KEYS[id];
+    }
+    for (int i = tiles.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      byte swapped = tiles[i];
+      tiles[i] = tiles[j];
+      tiles[j] = swapped;
+    }
+    return new TilePool(tiles, 0, hash);
+  }
+
+  /**
+   * Returns a {@code TilePool} holding the tiles with the specified ids.
+   *
+   * @param tiles the ids of the tiles in the order they are pulled, the array is not copied
+   */
+  static TilePool of(byte[] tiles) {
+    long hash = 0;
+    for (byte id : tiles) {
+      hash ^= KEYS[id];
+    }
+    return new TilePool(tiles, 0, hash);
+  }
+
+  /**
+   * Returns a copy of the specified pool. The copy shares the tiles with the original pool.
+   *
+   * @param other the pool to be copied
+   * @return a copy of the original pool
+   */
+  static TilePool copyOf(TilePool other) {
+    return new TilePool(other.tiles, other.next, other.hash);
+  }
+
+  /**
+   * Removes and returns the next tile of this pool.
+   *
+   * @return the pulled tile
+   * @throws NoSuchElementException if this pool is empty
+   */
+  Tile pull() {
+    if (next == tiles.length) {
+      throw new NoSuchElementException("The pool is empty.");
+    }
+    hash ^= KEYS[tiles[next]];
+    return RummikubTile.byId(tiles[next++]);
+  }
+
+  /**
+   * Returns the id of the tile that is pulled after the specified number of other tiles.
+   *
+   * @param index the index of the tile among the tiles left in this pool
+   */
+  int idAt(int index) {
+    return tiles[next + index];
+  }
+
+  /**
+   * Returns the Zobrist hash of the tiles left in this pool, independent of their order.
+   */
+  long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns the number of tiles left in this pool.
+   */
+  int size() {
+    return tiles.length - next;
+  }
+
+}
@@ -0,0 +1,202 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The changes a player made during his turn: the positions of the board whose tiles changed and
+ * whether he pulled a tile from the pool. Moves that were undone or that cancel each other out,
+ * e.g. a tile set and taken back during the turn, are not part of the delta. Thus a delta holds
+ * only a few positions and can be sent instead of the whole game.
+ *
+ * <p>A delta is applied to the game at the state the turn started from, see
+ * {@link #applyTo(RummikubGame)}. The tiles set to a position are taken from the positions the
+ * delta clears or from the rack of the current player, so applying a delta never creates a tile.
+ */
+public final class TurnDelta {
+
+  /**
+   * Marks a position that is empty after the turn.
+   */
+  static final byte EMPTY = -1;
+
+  /**
+   * Marks a position that was not changed during the turn.
+   */
+  private static final int UNCHANGED = -2;
+
+  /**
+   * The X-coordinates of the changed positions.
+   */
+  private final byte[] columns;
+
+  /**
+   * The Y-coordinates of the changed positions.
+   */
+  private final byte[] rows;
+
+  /**
+   * The ids of the tiles at the changed positions after the turn, {@link #EMPTY} for empty
+   * positions.
+   */
+  private final byte[] ids;
+
+  /**
+   * Indicates whether the player pulled a tile from the pool.
+   */
+  private final boolean isPull;
+
+  /**
+   * Initializes a new {@code TurnDelta} with the specified values, the arrays are not copied.
+   */
+  TurnDelta(byte[] columns, byte[] rows, byte[] ids, boolean isPull) {
+    this.columns = columns;
+    this.rows = rows;
+    this.ids = ids;
+    this.isPull = isPull;
+  }
+
+  /**
+   * Returns the changes made during the current turn of the specified game, as recorded by its
+   * journal of moves.
+   *
+   * @param game a started game
+   * @param isPull whether the current player pulled a tile from the pool during his turn
+   * @return the changes of the current turn
+   */
+  public static TurnDelta of(RummikubGame game, boolean isPull) {
+    int width = game.getBoardWidth();
+    // the id of the tile at each position before the turn, for the positions moved to or from
+    int[] before = new int[width * game.getBoardHeight()];
+    Arrays.fill(before, UNCHANGED);
+    MoveJournal journal = game.getJournal();
+    int count = 0;
+    for (int i = 0; i < journal.size(); i++) {
+      int move = journal.get(i);
+      int kind = MoveJournal.kindOf(move);
+      int position = MoveJournal.yOf(move) * width + MoveJournal.xOf(move);
+      if ((kind == MoveJournal.POLL || kind == MoveJournal.SET) && before[position] == UNCHANGED) {
+        before[position] = kind == MoveJournal.POLL ? MoveJournal.tileOf(move).getId() : EMPTY;
+        count++;
+      }
+    }
+    byte[] columns = new byte[count];
+    byte[] rows = new byte[count];
+    byte[] ids = new byte[count];
+    int size = 0;
+    for (int position = 0; position < before.length; position++) {
+      if (before[position] != UNCHANGED) {
+        Tile tile = game.getTile(position % width, position / width);
+        int id = tile == null ? EMPTY : tile.getId();
+        if (id != before[position]) {
+          columns[size] = (byte) (position % width);
+          rows[size] = (byte) (position / width);
+          ids[size] = (byte) id;
+          size++;
+        }
+      }
+    }
+    return new TurnDelta(Arrays.copyOf(columns, size), Arrays.copyOf(rows, size),
+        Arrays.copyOf(ids, size), isPull);
+  }
+
+  /**
+   * Returns the number of changed positions.
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Returns the X-coordinate of the changed position at the specified index.
+   */
+  int getX(int index) {
+    return columns[index];
+  }
+
+  /**
+   * Returns the Y-coordinate of the changed position at the specified index.
+   */
+  int getY(int index) {
+    return rows[index];
+  }
+
+  /**
+   * Returns the id of the tile at the changed position at the specified index after the turn, or
+   * {@link #EMPTY} if the position is empty.
+   */
+  int getId(int index) {
+    return ids[index];
+  }
+
+  /**
+   * Returns {@code true} if the player pulled a tile from the pool.
+   */
+  public boolean isPull() {
+    return isPull;
+  }
+
+  /**
+   * Makes the changes of this delta as the current player of the specified game and validates the
+   * round, see {@link RummikubGame#isValid()}. The game must be in the state the turn started from.
+   * If a tile is not available to the player, i.e. neither on his rack nor cleared from the board by
+   * this delta, if a tile is moved from the board to his rack, or if the round is invalid, all
+   * changes are reverted.
+   *
+   * @param game the game at the start of the turn
+   * @return {@code true} if the changes were made and the round is valid
+   */
+  public boolean applyTo(RummikubGame game) {
+    RummikubPlayer player = (RummikubPlayer) game.getCurrentPlayer();
+    TileIdSet cleared = new TileIdSet();
+    for (int i = 0; i < size(); i++) {
+      Tile tile = game.pollTile(columns[i], rows[i], player);
+      if (tile != null) {
+        cleared.add(tile);
+      }
+    }
+    boolean isAvailable = true;
+    for (int i = 0; i < size() && isAvailable; i++) {
+      if (ids[i] == EMPTY) {
+        continue;
+      }
+      Tile tile = RummikubTile.byId(ids[i]);
+      if (cleared.contains(tile)) {
+        cleared.remove(tile.getId());
+      } else {
+        int index = player.getTileRack().indexOf(tile);
+        isAvailable = index >= 0;
+        if (isAvailable) {
+          player.getTileFromRack(index);
+        }
+      }
+      if (isAvailable) {
+        game.setTile(columns[i], rows[i], tile, player);
+      }
+    }
+    // tiles cleared from the board must be set again, they cannot be taken to the rack
+    isAvailable &= cleared.isEmpty();
+    if (isAvailable && isPull) {
+      // a player either sets tiles or pulls one
+      isAvailable = size() == 0 && game.getPoolSize() > 0;
+      if (isAvailable) {
+        player.pullTileFromPool(game.pullTile());
+      }
+    }
+    if (isAvailable && game.isValid()) {
+      return true;
+    }
+    game.revertTurn();
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder(isPull ? "Pull" : "Turn");
+    for (int i = 0; i < size(); i++) {
+      s.append(" (").append(columns[i]).append(", ").append(rows[i]).append(")=");
+      s.append(ids[i] == EMPTY ? "empty" : RummikubTile.byId(ids[i]).toString());
+    }
+    return s.toString();
+  }
+
+}
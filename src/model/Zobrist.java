@@ -0,0 +1,31 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of a game position. A position is hashed by combining the keys of
+ * all its features (e.g. a tile at a certain position of the board) with XOR, so adding or removing
+ * a feature updates the hash in constant time. The keys are generated from fixed seeds and thus
+ * equal in every JVM, which allows comparing the hashes of copies sent over the network.
+ */
+final class Zobrist {
+
+  private Zobrist() {}
+
+  /**
+   * Returns the specified number of random keys generated from the specified seed.
+   *
+   * @param seed the seed of the keys
+   * @param count the number of keys
+   * @return the keys
+   */
+  static long[] keys(long seed, int count) {
+    SplittableRandom random = new SplittableRandom(seed);
+    long[] keys = new long[count];
+    for (int i = 0; i < count; i++) {
+      keys[i] = random.nextLong();
+    }
+    return keys;
+  }
+
+}
@@ -0,0 +1,151 @@
+package model.bot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import model.Player;
+import model.Rummikub;
+import model.Tile;
+
+/**
+ * Lays out melds on the grid of a board. Melds that are already on the board stay where they are,
+ * all other sequences are taken from the board and the melds are set to the first free gap that is
+ * wide enough, the longest melds first. A free gap keeps at least one empty cell to its neighbours
+ * so adjacent melds are not merged into one sequence. If the melds do not fit between the melds
+ * that stay, the whole board is laid out again.
+ */
+final class BoardLayout {
+
+  private BoardLayout() {}
+
+  /**
+   * Changes the board of the specified game so it consists of the specified melds. The tiles of
+   * the melds are either on the board or on the player's rack.
+   *
+   * @param game a started game whose current player is the specified player
+   * @param player the player setting the tiles
+   * @param melds the melds on the board after the move
+   * @return {@code true} if the board consists of the melds, otherwise the board has to be reverted
+   */
+  static boolean apply(Rummikub game, Player player, List<List<Tile>> melds) {
+    List<List<Tile>> unplaced = new ArrayList<>(melds);
+    List<Tile> loose = new ArrayList<>();
+    for (Placement placement : placementsOf(game)) {
+      if (!unplaced.remove(placement.tiles)) {
+        placement.pollFrom(game, player, loose);
+      }
+    }
+    if (!place(game, player, unplaced, loose)) {
+      for (Placement placement : placementsOf(game)) {
+        placement.pollFrom(game, player, loose);
+      }
+      if (!place(game, player, new ArrayList<>(melds), loose)) {
+        return false;
+      }
+    }
+    return loose.isEmpty();
+  }
+
+  /**
+   * Returns the horizontally adjacent tiles on the board of the specified game.
+   */
+  private static List<Placement> placementsOf(Rummikub game) {
+    List<Placement> placements = new ArrayList<>();
+    for (int y = 0; y < game.getBoardHeight(); y++) {
+      int x = 0;
+      while (x < game.getBoardWidth()) {
+        if (game.getTile(x, y) == null) {
+          x++;
+          continue;
+        }
+        Placement placement = new Placement(x, y);
+        while (x < game.getBoardWidth() && game.getTile(x, y) != null) {
+          placement.tiles.add(game.getTile(x, y));
+          x++;
+        }
+        placements.add(placement);
+      }
+    }
+    return placements;
+  }
+
+  /**
+   * Sets the specified melds to free gaps of the board, the longest melds first. Tiles are taken
+   * from the loose tiles first and from the player's rack otherwise.
+   *
+   * @return {@code false} if a meld does not fit or one of its tiles is missing
+   */
+  private static boolean place(Rummikub game, Player player, List<List<Tile>> melds,
+      List<Tile> loose) {
+    melds.sort(Comparator.comparingInt((List<Tile> meld) -> meld.size()).reversed());
+    for (List<Tile> meld : melds) {
+      Placement gap = findGap(game, meld.size());
+      if (gap == null) {
+        return false;
+      }
+      for (int i = 0; i < meld.size(); i++) {
+        Tile tile = meld.get(i);
+        if (!loose.remove(tile)) {
+          int index = player.getRack().indexOf(tile);
+          if (index < 0) {
+            return false;
+          }
+          tile = player.getTileFromRack(index);
+        }
+        game.setTile(gap.x + i, gap.y, tile, player);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the leftmost position of the topmost gap that fits the specified number of tiles or
+   * {@code null} if there is none.
+   */
+  private static Placement findGap(Rummikub game, int length) {
+    int width = game.getBoardWidth();
+    for (int y = 0; y < game.getBoardHeight(); y++) {
+      int free = 0;
+      for (int x = 0; x < width; x++) {
+        free = game.getTile(x, y) == null ? free + 1 : 0;
+        // the cell left of the gap has to stay free unless the gap starts at the edge
+        int needed = x + 1 == length ? length : length + 1;
+        boolean isRightFree = x + 1 == width || game.getTile(x + 1, y) == null;
+        if (free >= needed && isRightFree) {
+          return new Placement(x - length + 1, y);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The tiles of one sequence on the board and the position of its leftmost tile.
+   */
+  private static final class Placement {
+
+    private final int x;
+
+    private final int y;
+
+    private final List<Tile> tiles;
+
+    Placement(int x, int y) {
+      this.x = x;
+      this.y = y;
+      this.tiles = new ArrayList<>();
+    }
+
+    /**
+     * Takes the tiles of this sequence from the board and adds them to the specified tiles.
+     */
+    void pollFrom(Rummikub game, Player player, List<Tile> loose) {
+      for (int i = 0; i < tiles.size(); i++) {
+        loose.add(game.pollTile(x + i, y, player));
+      }
+    }
+
+  }
+
+}
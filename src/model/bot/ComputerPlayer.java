@@ -0,0 +1,284 @@
+package model.bot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.Rummikub;
+import model.RummikubGame;
+import model.RummikubPlayer;
+import model.Tile;
+import model.solver.ParallelSolver;
+import model.solver.Solution;
+import model.solver.Solver;
+
+/**
+ * A player controlled by the computer. The player searches the move that sets the highest value
+ * from his rack with the {@link ParallelSolver} and stops the search when his time budget is used
+ * up, so he always plays the best move found so far. If no move was found he pulls a tile from the
+ * pool, and if the pool is empty he passes. On {@link Difficulty#HARD} the player additionally
+ * compares this move with a few alternatives by a Monte Carlo search, see {@link Difficulty}.
+ *
+ * <p>The search only reads the tiles captured by {@link #think(Rummikub, Executor)}, thus it can
+ * run on another thread while the game is used elsewhere. Only {@link #play(RummikubGame, Solution)}
+ * modifies the game.
+ */
+public class ComputerPlayer extends RummikubPlayer {
+
+  private static final long serialVersionUID = 2968337610617054913L;
+
+  /**
+   * The maximal time for the search of a move (in ms).
+   */
+  private final long budgetInMs;
+
+  /**
+   * The way this player chooses his move.
+   */
+  private final Difficulty difficulty;
+
+  /**
+   * The pool executing the search, {@code null} if the common pool is used.
+   */
+  private transient ForkJoinPool pool;
+
+  /**
+   * The source of the random numbers of the Monte Carlo search, created when it is needed first.
+   */
+  private transient SplittableRandom random;
+
+  /**
+   * Initializes a new {@code ComputerPlayer} with the specified values.
+   *
+   * @param name the name of this player
+   * @param age non-negative age of this player
+   * @param budgetInMs the maximal time for the search of a move (in ms)
+   * @param difficulty the way this player chooses his move
+   */
+  protected ComputerPlayer(String name, int age, long budgetInMs, Difficulty difficulty) {
+    super(name, age);
+    this.budgetInMs = budgetInMs;
+    this.difficulty = difficulty;
+  }
+
+  /**
+   * Returns a new {@code ComputerPlayer} of {@link Difficulty#NORMAL} whose search is executed by
+   * the common pool.
+   *
+   * @param name the name of this player
+   * @param age non-negative age of this player
+   * @param budgetInMs the maximal time for the search of a move (in ms)
+   * @return the newly created {@code ComputerPlayer}
+   * @throws IllegalArgumentException if the age is negative or the budget is not positive
+   */
+  public static ComputerPlayer of(String name, int age, long budgetInMs) {
+    return of(name, age, budgetInMs, Difficulty.NORMAL, null);
+  }
+
+  /**
+   * Returns a new {@code ComputerPlayer} with the specified values whose search is executed by the
+   * common pool.
+   *
+   * @param name the name of this player
+   * @param age non-negative age of this player
+   * @param budgetInMs the maximal time for the search of a move (in ms)
+   * @param difficulty the way this player chooses his move
+   * @return the newly created {@code ComputerPlayer}
+   * @throws IllegalArgumentException if the age is negative or the budget is not positive
+   */
+  public static ComputerPlayer of(String name, int age, long budgetInMs, Difficulty difficulty) {
+    return of(name, age, budgetInMs, difficulty, null);
+  }
+
+  /**
+   * Returns a new {@code ComputerPlayer} with the specified values.
+   *
+   * @param name the name of this player
+   * @param age non-negative age of this player
+   * @param budgetInMs the maximal time for the search of a move (in ms)
+   * @param difficulty the way this player chooses his move
+   * @param pool the pool executing the search, {@code null} for the common pool
+   * @return the newly created {@code ComputerPlayer}
+   * @throws IllegalArgumentException if the age is negative or the budget is not positive
+   */
+  public static ComputerPlayer of(String name, int age, long budgetInMs, Difficulty difficulty,
+      ForkJoinPool pool) {
+    if (age < 0) {
+      throw new IllegalArgumentException("Age must be positive.");
+    }
+    if (budgetInMs <= 0) {
+      throw new IllegalArgumentException("Budget must be positive.");
+    }
+    ComputerPlayer player = new ComputerPlayer(name, age, budgetInMs, difficulty);
+    player.pool = pool;
+    return player;
+  }
+
+  /**
+   * Returns the maximal time for the search of a move (in ms).
+   */
+  public long getBudgetInMs() {
+    return budgetInMs;
+  }
+
+  /**
+   * Returns the way this player chooses his move.
+   */
+  public Difficulty getDifficulty() {
+    return difficulty;
+  }
+
+  /**
+   * Sets the source of the random numbers of the Monte Carlo search, e.g. to derive it from the
+   * seed of a game.
+   */
+  void setRandom(SplittableRandom random) {
+    this.random = random;
+  }
+
+  /**
+   * Plays the turn of this player in the specified game, i.e. searches a move within the budget
+   * and plays it. The round is validated, so the caller only has to end it.
+   *
+   * @param game a started game whose current player is this player
+   * @throws IllegalStateException if it's not this player's turn
+   */
+  public void playTurn(RummikubGame game) {
+    play(game, think(game, Runnable::run).join());
+  }
+
+  /**
+   * Starts the search of a move in the specified game. The tiles on the board and on the rack are
+   * captured by the calling thread, the search itself is run by the specified executor and does
+   * not access the game. The returned future completes within the budget plus the time needed to
+   * lay out the move found.
+   *
+   * @param game a started game whose current player is this player
+   * @param executor the executor waiting for the search
+   * @return the best move found
+   */
+  public CompletableFuture<Solution> think(Rummikub game, Executor executor) {
+    List<List<Tile>> board = Solver.sequencesOf(game);
+    List<Tile> rack = new ArrayList<>(getRack());
+    boolean isFirstMoveDone = isFirstMoveDone();
+    if (difficulty == Difficulty.NORMAL) {
+      return CompletableFuture.supplyAsync(
+          () -> search(board, rack, isFirstMoveDone, budgetInMs), executor);
+    }
+    MonteCarloSearch monteCarlo = MonteCarloSearch.of(game, this);
+    if (random == null) {
+      random = new SplittableRandom();
+    }
+    SplittableRandom searchRandom = random.split();
+    return CompletableFuture.supplyAsync(
+        () -> searchMonteCarlo(board, rack, isFirstMoveDone, monteCarlo, searchRandom), executor);
+  }
+
+  /**
+   * Returns the candidate move that wins most often in the playouts of the specified search. The
+   * candidates are pulling a tile, the best move and the best move that keeps the jokers on the
+   * rack. Half of the budget is used to find the best move.
+   */
+  private Solution searchMonteCarlo(List<List<Tile>> board, List<Tile> rack,
+      boolean isFirstMoveDone, MonteCarloSearch monteCarlo, SplittableRandom searchRandom) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetInMs);
+    List<Solution> candidates = new ArrayList<>();
+    candidates.add(Solver.noMove(board));
+    addCandidate(candidates, search(board, rack, isFirstMoveDone, budgetInMs / 2));
+    List<Tile> withoutJokers = new ArrayList<>(rack);
+    withoutJokers.removeIf(Tile::isJoker);
+    if (withoutJokers.size() < rack.size()) {
+      addCandidate(candidates, search(board, withoutJokers, isFirstMoveDone, budgetInMs / 8));
+    }
+    if (candidates.size() == 1) {
+      return candidates.get(0);
+    }
+    return monteCarlo.search(candidates, executingPool(), deadline, searchRandom);
+  }
+
+  /**
+   * Adds the specified move to the candidates unless it sets no tiles or the same tiles as another
+   * candidate.
+   */
+  private static void addCandidate(List<Solution> candidates, Solution move) {
+    if (!move.hasMove()) {
+      return;
+    }
+    for (Solution candidate : candidates) {
+      if (new HashSet<>(candidate.getPlacedTiles()).equals(new HashSet<>(move.getPlacedTiles()))) {
+        return;
+      }
+    }
+    candidates.add(move);
+  }
+
+  /**
+   * Returns the pool executing the search.
+   */
+  private ForkJoinPool executingPool() {
+    return pool == null ? ForkJoinPool.commonPool() : pool;
+  }
+
+  /**
+   * Returns the best move found within the specified budget.
+   */
+  private Solution search(List<List<Tile>> board, List<Tile> rack, boolean isFirstMoveDone,
+      long budgetInMs) {
+    ForkJoinPool executing = executingPool();
+    AtomicBoolean cancelled = new AtomicBoolean();
+    ForkJoinTask<Solution> task = executing.submit(
+        () -> ParallelSolver.solve(board, rack, isFirstMoveDone, executing, cancelled));
+    try {
+      return task.get(budgetInMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      cancelled.set(true);
+      return task.join();
+    } catch (InterruptedException e) {
+      cancelled.set(true);
+      Thread.currentThread().interrupt();
+      return task.join();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("The search failed.", e.getCause());
+    }
+  }
+
+  /**
+   * Plays the specified move found by {@link #think(Rummikub, Executor)} in the specified game and
+   * validates the round. If the move cannot be played, e.g. as the game changed in the meantime or
+   * the board has no room for the melds, all changes are reverted and a tile is pulled from the
+   * pool instead. If the pool is empty the round stays unchanged.
+   *
+   * @param game a started game whose current player is this player
+   * @param solution the move to be played
+   * @return {@code true} if tiles were set to the board
+   * @throws IllegalStateException if it's not this player's turn
+   */
+  public boolean play(RummikubGame game, Solution solution) {
+    if (game.getCurrentPlayer() != this) {
+      throw new IllegalStateException("It's not this players turn.");
+    }
+    if (solution.hasMove() && BoardLayout.apply(game, this, solution.getMelds())
+        && game.isValid()) {
+      return true;
+    }
+    game.revertTurn();
+    try {
+      pullTileFromPool(game.pullTile());
+      game.isValid();
+    } catch (NoSuchElementException e) {
+      // the pool is empty, so the player passes
+    }
+    return false;
+  }
+
+}
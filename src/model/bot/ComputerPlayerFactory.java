@@ -0,0 +1,65 @@
+package model.bot;
+
+import java.nio.ByteBuffer;
+
+import model.GameCodec;
+import model.PlayerFactory;
+import model.RummikubPlayer;
+
+/**
+ * Encodes and creates the {@link ComputerPlayer}s for the {@link GameCodec}. The values of a
+ * computer player are his budget (i64, in ms) and the ordinal of his {@link Difficulty} (u8). A
+ * decoded player executes his search by the common pool.
+ */
+public final class ComputerPlayerFactory implements PlayerFactory {
+
+  /**
+   * The kind of the computer players.
+   */
+  private static final int KIND = 1;
+
+  /**
+   * The number of bytes of the budget and the difficulty.
+   */
+  private static final int DATA_LENGTH = Long.BYTES + Byte.BYTES;
+
+  private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+  /**
+   * Initializes a new {@code ComputerPlayerFactory}, called by the service loader.
+   */
+  public ComputerPlayerFactory() {}
+
+  @Override
+  public int getKind() {
+    return KIND;
+  }
+
+  @Override
+  public Class<? extends RummikubPlayer> getPlayerClass() {
+    return ComputerPlayer.class;
+  }
+
+  @Override
+  public int getDataLength() {
+    return DATA_LENGTH;
+  }
+
+  @Override
+  public void writeData(RummikubPlayer player, ByteBuffer data) {
+    ComputerPlayer computer = (ComputerPlayer) player;
+    data.putLong(computer.getBudgetInMs());
+    data.put((byte) computer.getDifficulty().ordinal());
+  }
+
+  @Override
+  public RummikubPlayer create(String name, int age, ByteBuffer data) {
+    long budgetInMs = data.getLong();
+    int difficulty = data.get() & 0xFF;
+    if (difficulty >= DIFFICULTIES.length) {
+      throw new IllegalArgumentException("Unknown difficulty " + difficulty + ".");
+    }
+    return ComputerPlayer.of(name, age, budgetInMs, DIFFICULTIES[difficulty]);
+  }
+
+}
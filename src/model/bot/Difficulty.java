@@ -0,0 +1,21 @@
+package model.bot;
+
+/**
+ * The difficulty levels of a {@link ComputerPlayer}, i.e. how he chooses his move.
+ */
+public enum Difficulty {
+
+  /**
+   * The player always sets the highest value possible from his rack, or pulls a tile if he cannot
+   * set any tiles.
+   */
+  NORMAL,
+
+  /**
+   * The player compares a few candidate moves, including pulling a tile, by simulating the rest of
+   * the game many times with randomly dealt unseen tiles and plays the move that wins most often.
+   * The more time he gets, the stronger he plays.
+   */
+  HARD;
+
+}
@@ -0,0 +1,496 @@
+package model.bot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import model.Color;
+import model.Player;
+import model.Rummikub;
+import model.RummikubPlayer;
+import model.RummikubTile;
+import model.Tile;
+import model.solver.Solution;
+import model.solver.Solver;
+
+/**
+ * A Monte Carlo search choosing between candidate moves of a player. As the racks of the other
+ * players and the order of the pool are hidden, each playout first deals the unseen tiles randomly
+ * to the other players, with the rack sizes they actually have, and to the pool. Then the rest of
+ * the game is played with a fast policy: every player greedily sets the melds of the highest value
+ * he can form from his rack alone and pulls a tile otherwise. The candidates are chosen by UCB1 so
+ * the promising ones get most of the playouts.
+ *
+ * <p>The search uses root parallelism: every thread of the pool runs its own playouts with its own
+ * statistics and random number generator, and the statistics are summed up at the deadline.
+ */
+final class MonteCarloSearch {
+
+  /**
+   * The weight of the exploration term of UCB1.
+   */
+  private static final double EXPLORATION = Math.sqrt(2);
+
+  /**
+   * The maximal number of turns of a playout, the game is scored afterwards.
+   */
+  private static final int MAX_PLAYOUT_TURNS = 120;
+
+  /**
+   * The minimal number of tiles of a meld.
+   */
+  private static final int MINIMAL_MELD_SIZE = 3;
+
+  /**
+   * The number of values of the regular tiles.
+   */
+  private static final int VALUES = 13;
+
+  /**
+   * The number of copies of each regular tile.
+   */
+  private static final int COPIES = 2;
+
+  /**
+   * The tiles on the searching player's rack.
+   */
+  private final List<Tile> rack;
+
+  /**
+   * Indicates whether the searching player made his first move.
+   */
+  private final boolean isFirstMoveDone;
+
+  /**
+   * The rack sizes of the other players in the order they play after the searching player.
+   */
+  private final int[] rackSizes;
+
+  /**
+   * Indicates whether the other players made their first moves, ordered like the rack sizes.
+   */
+  private final boolean[] firstMovesDone;
+
+  /**
+   * The tiles neither on the board nor on the searching player's rack.
+   */
+  private final List<Tile> unseen;
+
+  /**
+   * Initializes a new {@code MonteCarloSearch} with the specified values.
+   */
+  private MonteCarloSearch(List<Tile> rack, boolean isFirstMoveDone, int[] rackSizes,
+      boolean[] firstMovesDone, List<Tile> unseen) {
+    this.rack = rack;
+    this.isFirstMoveDone = isFirstMoveDone;
+    this.rackSizes = rackSizes;
+    this.firstMovesDone = firstMovesDone;
+    this.unseen = unseen;
+  }
+
+  /**
+   * Returns a search for the specified player that captures everything the player can see of the
+   * specified game. The search does not access the game afterwards.
+   *
+   * @param game a started game
+   * @param player a player of the game
+   * @return the search
+   */
+  static MonteCarloSearch of(Rummikub game, RummikubPlayer player) {
+    List<Player> players = game.getPlayers();
+    int index = players.indexOf(player);
+    int[] rackSizes = new int[players.size() - 1];
+    boolean[] firstMovesDone = new boolean[players.size() - 1];
+    for (int i = 1; i < players.size(); i++) {
+      RummikubPlayer other = (RummikubPlayer) players.get((index + i) % players.size());
+      rackSizes[i - 1] = other.getRack().size();
+      firstMovesDone[i - 1] = other.isFirstMoveDone();
+    }
+    Set<Tile> seen = new HashSet<>(player.getRack());
+    for (List<Tile> sequence : Solver.sequencesOf(game)) {
+      seen.addAll(sequence);
+    }
+    List<Tile> unseen = new ArrayList<>();
+    for (int id = 0; id < RummikubTile.NUMBER_OF_TILES; id++) {
+      Tile tile = RummikubTile.byId(id);
+      if (!seen.contains(tile)) {
+        unseen.add(tile);
+      }
+    }
+    return new MonteCarloSearch(new ArrayList<>(player.getRack()), player.isFirstMoveDone(),
+        rackSizes, firstMovesDone, unseen);
+  }
+
+  /**
+   * Returns the candidate that was chosen most often until the specified deadline. Candidates
+   * chosen equally often are ordered by their mean reward and then by their value, so a tie does
+   * not favor pulling a tile. Every thread of the pool runs at least one playout per candidate.
+   *
+   * @param candidates the moves to choose from, a move without placed tiles pulls a tile
+   * @param pool the pool running the playouts
+   * @param deadline the value of {@link System#nanoTime()} at which the search stops
+   * @param random the source of the random numbers, split for every thread
+   * @return the best candidate
+   */
+  Solution search(List<Solution> candidates, ForkJoinPool pool, long deadline,
+      SplittableRandom random) {
+    List<ForkJoinTask<Statistics>> tasks = new ArrayList<>();
+    for (int i = 0; i < pool.getParallelism(); i++) {
+      SplittableRandom threadRandom = random.split();
+      tasks.add(pool.submit(() -> run(candidates, deadline, threadRandom)));
+    }
+    Statistics statistics = new Statistics(candidates.size());
+    for (ForkJoinTask<Statistics> task : tasks) {
+      statistics.add(task.join());
+    }
+    int best = 0;
+    for (int i = 1; i < candidates.size(); i++) {
+      if (statistics.compare(i, best, candidates) > 0) {
+        best = i;
+      }
+    }
+    return candidates.get(best);
+  }
+
+  /**
+   * Runs playouts until the deadline and returns how often each candidate was chosen and won.
+   */
+  private Statistics run(List<Solution> candidates, long deadline, SplittableRandom random) {
+    Statistics statistics = new Statistics(candidates.size());
+    int[] visits = statistics.visits;
+    double[] rewards = statistics.rewards;
+    int total = 0;
+    do {
+      int candidate = select(visits, rewards, total);
+      rewards[candidate] += playout(candidates.get(candidate), random);
+      visits[candidate]++;
+      total++;
+    } while (total < candidates.size() || System.nanoTime() < deadline);
+    return statistics;
+  }
+
+  /**
+   * Returns the candidate with the highest upper confidence bound, candidates without playouts
+   * first.
+   */
+  private static int select(int[] visits, double[] rewards, int total) {
+    int best = 0;
+    double bestBound = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < visits.length; i++) {
+      if (visits[i] == 0) {
+        return i;
+      }
+      double bound = rewards[i] / visits[i] + EXPLORATION * Math.sqrt(Math.log(total) / visits[i]);
+      if (bound > bestBound) {
+        best = i;
+        bestBound = bound;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Plays the specified move and the rest of one randomly dealt game and returns 1 if the
+   * searching player wins, his share if several players tie and 0 otherwise.
+   */
+  private double playout(Solution move, SplittableRandom random) {
+    List<Tile> deck = new ArrayList<>(unseen);
+    for (int i = deck.size() - 1; i > 0; i--) {
+      Collections.swap(deck, i, random.nextInt(i + 1));
+    }
+    Playout playout = new Playout(rackSizes.length + 1, deck);
+    playout.deal(0, rack, isFirstMoveDone);
+    for (int i = 0; i < rackSizes.length; i++) {
+      playout.deal(i + 1, playout.drawAll(rackSizes[i]), firstMovesDone[i]);
+    }
+    playout.play(0, move.getPlacedTiles());
+    return playout.finish();
+  }
+
+  /**
+   * How often each candidate was chosen and the sum of its rewards.
+   */
+  private static final class Statistics {
+
+    final int[] visits;
+
+    final double[] rewards;
+
+    Statistics(int candidates) {
+      this.visits = new int[candidates];
+      this.rewards = new double[candidates];
+    }
+
+    void add(Statistics other) {
+      for (int i = 0; i < visits.length; i++) {
+        visits[i] += other.visits[i];
+        rewards[i] += other.rewards[i];
+      }
+    }
+
+    /**
+     * Compares the specified candidates by their visits, their mean rewards and their values.
+     */
+    int compare(int first, int second, List<Solution> candidates) {
+      int result = Integer.compare(visits[first], visits[second]);
+      if (result == 0) {
+        result = Double.compare(rewards[first] / visits[first], rewards[second] / visits[second]);
+      }
+      if (result == 0) {
+        result = Integer.compare(candidates.get(first).getValue(),
+            candidates.get(second).getValue());
+      }
+      return result;
+    }
+
+  }
+
+  /**
+   * One simulated game. The board is not simulated as the policy only forms melds from racks.
+   */
+  private static final class Playout {
+
+    private final List<List<Tile>> racks;
+
+    private final boolean[] firstMovesDone;
+
+    /**
+     * The unseen tiles, the tiles from {@link #next} on are in the pool.
+     */
+    private final List<Tile> deck;
+
+    private int next;
+
+    /**
+     * The number of players in a row that neither set nor pulled a tile.
+     */
+    private int passes;
+
+    Playout(int players, List<Tile> deck) {
+      this.racks = new ArrayList<>(players);
+      for (int i = 0; i < players; i++) {
+        racks.add(null);
+      }
+      this.firstMovesDone = new boolean[players];
+      this.deck = deck;
+    }
+
+    void deal(int player, List<Tile> rack, boolean isFirstMoveDone) {
+      racks.set(player, new ArrayList<>(rack));
+      firstMovesDone[player] = isFirstMoveDone;
+    }
+
+    List<Tile> drawAll(int count) {
+      List<Tile> tiles = deck.subList(next, next + count);
+      next += count;
+      return tiles;
+    }
+
+    /**
+     * Sets the specified tiles, or pulls a tile if there are none.
+     */
+    void play(int player, List<Tile> placed) {
+      if (!placed.isEmpty()) {
+        racks.get(player).removeAll(placed);
+        firstMovesDone[player] = true;
+        passes = 0;
+      } else if (next < deck.size()) {
+        racks.get(player).add(deck.get(next++));
+        passes = 0;
+      } else {
+        passes++;
+      }
+    }
+
+    /**
+     * Plays the game to its end and returns the reward of the first player.
+     */
+    double finish() {
+      int players = racks.size();
+      List<Tile> placed = new ArrayList<>();
+      for (int turn = 1; turn < MAX_PLAYOUT_TURNS && !isOver(); turn++) {
+        int player = turn % players;
+        placed.clear();
+        int value = formMelds(racks.get(player), placed);
+        if (!firstMovesDone[player] && value < RummikubPlayer.MIN_SUM_VALUE_FOR_FIRST_MOVE) {
+          placed.clear();
+        }
+        play(player, placed);
+      }
+      return reward();
+    }
+
+    /**
+     * Adds the tiles of the melds formed from the specified rack to the placed tiles and returns
+     * their value. The meld of the highest value is taken as long as one can be formed from the
+     * regular tiles, then the jokers complete the pairs of the highest value. Runs are taken as
+     * long as possible, the melds on the board are not extended.
+     */
+    private static int formMelds(List<Tile> rack, List<Tile> placed) {
+      Color[] colors = Color.values();
+      Tile[][] slots = new Tile[colors.length * VALUES][COPIES];
+      int[] counts = new int[colors.length * VALUES];
+      List<Tile> jokers = new ArrayList<>();
+      for (Tile tile : rack) {
+        if (tile.isJoker()) {
+          jokers.add(tile);
+        } else {
+          int slot = tile.getColor().ordinal() * VALUES + tile.getValue() - 1;
+          slots[slot][counts[slot]++] = tile;
+        }
+      }
+      int sum = 0;
+      while (true) {
+        int bestValue = 0;
+        int bestColor = -1;
+        int bestFirst = 0;
+        int bestLast = 0;
+        for (int value = 1; value <= VALUES; value++) {
+          int present = 0;
+          for (int color = 0; color < colors.length; color++) {
+            present += counts[color * VALUES + value - 1] > 0 ? 1 : 0;
+          }
+          if (present >= MINIMAL_MELD_SIZE && present * value > bestValue) {
+            bestValue = present * value;
+            bestColor = -1;
+            bestFirst = value;
+          }
+        }
+        for (int color = 0; color < colors.length; color++) {
+          int first = 1;
+          int runValue = 0;
+          for (int value = 1; value <= VALUES + 1; value++) {
+            if (value <= VALUES && counts[color * VALUES + value - 1] > 0) {
+              runValue += value;
+              continue;
+            }
+            if (value - first >= MINIMAL_MELD_SIZE && runValue > bestValue) {
+              bestValue = runValue;
+              bestColor = color;
+              bestFirst = first;
+              bestLast = value - 1;
+            }
+            first = value + 1;
+            runValue = 0;
+          }
+        }
+        if (bestValue == 0) {
+          break;
+        }
+        sum += bestValue;
+        if (bestColor < 0) {
+          for (int color = 0; color < colors.length; color++) {
+            take(slots, counts, color * VALUES + bestFirst - 1, placed);
+          }
+        } else {
+          for (int value = bestFirst; value <= bestLast; value++) {
+            take(slots, counts, bestColor * VALUES + value - 1, placed);
+          }
+        }
+      }
+      for (Tile joker : jokers) {
+        int value = completePair(slots, counts, placed);
+        if (value == 0) {
+          break;
+        }
+        placed.add(joker);
+        sum += value;
+      }
+      return sum;
+    }
+
+    /**
+     * Sets the pair of regular tiles of the highest value that a joker completes to a meld and
+     * returns the value of the meld, 0 if there is no such pair.
+     */
+    private static int completePair(Tile[][] slots, int[] counts, List<Tile> placed) {
+      int colors = counts.length / VALUES;
+      int bestValue = 0;
+      int bestFirst = -1;
+      int bestSecond = -1;
+      for (int value = 1; value <= VALUES; value++) {
+        int first = -1;
+        for (int color = 0; color < colors; color++) {
+          int slot = color * VALUES + value - 1;
+          if (counts[slot] == 0) {
+            continue;
+          }
+          if (first < 0) {
+            first = slot;
+          } else if (3 * value > bestValue) {
+            bestValue = 3 * value;
+            bestFirst = first;
+            bestSecond = slot;
+          }
+        }
+      }
+      for (int color = 0; color < colors; color++) {
+        for (int value = 1; value < VALUES; value++) {
+          int slot = color * VALUES + value - 1;
+          for (int gap = 1; gap <= 2 && value + gap <= VALUES; gap++) {
+            int runValue = gap == 2 || value + 2 <= VALUES ? 3 * value + 3 : 3 * value;
+            if (counts[slot] > 0 && counts[slot + gap] > 0 && runValue > bestValue) {
+              bestValue = runValue;
+              bestFirst = slot;
+              bestSecond = slot + gap;
+            }
+          }
+        }
+      }
+      if (bestValue > 0) {
+        take(slots, counts, bestFirst, placed);
+        take(slots, counts, bestSecond, placed);
+      }
+      return bestValue;
+    }
+
+    /**
+     * Moves a tile of the specified slot to the placed tiles if the slot is not empty.
+     */
+    private static void take(Tile[][] slots, int[] counts, int slot, List<Tile> placed) {
+      if (counts[slot] > 0) {
+        placed.add(slots[slot][--counts[slot]]);
+      }
+    }
+
+    private boolean isOver() {
+      for (List<Tile> rack : racks) {
+        if (rack.isEmpty()) {
+          return true;
+        }
+      }
+      return passes >= racks.size();
+    }
+
+    /**
+     * Returns the reward of the first player, the players with the fewest minus points win.
+     */
+    private double reward() {
+      int[] minusPoints = new int[racks.size()];
+      int fewest = Integer.MAX_VALUE;
+      for (int i = 0; i < racks.size(); i++) {
+        for (Tile tile : racks.get(i)) {
+          minusPoints[i] += tile.isJoker() ? RummikubPlayer.JOKER_MINUS_POINTS : tile.getValue();
+        }
+        fewest = Math.min(fewest, minusPoints[i]);
+      }
+      if (minusPoints[0] != fewest) {
+        return 0;
+      }
+      int winners = 0;
+      for (int points : minusPoints) {
+        if (points == fewest) {
+          winners++;
+        }
+      }
+      return 1.0 / winners;
+    }
+
+  }
+
+}
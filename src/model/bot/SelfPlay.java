@@ -0,0 +1,358 @@
+package model.bot;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import model.Player;
+import model.RummikubGame;
+import model.RummikubTile;
+import model.Tile;
+import model.solver.Solution;
+import model.solver.Solver;
+
+/**
+ * Plays complete games between computer players without a user interface or a network. Each game
+ * is identified by the seed of its deal, and games with {@link Difficulty#NORMAL} players only are
+ * reproducible: those players search their moves without a time limit, so replaying a seed plays
+ * exactly the same game. The random numbers of {@link Difficulty#HARD} players are derived from the
+ * seed too, but their search stops when their budget is used up, so the number of playouts and
+ * thus their moves depend on the speed of the machine. Such games cannot be replayed.
+ *
+ * <p>After every turn the tiles of the game are checked: the board must be valid and every tile
+ * must be either on the board, on a rack or in the pool. A move of the solver that the rules of the
+ * game reject is counted, as it means that the solver and the validation of the rounds disagree.
+ *
+ * <p>Usage: {@code SelfPlay [--games n] [--seed s] [--players NORMAL,HARD] [--budget ms]
+ * [--threads t] [--replay s]}
+ */
+public final class SelfPlay {
+
+  /**
+   * The maximal number of turns of a game, a game is scored afterwards.
+   */
+  private static final int MAX_TURNS = 1000;
+
+  /**
+   * The age of the first seat, the players are seated in the order of their ages.
+   */
+  private static final int FIRST_AGE = 20;
+
+  private SelfPlay() {}
+
+  /**
+   * Plays one game between computer players of the specified difficulties.
+   *
+   * @param seed the seed of the deal
+   * @param seats the difficulties of the players in the order they play
+   * @param budgetInMs the time budget of {@link Difficulty#HARD} players (in ms)
+   * @param pool the pool executing the search of {@link Difficulty#HARD} players
+   * @param log the stream every turn is written to, may be {@code null}
+   * @return the result of the game
+   * @throws IllegalStateException if a turn broke the rules of the game
+   */
+  public static GameResult play(long seed, List<Difficulty> seats, long budgetInMs,
+      ForkJoinPool pool, PrintStream log) {
+    RummikubGame game = RummikubGame.create(seed);
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int i = 0; i < seats.size(); i++) {
+      ComputerPlayer player = ComputerPlayer.of("Seat " + (i + 1), FIRST_AGE + i, budgetInMs,
+          seats.get(i), pool);
+      player.setRandom(random.split());
+      game.addPlayer(player);
+    }
+    game.start();
+    int turns = 0;
+    int passes = 0;
+    int rejectedMoves = 0;
+    while (true) {
+      turns++;
+      ComputerPlayer player = (ComputerPlayer) game.getCurrentPlayer();
+      Solution move = player.getDifficulty() == Difficulty.NORMAL ? Solver.solve(game, player)
+          : player.think(game, Runnable::run).join();
+      boolean isPlayed = player.play(game, move);
+      if (move.hasMove() && !isPlayed) {
+        rejectedMoves++;
+      }
+      passes = !isPlayed && game.getPoolSize() == 0 ? passes + 1 : 0;
+      check(game, seed);
+      if (log != null) {
+        log.println(turns + ". " + player.getName() + ": "
+            + (isPlayed ? "sets " + move.getPlacedTiles() : "pulls a tile") + ", "
+            + player.getRack().size() + " tiles left");
+      }
+      if (game.isWon()) {
+        return new GameResult(seed, turns, game.getPlayers().indexOf(player), rejectedMoves);
+      }
+      if (passes == seats.size() || turns == MAX_TURNS) {
+        return new GameResult(seed, turns, seatWithFewestMinusPoints(game), rejectedMoves);
+      }
+      game.endCurrentRound();
+    }
+  }
+
+  /**
+   * Plays the specified number of games with consecutive seeds on the specified number of
+   * threads. The searches of {@link Difficulty#HARD} players run on the same threads.
+   *
+   * @param firstSeed the seed of the first game
+   * @param games the number of games
+   * @param seats the difficulties of the players in the order they play
+   * @param budgetInMs the time budget of {@link Difficulty#HARD} players (in ms)
+   * @param threads the number of threads playing games at the same time
+   * @return the summary of all games
+   * @throws IllegalStateException if a turn broke the rules of the game
+   */
+  public static Report run(long firstSeed, int games, List<Difficulty> seats, long budgetInMs,
+      int threads) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    long start = System.nanoTime();
+    try {
+      List<GameResult> results = pool.submit(() -> LongStream.range(firstSeed, firstSeed + games)
+          .parallel()
+          .mapToObj(seed -> play(seed, seats, budgetInMs, pool, null))
+          .collect(Collectors.toList())).get();
+      return new Report(results, seats.size(), System.nanoTime() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while playing.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IllegalStateException) {
+        throw (IllegalStateException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Checks that the board is valid and no tile got lost or duplicated.
+   */
+  private static void check(RummikubGame game, long seed) {
+    if (!game.isBoardValid()) {
+      throw new IllegalStateException("Invalid board in the game with seed " + seed + ".");
+    }
+    List<Tile> tiles = new ArrayList<>();
+    for (List<Tile> sequence : Solver.sequencesOf(game)) {
+      tiles.addAll(sequence);
+    }
+    for (Player player : game.getPlayers()) {
+      tiles.addAll(player.getRack());
+    }
+    long distinct = tiles.stream().distinct().count();
+    if (distinct != tiles.size() || tiles.size() + game.getPoolSize()
+        != RummikubTile.NUMBER_OF_TILES) {
+      throw new IllegalStateException("Tiles lost in the game with seed " + seed + ".");
+    }
+  }
+
+  /**
+   * Returns the seat of the player with the fewest minus points, the first one if several players
+   * tie.
+   */
+  private static int seatWithFewestMinusPoints(RummikubGame game) {
+    List<Player> players = game.getPlayers();
+    int best = 0;
+    for (int i = 1; i < players.size(); i++) {
+      if (players.get(i).getMinusPoints() > players.get(best).getMinusPoints()) {
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Plays games as specified by the command line arguments and prints the report, or replays one
+   * game turn by turn.
+   *
+   * @param args the command line arguments, see the description of this class
+   * @throws IllegalArgumentException if a game with {@link Difficulty#HARD} players is to be
+   *         replayed
+   */
+  public static void main(String[] args) {
+    int games = 1000;
+    long seed = 1;
+    List<Difficulty> seats = new ArrayList<>();
+    long budgetInMs = 100;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Long replay = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--games":
+          games = Integer.parseInt(args[i + 1]);
+          break;
+        case "--seed":
+          seed = Long.parseLong(args[i + 1]);
+          break;
+        case "--players":
+          for (String difficulty : args[i + 1].split(",")) {
+            seats.add(Difficulty.valueOf(difficulty));
+          }
+          break;
+        case "--budget":
+          budgetInMs = Long.parseLong(args[i + 1]);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(args[i + 1]);
+          break;
+        case "--replay":
+          replay = Long.parseLong(args[i + 1]);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+      }
+    }
+    if (seats.isEmpty()) {
+      seats.add(Difficulty.NORMAL);
+      seats.add(Difficulty.NORMAL);
+    }
+    if (replay != null) {
+      if (seats.contains(Difficulty.HARD)) {
+        throw new IllegalArgumentException(
+            "Games with HARD players cannot be replayed, their moves depend on the time budget.");
+      }
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      try {
+        System.out.println(play(replay, seats, budgetInMs, pool, System.out));
+      } finally {
+        pool.shutdown();
+      }
+    } else {
+      System.out.println(run(seed, games, seats, budgetInMs, threads));
+    }
+  }
+
+  /**
+   * The result of one game.
+   */
+  public static final class GameResult {
+
+    private final long seed;
+
+    private final int turns;
+
+    private final int winner;
+
+    private final int rejectedMoves;
+
+    GameResult(long seed, int turns, int winner, int rejectedMoves) {
+      this.seed = seed;
+      this.turns = turns;
+      this.winner = winner;
+      this.rejectedMoves = rejectedMoves;
+    }
+
+    /**
+     * Returns the seed of the deal.
+     */
+    public long getSeed() {
+      return seed;
+    }
+
+    /**
+     * Returns the number of turns played.
+     */
+    public int getTurns() {
+      return turns;
+    }
+
+    /**
+     * Returns the seat of the winner, counted from 0.
+     */
+    public int getWinner() {
+      return winner;
+    }
+
+    /**
+     * Returns the number of moves found by the solver that the rules of the game rejected.
+     */
+    public int getRejectedMoves() {
+      return rejectedMoves;
+    }
+
+    @Override
+    public String toString() {
+      return "Seed " + seed + ": seat " + (winner + 1) + " wins after " + turns + " turns, "
+          + rejectedMoves + " rejected moves";
+    }
+
+  }
+
+  /**
+   * The summary of many games.
+   */
+  public static final class Report {
+
+    private final List<GameResult> results;
+
+    private final int[] wins;
+
+    private final long nanos;
+
+    Report(List<GameResult> results, int seats, long nanos) {
+      this.results = results;
+      this.wins = new int[seats];
+      for (GameResult result : results) {
+        wins[result.winner]++;
+      }
+      this.nanos = nanos;
+    }
+
+    /**
+     * Returns the results of all games ordered by their seeds.
+     */
+    public List<GameResult> getResults() {
+      return results;
+    }
+
+    /**
+     * Returns the number of games played per second.
+     */
+    public double getGamesPerSecond() {
+      return results.size() / (nanos / 1e9);
+    }
+
+    /**
+     * Returns the average number of turns of a game.
+     */
+    public double getAverageTurns() {
+      return results.stream().mapToInt(GameResult::getTurns).average().orElse(0);
+    }
+
+    /**
+     * Returns the share of the games won by the specified seat.
+     *
+     * @param seat the seat counted from 0
+     */
+    public double getWinRate(int seat) {
+      return results.isEmpty() ? 0 : (double) wins[seat] / results.size();
+    }
+
+    /**
+     * Returns the number of moves found by the solver that the rules of the game rejected.
+     */
+    public int getRejectedMoves() {
+      return results.stream().mapToInt(GameResult::getRejectedMoves).sum();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder s = new StringBuilder();
+      s.append(String.format("Games: %d, games/sec: %.2f, average turns: %.1f%n", results.size(),
+          getGamesPerSecond(), getAverageTurns()));
+      for (int seat = 0; seat < wins.length; seat++) {
+        s.append(String.format("Seat %d wins: %.1f%%%n", seat + 1, 100 * getWinRate(seat)));
+      }
+      s.append("Rejected moves: " + getRejectedMoves());
+      return s.toString();
+    }
+
+  }
+
+}
@@ -0,0 +1,230 @@
+package model.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.Rummikub;
+import model.RummikubGame;
+import model.RummikubPlayer;
+import model.Tile;
+
+/**
+ * Searches the best move like {@link Solver} with the tasks of a {@link ForkJoinPool}. The first
+ * decisions of the search, i.e. which tiles of the lowest values are taken from the rack and how
+ * they continue runs or form groups, are split into tasks. Each worker thread searches the
+ * remaining decisions with its own {@link Solver}, so results computed for one task are reused by
+ * later tasks of the same thread. All tasks share the best value found so far and skip every
+ * branch that cannot exceed it. As the results of each {@link Solver} are exact, the optimum is the
+ * same as the one of the sequential search.
+ */
+public final class ParallelSolver {
+
+  /**
+   * The number of decisions split into tasks, i.e. the colors and groups of the two lowest values.
+   */
+  static final int SPLIT_STEPS = 2 * (Solver.COLORS + 1);
+
+  private ParallelSolver() {}
+
+  /**
+   * Returns the best move for the current player of the specified game using the common pool.
+   *
+   * @param game a started game
+   * @return the best move
+   */
+  public static Solution solve(RummikubGame game) {
+    return solve(game, (RummikubPlayer) game.getCurrentPlayer(), ForkJoinPool.commonPool(),
+        new AtomicBoolean());
+  }
+
+  /**
+   * Returns the best move for the specified player of the specified game. The tiles currently on
+   * the board are treated as fixed.
+   *
+   * @param game a started game
+   * @param player a player of the game
+   * @param pool the pool executing the tasks
+   * @param cancelled set to {@code true} to cancel the search
+   * @return the best move found
+   */
+  public static Solution solve(Rummikub game, RummikubPlayer player, ForkJoinPool pool,
+      AtomicBoolean cancelled) {
+    return solve(Solver.sequencesOf(game), player.getRack(), player.isFirstMoveDone(), pool,
+        cancelled);
+  }
+
+  /**
+   * Returns the best move for a player with the specified rack. Unlike {@link Solver} a cancelled
+   * search does not fail but returns the best move found until then, which is not
+   * {@link Solution#isOptimal() optimal}.
+   *
+   * @param board the sequences on the board
+   * @param rack the tiles on the player's rack
+   * @param isFirstMoveDone whether the player successfully made his first move
+   * @param pool the pool executing the tasks
+   * @param cancelled set to {@code true} to cancel the search
+   * @return the best move found
+   */
+  public static Solution solve(List<? extends List<Tile>> board, List<Tile> rack,
+      boolean isFirstMoveDone, ForkJoinPool pool, AtomicBoolean cancelled) {
+    Solver.Tiles tiles = new Solver.Tiles(board, rack, isFirstMoveDone);
+    Search search = new Search(tiles, cancelled);
+    Result result = pool.invoke(new Task(search, Solver.ROOT, 0, new int[0]));
+    boolean isOptimal = !cancelled.get();
+    if (result == null || !Solver.isMove(result.value, isFirstMoveDone)) {
+      return Solver.noMove(tiles, isOptimal);
+    }
+    return result.solver.reconstruct(result.value, result.moves, isOptimal);
+  }
+
+  /**
+   * The state shared by all tasks of one search.
+   */
+  private static final class Search {
+
+    private final Solver.Tiles tiles;
+
+    private final AtomicBoolean cancelled;
+
+    /**
+     * The highest value found so far.
+     */
+    private final AtomicInteger bestValue;
+
+    /**
+     * The solver of each worker thread.
+     */
+    private final Map<Thread, Solver> solvers;
+
+    /**
+     * The solver used to compute moves and bounds, which does not search itself.
+     */
+    private final Solver rules;
+
+    Search(Solver.Tiles tiles, AtomicBoolean cancelled) {
+      this.tiles = tiles;
+      this.cancelled = cancelled;
+      this.bestValue = new AtomicInteger(Solver.NONE);
+      this.solvers = new ConcurrentHashMap<>();
+      this.rules = new Solver(tiles, null);
+    }
+
+    /**
+     * Returns the solver of the current thread. A solver is only used by one leaf task at a time,
+     * as leaf tasks do not wait for other tasks.
+     */
+    Solver solver() {
+      return solvers.computeIfAbsent(Thread.currentThread(), thread -> new Solver(tiles, cancelled));
+    }
+
+  }
+
+  /**
+   * The best value found by a task and the moves leading to it.
+   */
+  private static final class Result {
+
+    private final int value;
+
+    private final int[] moves;
+
+    /**
+     * The solver that searched the moves after the split decisions.
+     */
+    private final Solver solver;
+
+    Result(int value, int[] moves, Solver solver) {
+      this.value = value;
+      this.moves = moves;
+      this.solver = solver;
+    }
+
+  }
+
+  /**
+   * Searches the best value from one state on. Returns {@code null} if no valid arrangement was
+   * found or the state cannot exceed the best value found so far.
+   */
+  private static final class Task extends RecursiveTask<Result> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Search search;
+
+    /**
+     * The state the task starts from.
+     */
+    private final int state;
+
+    /**
+     * The value set from the rack by the moves leading to the state.
+     */
+    private final int prefix;
+
+    /**
+     * The moves from the root to the state.
+     */
+    private final int[] moves;
+
+    Task(Search search, int state, int prefix, int[] moves) {
+      this.search = search;
+      this.state = state;
+      this.prefix = prefix;
+      this.moves = moves;
+    }
+
+    @Override
+    protected Result compute() {
+      if (search.cancelled.get()
+          || prefix + search.rules.upperBound(state) <= search.bestValue.get()) {
+        return null;
+      }
+      if (moves.length == SPLIT_STEPS) {
+        return searchLeaf();
+      }
+      List<Task> children = new ArrayList<>();
+      for (int move = 0; move < Solver.MOVES; move++) {
+        int next = search.rules.next(state, move);
+        if (next >= 0) {
+          int[] path = new int[moves.length + 1];
+          System.arraycopy(moves, 0, path, 0, moves.length);
+          path[moves.length] = move;
+          children.add(new Task(search, next, prefix + search.rules.gain(state, move), path));
+        }
+      }
+      Result best = null;
+      for (Task child : invokeAll(children)) {
+        Result result = child.join();
+        if (result != null && (best == null || result.value > best.value)) {
+          best = result;
+        }
+      }
+      return best;
+    }
+
+    private Result searchLeaf() {
+      Solver solver = search.solver();
+      int rest;
+      try {
+        rest = solver.best(state);
+      } catch (CancellationException e) {
+        return null;
+      }
+      if (rest == Solver.NONE) {
+        return null;
+      }
+      int value = prefix + rest;
+      search.bestValue.accumulateAndGet(value, Math::max);
+      return new Result(value, moves, solver);
+    }
+
+  }
+
+}
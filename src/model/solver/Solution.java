@@ -0,0 +1,99 @@
+package model.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import model.Tile;
+
+/**
+ * The result of {@link Solver#solve}, i.e. the tiles a player should set from his rack to the board
+ * and the melds the board consists of afterwards. Instances are immutable.
+ */
+public final class Solution {
+
+  /**
+   * The melds on the board after the move.
+   */
+  private final List<List<Tile>> melds;
+
+  /**
+   * The tiles set from the rack to the board.
+   */
+  private final List<Tile> placedTiles;
+
+  /**
+   * The sum of the values of the placed tiles, jokers count with the value they represent.
+   */
+  private final int value;
+
+  /**
+   * Indicates whether the search finished, i.e. no other move sets more value.
+   */
+  private final boolean isOptimal;
+
+  /**
+   * Initializes a new {@code Solution} with the specified values.
+   *
+   * @param melds the melds on the board after the move
+   * @param placedTiles the tiles set from the rack to the board
+   * @param value the sum of the values of the placed tiles
+   * @param isOptimal whether no other move sets more value
+   */
+  Solution(List<List<Tile>> melds, List<Tile> placedTiles, int value, boolean isOptimal) {
+    List<List<Tile>> copy = new ArrayList<>(melds.size());
+    for (List<Tile> meld : melds) {
+      copy.add(Collections.unmodifiableList(new ArrayList<>(meld)));
+    }
+    this.melds = Collections.unmodifiableList(copy);
+    this.placedTiles = Collections.unmodifiableList(new ArrayList<>(placedTiles));
+    this.value = value;
+    this.isOptimal = isOptimal;
+  }
+
+  /**
+   * Returns all melds on the board after the move, the tiles of each meld in the order they have
+   * to be placed from left to right. Every tile on the board before the move is part of exactly
+   * one meld.
+   */
+  public List<List<Tile>> getMelds() {
+    return melds;
+  }
+
+  /**
+   * Returns the tiles that are set from the rack to the board.
+   */
+  public List<Tile> getPlacedTiles() {
+    return placedTiles;
+  }
+
+  /**
+   * Returns the sum of the values of the tiles set from the rack to the board. Jokers count with
+   * the value they represent in their meld.
+   */
+  public int getValue() {
+    return value;
+  }
+
+  /**
+   * Returns {@code true} if at least one tile is set from the rack to the board. If there is no
+   * move the player has to pull a tile from the pool.
+   */
+  public boolean hasMove() {
+    return !placedTiles.isEmpty();
+  }
+
+  /**
+   * Returns {@code true} if no other move sets more value. A solution is not optimal if the search
+   * was cancelled before it finished.
+   */
+  public boolean isOptimal() {
+    return isOptimal;
+  }
+
+  @Override
+  public String toString() {
+    return "Value: " + value + ", placed: " + placedTiles + ", melds: " + melds;
+  }
+
+}
@@ -0,0 +1,884 @@
+package model.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.Color;
+import model.Rummikub;
+import model.RummikubGame;
+import model.RummikubPlayer;
+import model.Tile;
+
+/**
+ * An exact solver that computes the move setting the most value from a player's rack to the board.
+ * All melds on the board may be rearranged, every tile on the board has to be part of a meld after
+ * the move. As long as the player did not make his first move the board stays untouched and only
+ * new melds of his own tiles are formed, their values have to add up to at least 30.
+ *
+ * <p>The solver is a dynamic program over the values 1 to 13. Within a value the colors are
+ * processed one after another. The state consists of the lengths of at most two runs per color
+ * (0, 1, 2 or at least 3), the number of jokers used so far and the tiles of the current value
+ * left for groups. For each color the solver decides how many tiles of the current value to use
+ * and whether each run is continued by a tile or a joker, started or closed. The tiles not used by
+ * runs form up to two groups together with jokers. Results are memoized per state, and a state
+ * stops exploring further choices once it reached the upper bound given by the values of the
+ * remaining tiles on the rack.
+ */
+public final class Solver {
+
+  /**
+   * The number of different values of regular tiles.
+   */
+  static final int VALUES = 13;
+
+  /**
+   * The number of colors.
+   */
+  static final int COLORS = Color.values().length;
+
+  /**
+   * Marks a state without any valid arrangement of the tiles.
+   */
+  static final int NONE = -1;
+
+  /**
+   * The number of moves that are tried in each state, see {@link #next(int, int)}.
+   */
+  static final int MOVES = 27;
+
+  /**
+   * The search checks whether it was cancelled each time the number of visited states is a
+   * multiple of this mask plus one.
+   */
+  private static final int CANCELLATION_CHECK_INTERVAL = (1 << 12) - 1;
+
+  /**
+   * The run is not continued, i.e. it was not started or it is closed.
+   */
+  private static final int IDLE = 0;
+
+  /**
+   * The run is continued or started by a tile.
+   */
+  private static final int REAL = 1;
+
+  /**
+   * The run is continued or started by a joker.
+   */
+  private static final int JOKER = 2;
+
+  /**
+   * The length a run is capped at, as any run of at least this length may be closed.
+   */
+  private static final int CLOSABLE = 3;
+
+  /**
+   * The number of run states of one color, i.e. the unordered pairs of lengths from 0 to 3.
+   */
+  private static final int PAIRS = 10;
+
+  private static final int MINIMAL_MELD_SIZE = 3;
+
+  private static final int MAXIMAL_GROUP_SIZE = 4;
+
+  /**
+   * The shorter run of each pair.
+   */
+  private static final int[] SHORTER = new int[PAIRS];
+
+  /**
+   * The longer run of each pair.
+   */
+  private static final int[] LONGER = new int[PAIRS];
+
+  /**
+   * The pair of two run lengths.
+   */
+  private static final int[][] PAIR = new int[CLOSABLE + 1][CLOSABLE + 1];
+
+  /**
+   * The factor of the pair of each color in the combined run state.
+   */
+  private static final int[] POWERS = new int[COLORS + 1];
+
+  static {
+    int pair = 0;
+    for (int shorter = 0; shorter <= CLOSABLE; shorter++) {
+      for (int longer = shorter; longer <= CLOSABLE; longer++) {
+        SHORTER[pair] = shorter;
+        LONGER[pair] = longer;
+        PAIR[shorter][longer] = pair;
+        PAIR[longer][shorter] = pair;
+        pair++;
+      }
+    }
+    POWERS[0] = 1;
+    for (int i = 1; i <= COLORS; i++) {
+      POWERS[i] = POWERS[i - 1] * PAIRS;
+    }
+  }
+
+  /**
+   * The state before the first decision.
+   */
+  static final int ROOT = state(1, 0, 0, 0, 0, 0);
+
+  /**
+   * The tiles of the problem.
+   */
+  private final Tiles tiles;
+
+  /**
+   * For each step, i.e. value and color, the sum of the values of all tiles on the rack from this
+   * step on plus the highest value all jokers on the rack could represent.
+   */
+  private final int[] bounds;
+
+  /**
+   * The best results of all states visited so far.
+   */
+  private final Memo memo;
+
+  /**
+   * Set to {@code true} to cancel the search, {@code null} if the search cannot be cancelled.
+   */
+  private AtomicBoolean cancelled;
+
+  /**
+   * The number of states visited.
+   */
+  private int calls;
+
+  /**
+   * Initializes a new {@code Solver} for the specified tiles.
+   *
+   * @param tiles the tiles of the problem
+   * @param cancelled set to {@code true} to cancel the search, may be {@code null}
+   */
+  Solver(Tiles tiles, AtomicBoolean cancelled) {
+    this.tiles = tiles;
+    this.cancelled = cancelled;
+    this.bounds = new int[VALUES * (COLORS + 1) + 1];
+    int bound = tiles.rackJokers * VALUES;
+    for (int value = VALUES; value >= 1; value--) {
+      bounds[step(value, COLORS)] = bound;
+      for (int color = COLORS - 1; color >= 0; color--) {
+        bound += tiles.rackCounts[index(color, value)] * value;
+        bounds[step(value, color)] = bound;
+      }
+    }
+    this.memo = new Memo();
+  }
+
+  /**
+   * Returns the best move for the current player of the specified game.
+   *
+   * @param game a started game
+   * @return the best move
+   */
+  public static Solution solve(RummikubGame game) {
+    return solve(game, (RummikubPlayer) game.getCurrentPlayer());
+  }
+
+  /**
+   * Returns the best move for the specified player of the specified game. The tiles currently on
+   * the board are treated as fixed, i.e. tiles the player already set to the board during his
+   * round count as tiles of the board.
+   *
+   * @param game a started game
+   * @param player a player of the game
+   * @return the best move
+   */
+  public static Solution solve(Rummikub game, RummikubPlayer player) {
+    return solve(sequencesOf(game), player.getRack(), player.isFirstMoveDone());
+  }
+
+  /**
+   * Returns the best move for a player with the specified rack.
+   *
+   * @param board the sequences on the board
+   * @param rack the tiles on the player's rack
+   * @param isFirstMoveDone whether the player successfully made his first move
+   * @return the best move
+   */
+  public static Solution solve(List<? extends List<Tile>> board, List<Tile> rack,
+      boolean isFirstMoveDone) {
+    return solve(board, rack, isFirstMoveDone, null);
+  }
+
+  /**
+   * Returns the best move for a player with the specified rack. The search stops as soon as the
+   * specified flag is set.
+   *
+   * @param board the sequences on the board
+   * @param rack the tiles on the player's rack
+   * @param isFirstMoveDone whether the player successfully made his first move
+   * @param cancelled set to {@code true} to cancel the search, may be {@code null}
+   * @return the best move
+   * @throws CancellationException if the search was cancelled
+   */
+  public static Solution solve(List<? extends List<Tile>> board, List<Tile> rack,
+      boolean isFirstMoveDone, AtomicBoolean cancelled) {
+    Tiles tiles = new Tiles(board, rack, isFirstMoveDone);
+    Solver solver = new Solver(tiles, cancelled);
+    int value = solver.solve();
+    if (!isMove(value, isFirstMoveDone)) {
+      return noMove(tiles, true);
+    }
+    return solver.reconstruct(value, new int[0], true);
+  }
+
+  /**
+   * Returns {@code true} if setting tiles of the specified value is a valid move.
+   */
+  static boolean isMove(int value, boolean isFirstMoveDone) {
+    return value != NONE
+        && (isFirstMoveDone || value >= RummikubPlayer.MIN_SUM_VALUE_FOR_FIRST_MOVE);
+  }
+
+  /**
+   * Returns the solution that sets no tiles and leaves the board as it is.
+   */
+  static Solution noMove(Tiles tiles, boolean isOptimal) {
+    return new Solution(tiles.sequences(), new ArrayList<>(), 0, isOptimal);
+  }
+
+  /**
+   * Returns the solution that sets no tiles and leaves the specified board as it is, i.e. the
+   * player pulls a tile from the pool.
+   *
+   * @param board the sequences on the board
+   * @return the solution without a move
+   */
+  public static Solution noMove(List<? extends List<Tile>> board) {
+    return new Solution(new ArrayList<>(board), new ArrayList<>(), 0, true);
+  }
+
+  /**
+   * Returns the sequences of tiles on the board of the specified game, i.e. the horizontally
+   * adjacent tiles.
+   */
+  public static List<List<Tile>> sequencesOf(Rummikub game) {
+    List<List<Tile>> sequences = new ArrayList<>();
+    for (int y = 0; y < game.getBoardHeight(); y++) {
+      List<Tile> sequence = new ArrayList<>();
+      for (int x = 0; x < game.getBoardWidth(); x++) {
+        Tile tile = game.getTile(x, y);
+        if (tile != null) {
+          sequence.add(tile);
+        } else if (!sequence.isEmpty()) {
+          sequences.add(sequence);
+          sequence = new ArrayList<>();
+        }
+      }
+      if (!sequence.isEmpty()) {
+        sequences.add(sequence);
+      }
+    }
+    return sequences;
+  }
+
+  /**
+   * Returns the highest sum of values that can be set from the rack or {@link #NONE} if the tiles
+   * on the board cannot be arranged at all.
+   *
+   * @throws CancellationException if the search was cancelled
+   */
+  int solve() {
+    return best(ROOT);
+  }
+
+  /**
+   * Returns the index of the specified color and value in the tile counts.
+   */
+  static int index(int color, int value) {
+    return color * VALUES + value - 1;
+  }
+
+  /**
+   * Returns the index of the specified value and color in the sequence of decisions.
+   */
+  private static int step(int value, int color) {
+    return (value - 1) * (COLORS + 1) + color;
+  }
+
+  /**
+   * Returns the state with the specified values packed into an {@code int}.
+   *
+   * @param value the current value, {@code VALUES + 1} if all values are processed
+   * @param color the current color, {@link #COLORS} if the groups of the value are formed next
+   * @param runs the lengths of all runs
+   * @param used the number of jokers used
+   * @param singles the number of colors with one tile left for groups
+   * @param doubles the number of colors with two tiles left for groups
+   */
+  static int state(int value, int color, int runs, int used, int singles, int doubles) {
+    int state = (value * (COLORS + 1) + color) * POWERS[COLORS] + runs;
+    return ((state * 3 + used) * (COLORS + 1) + singles) * (COLORS + 1) + doubles;
+  }
+
+  static int valueOf(int state) {
+    return state / ((COLORS + 1) * (COLORS + 1) * 3 * POWERS[COLORS]) / (COLORS + 1);
+  }
+
+  static int colorOf(int state) {
+    return state / ((COLORS + 1) * (COLORS + 1) * 3 * POWERS[COLORS]) % (COLORS + 1);
+  }
+
+  private static int runsOf(int state) {
+    return state / ((COLORS + 1) * (COLORS + 1) * 3) % POWERS[COLORS];
+  }
+
+  private static int usedOf(int state) {
+    return state / ((COLORS + 1) * (COLORS + 1)) % 3;
+  }
+
+  private static int singlesOf(int state) {
+    return state / (COLORS + 1) % (COLORS + 1);
+  }
+
+  private static int doublesOf(int state) {
+    return state % (COLORS + 1);
+  }
+
+  /**
+   * Returns the highest sum of values that can be set from the rack from the specified state on or
+   * {@link #NONE} if there is no valid arrangement.
+   *
+   * @throws CancellationException if the search was cancelled
+   */
+  int best(int state) {
+    if ((++calls & CANCELLATION_CHECK_INTERVAL) == 0 && cancelled != null && cancelled.get()) {
+      throw new CancellationException();
+    }
+    if (valueOf(state) > VALUES) {
+      return isClosed(runsOf(state)) && usedOf(state) >= tiles.boardJokers ? 0 : NONE;
+    }
+    int result = memo.get(state);
+    if (result != Memo.ABSENT) {
+      return result;
+    }
+    int bound = upperBound(state);
+    result = NONE;
+    for (int move = 0; move < MOVES && result < bound; move++) {
+      int next = next(state, move);
+      if (next >= 0) {
+        int child = best(next);
+        if (child != NONE) {
+          result = Math.max(result, child + gain(state, move));
+        }
+      }
+    }
+    memo.put(state, result);
+    return result;
+  }
+
+  /**
+   * Returns an upper bound of the values that can be set from the rack from the specified state
+   * on, i.e. the values of all remaining tiles and the highest values the jokers could represent.
+   */
+  int upperBound(int state) {
+    return bounds[step(valueOf(state), colorOf(state))];
+  }
+
+  /**
+   * Returns the state after the specified move or -1 if the move is not allowed. If the groups of
+   * the current value are formed next the move is 2 minus the number of jokers added to the groups,
+   * otherwise it is 9 times 2 minus the number of tiles used of the current color and value plus
+   * the action of the shorter run times 3 plus the action of the longer run.
+   *
+   * @param state a state that is not final
+   * @param move a move from 0 to {@code MOVES - 1}
+   */
+  int next(int state, int move) {
+    int value = valueOf(state);
+    int color = colorOf(state);
+    int runs = runsOf(state);
+    int used = usedOf(state);
+    if (color == COLORS) {
+      int jokers = 2 - move;
+      if (jokers < 0 || used + jokers > tiles.jokers
+          || splitGroups(singlesOf(state), doublesOf(state), jokers) < 0) {
+        return -1;
+      }
+      return state(value + 1, 0, runs, used + jokers, 0, 0);
+    }
+    int count = 2 - move / 9;
+    int index = index(color, value);
+    int board = tiles.boardCounts[index];
+    if (count < board || count > board + tiles.rackCounts[index]) {
+      return -1;
+    }
+    int pair = runs / POWERS[color] % PAIRS;
+    int shorter = SHORTER[pair];
+    int longer = LONGER[pair];
+    int first = move % 9 / 3;
+    int second = move % 3;
+    if (!isAllowed(shorter, first) || !isAllowed(longer, second)
+        || shorter == longer && second < first) {
+      return -1;
+    }
+    int real = (first == REAL ? 1 : 0) + (second == REAL ? 1 : 0);
+    int jokers = (first == JOKER ? 1 : 0) + (second == JOKER ? 1 : 0);
+    if (real > count || used + jokers > tiles.jokers) {
+      return -1;
+    }
+    int left = count - real;
+    int nextRuns = runs + (PAIR[lengthAfter(shorter, first)][lengthAfter(longer, second)] - pair)
+        * POWERS[color];
+    return state(value, color + 1, nextRuns, used + jokers,
+        singlesOf(state) + (left == 1 ? 1 : 0), doublesOf(state) + (left == 2 ? 1 : 0));
+  }
+
+  /**
+   * Returns the value set from the rack by the specified allowed move.
+   */
+  int gain(int state, int move) {
+    int value = valueOf(state);
+    int color = colorOf(state);
+    int used = usedOf(state);
+    if (color == COLORS) {
+      return scoreOfJokers(used, 2 - move, value);
+    }
+    int board = tiles.boardCounts[index(color, value)];
+    int jokers = (move % 9 / 3 == JOKER ? 1 : 0) + (move % 3 == JOKER ? 1 : 0);
+    return (2 - move / 9 - board) * value + scoreOfJokers(used, jokers, value);
+  }
+
+  /**
+   * Returns the value the specified number of jokers add to the sum if they are used for the
+   * specified value. The jokers of the board are used first, so the jokers of the rack represent
+   * the highest values possible.
+   */
+  private int scoreOfJokers(int used, int jokers, int value) {
+    int before = Math.max(0, used - tiles.boardJokers);
+    int after = Math.max(0, used + jokers - tiles.boardJokers);
+    return (after - before) * value;
+  }
+
+  /**
+   * Returns {@code true} if the specified action is allowed for a run of the specified length.
+   * Runs of length 1 or 2 have to be continued.
+   */
+  private static boolean isAllowed(int length, int action) {
+    return action != IDLE || length == 0 || length == CLOSABLE;
+  }
+
+  /**
+   * Returns the length of a run after the specified action.
+   */
+  private static int lengthAfter(int length, int action) {
+    return action == IDLE ? 0 : Math.min(length + 1, CLOSABLE);
+  }
+
+  /**
+   * Returns {@code true} if all runs are either not started or may be closed.
+   */
+  private static boolean isClosed(int runs) {
+    for (int color = 0; color < COLORS; color++) {
+      int pair = runs / POWERS[color] % PAIRS;
+      if (SHORTER[pair] % CLOSABLE != 0 || LONGER[pair] % CLOSABLE != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns how the tiles left for groups of one value and the specified number of jokers can be
+   * split into valid groups, or -1 if they cannot. The result is the number of groups times 100
+   * plus the number of single tiles in the first group times 10 plus the number of jokers in the
+   * first group. Colors with two tiles left contribute one tile to each group.
+   *
+   * @param singles the number of colors with one tile left
+   * @param doubles the number of colors with two tiles left
+   * @param jokers the number of jokers
+   */
+  static int splitGroups(int singles, int doubles, int jokers) {
+    if (singles + doubles == 0) {
+      return jokers == 0 ? 0 : -1;
+    }
+    if (doubles == 0 && isGroupSize(singles + jokers)) {
+      return 100 + singles * 10 + jokers;
+    }
+    for (int inFirst = 0; inFirst <= singles; inFirst++) {
+      for (int firstJokers = 0; firstJokers <= jokers; firstJokers++) {
+        int first = doubles + inFirst;
+        int second = doubles + singles - inFirst;
+        if (first > 0 && second > 0 && isGroupSize(first + firstJokers)
+            && isGroupSize(second + jokers - firstJokers)) {
+          return 200 + inFirst * 10 + firstJokers;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns {@code true} if a group may consist of the specified number of tiles.
+   */
+  private static boolean isGroupSize(int size) {
+    return size >= MINIMAL_MELD_SIZE && size <= MAXIMAL_GROUP_SIZE;
+  }
+
+  /**
+   * Returns the move with the specified value by repeating the decisions of the best states. The
+   * search cannot be cancelled anymore.
+   *
+   * @param value the result of {@link #solve()} or the value reached by the specified moves
+   * @param moves the first moves from the root, the remaining moves are searched
+   * @param isOptimal whether the value is the optimum
+   */
+  Solution reconstruct(int value, int[] moves, boolean isOptimal) {
+    cancelled = null;
+    Arrangement arrangement = new Arrangement(tiles);
+    int state = ROOT;
+    for (int step = 0; valueOf(state) <= VALUES; step++) {
+      int move = step < moves.length ? moves[step] : bestMove(state);
+      arrangement.apply(state, move);
+      state = next(state, move);
+    }
+    return arrangement.toSolution(value, isOptimal);
+  }
+
+  /**
+   * Returns the first move of the specified state that leads to its best result.
+   */
+  private int bestMove(int state) {
+    int target = best(state);
+    for (int move = 0; ; move++) {
+      int next = next(state, move);
+      if (next >= 0) {
+        int child = best(next);
+        if (child != NONE && child + gain(state, move) == target) {
+          return move;
+        }
+      }
+    }
+  }
+
+  /**
+   * The tiles on the board and on the rack, counted by color and value.
+   */
+  static final class Tiles {
+
+    /**
+     * The sequences on the board.
+     */
+    private final List<List<Tile>> sequences;
+
+    /**
+     * The melds on the board that are not rearranged, i.e. all melds if the player did not make
+     * his first move yet.
+     */
+    private final List<List<Tile>> fixed;
+
+    /**
+     * The tiles on the board that have to be arranged, indexed like the counts.
+     */
+    final List<List<Tile>> boardTiles;
+
+    /**
+     * The tiles on the rack, indexed like the counts.
+     */
+    final List<List<Tile>> rackTiles;
+
+    /**
+     * The jokers, the jokers of the board first.
+     */
+    final List<Tile> jokerTiles;
+
+    final int[] boardCounts;
+
+    final int[] rackCounts;
+
+    final int boardJokers;
+
+    final int rackJokers;
+
+    final int jokers;
+
+    /**
+     * Initializes new {@code Tiles} with the specified values.
+     */
+    Tiles(List<? extends List<Tile>> board, List<Tile> rack, boolean isFirstMoveDone) {
+      this.sequences = new ArrayList<>(board);
+      this.fixed = new ArrayList<>();
+      this.boardTiles = new ArrayList<>();
+      this.rackTiles = new ArrayList<>();
+      for (int i = 0; i < COLORS * VALUES; i++) {
+        boardTiles.add(new ArrayList<>());
+        rackTiles.add(new ArrayList<>());
+      }
+      this.jokerTiles = new ArrayList<>();
+      this.boardCounts = new int[COLORS * VALUES];
+      this.rackCounts = new int[COLORS * VALUES];
+      int jokersOnBoard = 0;
+      for (List<Tile> sequence : board) {
+        if (!isFirstMoveDone) {
+          fixed.add(sequence);
+          continue;
+        }
+        for (Tile tile : sequence) {
+          if (tile.isJoker()) {
+            jokerTiles.add(tile);
+            jokersOnBoard++;
+          } else {
+            boardTiles.get(index(tile)).add(tile);
+            boardCounts[index(tile)]++;
+          }
+        }
+      }
+      int jokersOnRack = 0;
+      for (Tile tile : rack) {
+        if (tile.isJoker()) {
+          jokerTiles.add(tile);
+          jokersOnRack++;
+        } else {
+          rackTiles.get(index(tile)).add(tile);
+          rackCounts[index(tile)]++;
+        }
+      }
+      this.boardJokers = jokersOnBoard;
+      this.rackJokers = jokersOnRack;
+      this.jokers = jokersOnBoard + jokersOnRack;
+    }
+
+    /**
+     * Returns the index of the specified regular tile in the counts.
+     */
+    private static int index(Tile tile) {
+      return Solver.index(tile.getColor().ordinal(), tile.getValue());
+    }
+
+    /**
+     * Returns a copy of the sequences on the board.
+     */
+    List<List<Tile>> sequences() {
+      return new ArrayList<>(sequences);
+    }
+
+    /**
+     * Returns a copy of the melds on the board that are not rearranged.
+     */
+    List<List<Tile>> fixedMelds() {
+      return new ArrayList<>(fixed);
+    }
+
+  }
+
+  /**
+   * The melds built while the decisions of the solver are repeated.
+   */
+  private static final class Arrangement {
+
+    private final Tiles tiles;
+
+    /**
+     * The two runs of each color.
+     */
+    private final List<List<List<Tile>>> runs;
+
+    /**
+     * The tiles of the current value left for groups, indexed by color.
+     */
+    private final List<List<Tile>> left;
+
+    private final List<List<Tile>> melds;
+
+    private final List<Tile> placed;
+
+    /**
+     * The number of jokers used so far.
+     */
+    private int used;
+
+    Arrangement(Tiles tiles) {
+      this.tiles = tiles;
+      this.runs = new ArrayList<>();
+      this.left = new ArrayList<>();
+      for (int color = 0; color < COLORS; color++) {
+        List<List<Tile>> pair = new ArrayList<>();
+        pair.add(new ArrayList<>());
+        pair.add(new ArrayList<>());
+        runs.add(pair);
+        left.add(new ArrayList<>());
+      }
+      this.melds = tiles.fixedMelds();
+      this.placed = new ArrayList<>();
+    }
+
+    /**
+     * Applies the specified move of the specified state, see {@link Solver#next(int, int)}.
+     */
+    void apply(int state, int move) {
+      if (colorOf(state) == COLORS) {
+        int jokers = 2 - move;
+        formGroups(splitGroups(singlesOf(state), doublesOf(state), jokers), jokers);
+      } else {
+        continueRuns(colorOf(state), valueOf(state), 2 - move / 9, move % 9 / 3, move % 3);
+      }
+    }
+
+    /**
+     * Uses the specified number of tiles of the specified color and value for the runs of the
+     * color as specified by the actions, the remaining tiles are left for groups.
+     */
+    private void continueRuns(int color, int value, int count, int first, int second) {
+      List<List<Tile>> pair = runs.get(color);
+      if (Math.min(pair.get(0).size(), CLOSABLE) > Math.min(pair.get(1).size(), CLOSABLE)) {
+        pair.add(pair.remove(0));
+      }
+      int index = Solver.index(color, value);
+      List<Tile> available = new ArrayList<>(tiles.boardTiles.get(index));
+      List<Tile> fromRack = tiles.rackTiles.get(index);
+      for (int i = 0; available.size() < count; i++) {
+        available.add(fromRack.get(i));
+        placed.add(fromRack.get(i));
+      }
+      continueRun(pair, 0, first, available);
+      continueRun(pair, 1, second, available);
+      left.set(color, available);
+    }
+
+    private void continueRun(List<List<Tile>> pair, int slot, int action, List<Tile> available) {
+      List<Tile> run = pair.get(slot);
+      if (action == IDLE) {
+        if (!run.isEmpty()) {
+          melds.add(run);
+          pair.set(slot, new ArrayList<>());
+        }
+      } else if (action == REAL) {
+        run.add(available.remove(available.size() - 1));
+      } else {
+        run.add(nextJoker());
+      }
+    }
+
+    /**
+     * Forms the groups of the current value as returned by {@link Solver#splitGroups}.
+     */
+    private void formGroups(int split, int jokers) {
+      List<Tile> first = new ArrayList<>();
+      List<Tile> second = new ArrayList<>();
+      int singlesInFirst = split / 10 % 10;
+      int jokersInFirst = split % 10;
+      for (List<Tile> colorTiles : left) {
+        if (colorTiles.size() == 2) {
+          first.add(colorTiles.get(0));
+          second.add(colorTiles.get(1));
+        } else if (colorTiles.size() == 1) {
+          (singlesInFirst-- > 0 ? first : second).add(colorTiles.get(0));
+        }
+        colorTiles.clear();
+      }
+      for (int i = 0; i < jokers; i++) {
+        (i < jokersInFirst ? first : second).add(nextJoker());
+      }
+      for (List<Tile> group : Arrays.asList(first, second)) {
+        if (!group.isEmpty()) {
+          melds.add(group);
+        }
+      }
+    }
+
+    private Tile nextJoker() {
+      Tile joker = tiles.jokerTiles.get(used++);
+      if (used > tiles.boardJokers) {
+        placed.add(joker);
+      }
+      return joker;
+    }
+
+    /**
+     * Closes all runs and returns the solution.
+     */
+    Solution toSolution(int value, boolean isOptimal) {
+      for (List<List<Tile>> pair : runs) {
+        for (List<Tile> run : pair) {
+          if (!run.isEmpty()) {
+            melds.add(run);
+          }
+        }
+      }
+      return new Solution(melds, placed, value, isOptimal);
+    }
+
+  }
+
+  /**
+   * A hash map from states to results with open addressing.
+   */
+  private static final class Memo {
+
+    /**
+     * Returned by {@link #get(int)} if a state is not in the memo.
+     */
+    static final int ABSENT = -2;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * The keys plus one, so zero marks an empty slot.
+     */
+    private int[] keys;
+
+    private int[] results;
+
+    private int size;
+
+    Memo() {
+      this.keys = new int[INITIAL_CAPACITY];
+      this.results = new int[INITIAL_CAPACITY];
+    }
+
+    int get(int key) {
+      int mask = keys.length - 1;
+      for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+        if (keys[slot] == key + 1) {
+          return results[slot];
+        }
+      }
+      return ABSENT;
+    }
+
+    void put(int key, int result) {
+      if (2 * (size + 1) > keys.length) {
+        grow();
+      }
+      int mask = keys.length - 1;
+      int slot = mix(key) & mask;
+      while (keys[slot] != 0 && keys[slot] != key + 1) {
+        slot = (slot + 1) & mask;
+      }
+      if (keys[slot] == 0) {
+        size++;
+      }
+      keys[slot] = key + 1;
+      results[slot] = result;
+    }
+
+    private void grow() {
+      int[] oldKeys = keys;
+      int[] oldResults = results;
+      keys = new int[oldKeys.length * 2];
+      results = new int[oldResults.length * 2];
+      size = 0;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != 0) {
+          put(oldKeys[i] - 1, oldResults[i]);
+        }
+      }
+    }
+
+    private static int mix(int key) {
+      int h = key * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+
+  }
+
+}
@@ -1,35 +1,59 @@
 package networking;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
-import java.net.SocketException;
 import java.net.UnknownHostException;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
+import model.GameCodec;
 import model.Player;
 import model.Rummikub;
 import model.RummikubGame;
+import model.TurnDelta;
 import networking.Message.Command;
 
 /**
  * This class is the interface used by the Application for the client-server communication. A client
  * object creates a thread for the server listening for messages from clients. And a thread for a
- * client listener waiting for messages from the server. The public attribute messageCounter will be
- * incremented every time a message will be received from the server. It may be used to observe the
- * arrival of a message in the client listener.
+ * client listener handling the messages from the server. The client keeps one connection to the
+ * server that carries its requests as well as the messages from the server, so the server never
+ * connects to the client.
  */
 public class Client {
 
+  /**
+   * A state of the game sent by the server. Neither the state nor its game are ever changed, so it
+   * is read on any thread without a lock.
+   */
+  private static final class ServerState {
+
+    private final RummikubGame game;
+
+    /**
+     * The sequence number of the state.
+     */
+    private final int sequence;
+
+    ServerState(RummikubGame game, int sequence) {
+      this.game = game;
+      this.sequence = sequence;
+    }
+
+  }
+
   /**
    * Hard coded port where the server is listening for incoming messages.
    */
-  private static final int SERVERPORT = 48410;
+  static final int SERVERPORT = 48410;
+
+  /**
+   * The id of the game hosted by a client on his local machine.
+   */
+  static final int DEFAULT_GAME_ID = 0;
 
   /**
    * The time the main thread has to wait after a client is created.
@@ -41,6 +65,12 @@ public class Client {
    */
   private static final String LOCALHOST_IP_ADDRESS = "127.0.0.1";
 
+  /**
+   * The system property selecting the {@link Server.Mode} of a hosted server, the selector mode by
+   * default.
+   */
+  private static final String SERVER_MODE_PROPERTY = "rummikub.server.mode";
+
   /**
    * Lazy instantiated singleton instance.
    */
@@ -52,9 +82,9 @@ public class Client {
   private boolean isHost;
 
   /**
-   * The client's socket.
+   * The connection to the server.
    */
-  private Socket clientSocket;
+  private Connection connection;
 
   /**
    * The current game.
@@ -62,6 +92,14 @@ public class Client {
 
   private ObjectProperty<Rummikub> currentGame;
 
+  /**
+   * The state of the game last sent by the server, {@code null} until the first state is received.
+   * The current game is a copy of it that the player changes during his turn. It is written by the
+   * client listener and by {@link #getBackup()}, holding the lock of this client, and read without
+   * a lock.
+   */
+  private volatile ServerState serverState;
+
   /**
    * The player connected via this client.
    */
@@ -72,6 +110,16 @@ public class Client {
    */
   private final String ipAddress;
 
+  /**
+   * The port of the server this client is connected to.
+   */
+  private final int port;
+
+  /**
+   * The id of the game on the server.
+   */
+  private final int gameId;
+
   /**
    * Server object created by the host.
    */
@@ -92,23 +140,22 @@ public class Client {
    */
   private Thread clientListenerThread;
 
-  /**
-   * OutputStream used for sending messages to the server.
-   */
-  private ObjectOutputStream output;
-
   /**
    * Constructor for {@code Client} instance.
    * 
    * @param game non-{@code null} indicates this client is the host
    * @param player is the player associated with the client
    * @param ipAddress is the address of the host
+   * @param port the port of the server
+   * @param gameId the id of the game on the server
    */
-  private Client(Rummikub game, Player player, String ipAddress) {
+  private Client(Rummikub game, Player player, String ipAddress, int port, int gameId) {
     this.server = null;
     currentGame = new SimpleObjectProperty<>(game);
     this.player = player;
     this.ipAddress = ipAddress;
+    this.port = port;
+    this.gameId = gameId;
   }
 
   /**
@@ -116,19 +163,34 @@ public class Client {
    * 
    * @param player is the player associated with the client.
    * @param ipAddress The host IP-Address.
-   * @param clientIp The IP-Address of the client.
    * @return the newly created {@code Client} instance.
    * @throws IllegalStateException if the game is full or is started already.
-   * @throws UnknownHostException If there is an error at clientListener creation.
+   * @throws UnknownHostException If the host IP-Address is not valid.
    * @throws IOException If there is a connection error.
    */
-  public static Client createSingletonClient(Player player, String ipAddress, String clientIp)
+  public static Client createSingletonClient(Player player, String ipAddress)
       throws UnknownHostException, IOException {
-    singletonClient = new Client(null, player, ipAddress);
+    return createSingletonClient(player, ipAddress, SERVERPORT, DEFAULT_GAME_ID);
+  }
+
+  /**
+   * Creates or modifies the {@code Client} singleton instance joining a game on a server that
+   * hosts several games, see {@link GameHost}.
+   *
+   * @param player is the player associated with the client.
+   * @param ipAddress The host IP-Address.
+   * @param port the port of the server.
+   * @param gameId the id of the game on the server.
+   * @return the newly created {@code Client} instance.
+   * @throws IllegalStateException if the game does not exist, is full or is started already.
+   * @throws UnknownHostException If the host IP-Address is not valid.
+   * @throws IOException If there is a connection error.
+   */
+  public static Client createSingletonClient(Player player, String ipAddress, int port,
+      int gameId) throws UnknownHostException, IOException {
+    singletonClient = new Client(null, player, ipAddress, port, gameId);
     singletonClient.isHost = false;
-    if (!singletonClient.createClientListener(clientIp)) {
-      throw new UnknownHostException("Could not create clientListener.");
-    }
+    singletonClient.connect();
     singletonClient.joinGame();
     return singletonClient;
   }
@@ -141,17 +203,38 @@ public class Client {
    * @param player is the player associated with the client.
    * @return the newly created {@code Client} instance.
    * @throws IllegalStateException if the game is full or is started already.
-   * @throws UnknownHostException if there is an error at clientListener creation.
+   * @throws UnknownHostException if the local host is not known.
    * @throws IOException if there is a connection error.
    */
   public static Client createSingletonHost(Rummikub game, Player player)
       throws UnknownHostException, IOException {
-    singletonClient = new Client(game, player, LOCALHOST_IP_ADDRESS);
+    singletonClient = new Client(game, player, LOCALHOST_IP_ADDRESS, SERVERPORT, DEFAULT_GAME_ID);
     singletonClient.isHost = true;
     singletonClient.createServer();
-    if (!singletonClient.createClientListener(InetAddress.getLocalHost().getHostAddress())) {
-      throw new UnknownHostException("Could not create clientListener.");
-    }
+    singletonClient.connect();
+    singletonClient.joinGame();
+    return singletonClient;
+  }
+
+  /**
+   * Creates or modifies the {@code Client} singleton instance which hosts the game on a server
+   * that hosts several games, see {@link GameHost}. The other players join the game by its id.
+   *
+   * @param game the game which is needed to create the host.
+   * @param player is the player associated with the client.
+   * @param ipAddress the IP-Address of the server.
+   * @param port the port of the server.
+   * @param gameId the id of the game on the server.
+   * @return the newly created {@code Client} instance.
+   * @throws IllegalStateException if the server hosts a game with the id already.
+   * @throws UnknownHostException If the IP-Address is not valid.
+   * @throws IOException if there is a connection error.
+   */
+  public static Client createSingletonHost(Rummikub game, Player player, String ipAddress,
+      int port, int gameId) throws UnknownHostException, IOException {
+    singletonClient = new Client(game, player, ipAddress, port, gameId);
+    singletonClient.isHost = true;
+    singletonClient.connect();
     singletonClient.joinGame();
     return singletonClient;
   }
@@ -170,7 +253,8 @@ public class Client {
    */
   private void createServer() throws IOException {
     try {
-      this.server = new Server(SERVERPORT);
+      this.server = new Server(SERVERPORT, Server.Mode.valueOf(
+          System.getProperty(SERVER_MODE_PROPERTY, Server.Mode.SELECTOR.name())));
       this.serverThread = new Thread(this.server);
       this.serverThread.setDaemon(true);
       this.serverThread.start();
@@ -180,29 +264,6 @@ public class Client {
     }
   }
 
-  /**
-   * Create a {@code clientListener} instance.
-   * 
-   * @param clientIp
-   * 
-   * @return true if successful, false if not.
-   */
-  private boolean createClientListener(String clientIp) {
-    try {
-      this.clientListener = new ClientListener(this, clientIp);
-      this.clientListenerThread = new Thread(this.clientListener);
-      this.clientListenerThread.setDaemon(true);
-      this.clientListenerThread.start();
-      Thread.sleep(WAITING_TIME_IN_MS);
-    } catch (InterruptedException e) {
-      // do nothing
-    } catch (SocketException e) {
-      return false;
-    } catch (IOException e) {
-      return false;
-    }
-    return true;
-  }
 
   /**
    * For leaving the game. The player will be removed from the game by the server calling
@@ -218,17 +279,29 @@ public class Client {
       send(message);
     } catch (IOException e) {
       return false;
+    } finally {
+      disconnect();
     }
     return true;
   }
 
   /**
-   * Has to be called to send a changed game to all clients.
+   * Has to be called to send a changed game to all clients. Once the game has been started only
+   * the changes of the turn are sent, and the server sends them to all clients.
    * 
    * @return false if currentGame is invalid and could not be updated
    */
   public boolean updateGame() {
-    Message message = new Message(player, getCurrentGame(), Command.UPDATEGAME);
+    RummikubGame game = (RummikubGame) getCurrentGame();
+    ServerState state = serverState;
+    Message message;
+    if (state != null && state.game.hasStarted()) {
+      RummikubGame base = state.game;
+      TurnDelta turn = TurnDelta.of(game, game.getPoolSize() < base.getPoolSize());
+      message = new Message(player, turn, Command.MOVE, state.sequence, base.getHash());
+    } else {
+      message = new Message(player, game, Command.UPDATEGAME);
+    }
     Boolean ret;
     try {
       ret = (Boolean) send(message);
@@ -263,7 +336,13 @@ public class Client {
   public Rummikub getBackup() {
     Message message = new Message(player, null, Command.BACKUP);
     try {
-      setCurrentGame((RummikubGame) send(message));
+      Object reply = send(message);
+      if (!(reply instanceof Message)) {
+        // the game is closed
+        return null;
+      }
+      Message backup = (Message) reply;
+      setServerGame(backup.getGame(), backup.getSequence());
     } catch (IOException e) {
       return null;
     }
@@ -281,6 +360,21 @@ public class Client {
     startGame();
   }
 
+  /**
+   * Has to be called by the host to fill all empty seats of the game with computer players before
+   * the game is started. The modified game will be sent to all clients.
+   *
+   * @return true if at least one computer player was added, false otherwise.
+   */
+  public boolean fillSeats() {
+    Message message = new Message(player, null, Command.FILLSEATS);
+    try {
+      return (Boolean) send(message);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
   /**
    * Terminates the whole Application, server sends a message to all clients will be stopped
    * afterwards.
@@ -298,7 +392,8 @@ public class Client {
   }
 
   /**
-   * Establishes connection to the server.
+   * Establishes the connection to the server and starts the clientListener handling the messages
+   * from the server.
    * 
    * @throws IOException if the connection could not be established
    * @throws UnknownHostException if the given host address was not valid
@@ -306,47 +401,41 @@ public class Client {
   private void connect() throws IOException, UnknownHostException {
     InetAddress adr = InetAddress.getByName(ipAddress);
     // for testing purposes
-    log(" connecting to server IP " + adr.toString() + ", using port " + SERVERPORT + "...");
-    this.clientSocket = new Socket(adr, SERVERPORT);
+    log(" connecting to server IP " + adr.toString() + ", using port " + port + "...");
+    Socket socket = new Socket(adr, port);
     // for testing purposes
     log("...done");
-    this.output = new ObjectOutputStream(clientSocket.getOutputStream());
+    this.clientListener = new ClientListener(this);
+    this.clientListenerThread = new Thread(this.clientListener);
+    this.clientListenerThread.setDaemon(true);
+    this.clientListenerThread.start();
+    try {
+      this.connection = new Connection(socket, clientListener);
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+    connection.start("connection to " + adr);
   }
 
   /**
-   * Disconnecting from server.
-   * 
-   * @return true if successful, false otherwise.
+   * Disconnecting from server after leaving the game.
    */
-  private boolean disconnect() {
-    try {
-      clientSocket.close();
-    } catch (IOException e) {
-      return false;
-    }
-    return true;
+  private void disconnect() {
+    clientListener.leave();
+    connection.close();
   }
 
   /**
-   * Sends a Message object to the server.
+   * Sends a Message object to the server and waits for the response.
    * 
    * @param message for sending to the server.
    * @return response from server, type depends on request
-   * @throws UnknownHostException if there is an error in connect().
    * @throws IOException if there is a connection error.
    */
-  private Object send(Message message) throws UnknownHostException, IOException {
-    Object ret = null;
-    try {
-      connect();
-      output.writeObject(message);
-      ObjectInputStream input = new ObjectInputStream(clientSocket.getInputStream());
-      ret = input.readObject();
-      disconnect();
-    } catch (ClassNotFoundException e) {
-      return null;
-    }
-    return ret;
+  private Object send(Message message) throws IOException {
+    message.setGameId(gameId);
+    return connection.request(message);
   }
 
   /**
@@ -360,13 +449,11 @@ public class Client {
    */
   private void joinGame() throws UnknownHostException, IOException {
 
-    Message message = new Message(player, getCurrentGame(), Command.JOINGAME,
-        clientListener.getClientIp(), clientListener.getPort());
-    log("IP Adresse in Message von Client nach Server: " + clientListener.getClientIp()
-        + ", ClientlistenerPort: " + clientListener.getPort());
+    Message message = new Message(player, getCurrentGame(), Command.JOINGAME, true);
     Boolean ret = (Boolean) send(message);
     if (!ret) {
-      throw new IllegalStateException("Game already started or is full.");
+      disconnect();
+      throw new IllegalStateException("Game already started, is full or does not exist.");
     }
   }
 
@@ -389,6 +476,58 @@ public class Client {
     updatePlayer();
   }
 
+  /**
+   * Sets the state of the game sent by the server and a copy of it as the currentGame, unless a
+   * newer state was set already, e.g. while a backup was requested.
+   *
+   * @param game the game sent by the server
+   * @param sequence the sequence number of the game
+   */
+  synchronized void setServerGame(Rummikub game, int sequence) {
+    if (serverState != null && sequence < serverState.sequence) {
+      return;
+    }
+    RummikubGame serverGame = (RummikubGame) game;
+    serverState = new ServerState(serverGame, sequence);
+    setCurrentGame(copyOf(serverGame));
+  }
+
+  /**
+   * Applies the changes of a turn sent by the server to the server game. If a previous change was
+   * missed or the result differs from the state of the server, the whole game is requested.
+   *
+   * @param turn the changes of the turn
+   * @param sequence the sequence number of the state after the turn
+   * @param hash the hash of the state after the turn
+   */
+  synchronized void applyDelta(TurnDelta turn, int sequence, long hash) {
+    ServerState state = serverState;
+    if (state != null && sequence == state.sequence + 1) {
+      RummikubGame game = copyOf(state.game);
+      // the server validated the turn, a round without changes is applied even if invalid
+      turn.applyTo(game);
+      if (game.isWon()) {
+        game.setWinner(game.getCurrentPlayer());
+      } else {
+        game.endCurrentRound();
+      }
+      if (game.getHash() == hash) {
+        setServerGame(game, sequence);
+        return;
+      }
+    }
+    // for testing purposes
+    log(" delta " + sequence + " does not match, requesting the game");
+    getBackup();
+  }
+
+  /**
+   * Returns a copy of the specified game whose players equal the players of the game.
+   */
+  private static RummikubGame copyOf(RummikubGame game) {
+    return GameCodec.decode(GameCodec.encode(game));
+  }
+
   /**
    * Returns Property currentGame. This allows to add listener in order to be notified if new game
    * is set.
@@ -0,0 +1,269 @@
+package networking;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The server side of the {@link Connection} of a client. The frames are read and written by the
+ * selector thread of the server without blocking: each channel buffers the frame it is reading and
+ * the frames waiting to be written. The requests are decoded and handled by the workers of the
+ * server, one request of a channel after the other, so the replies are sent in the order of the
+ * requests.
+ *
+ * <p>The frames waiting to be written are bounded. A client that lets more than
+ * {@link #MAXIMUM_QUEUED_BYTES} pile up, or that does not read for
+ * {@link #SLOW_CONSUMER_TIMEOUT_IN_MS} while frames are waiting, is disconnected. Thus a stalled
+ * client neither holds the memory of the server nor delays the other clients.
+ */
+final class ClientChannel implements ClientConnection {
+
+  /**
+   * The maximal number of bytes waiting to be written to a client (1 MiB), i.e. a few thousand
+   * games.
+   */
+  static final int MAXIMUM_QUEUED_BYTES = 1 << 20;
+
+  /**
+   * The time a client may not read while frames are waiting for it (in ms).
+   */
+  static final long SLOW_CONSUMER_TIMEOUT_IN_MS = 30000;
+
+  /**
+   * A request that was read but not handled yet.
+   */
+  private static final class Request {
+
+    private final int id;
+
+    private final byte[] body;
+
+    Request(int id, byte[] body) {
+      this.id = id;
+      this.body = body;
+    }
+
+  }
+
+  private final SelectionKey key;
+
+  private final SocketChannel channel;
+
+  private final Server server;
+
+  private final Executor workers;
+
+  /**
+   * The header of the frame being read.
+   */
+  private final ByteBuffer header = ByteBuffer.allocate(Connection.HEADER_LENGTH);
+
+  /**
+   * The body of the frame being read, {@code null} while the header is read.
+   */
+  private ByteBuffer body;
+
+  private byte kind;
+
+  private int id;
+
+  private final Queue<Request> requests = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Indicates whether a worker handles the requests of this channel.
+   */
+  private final AtomicBoolean isHandling = new AtomicBoolean();
+
+  /**
+   * The frames waiting to be written.
+   */
+  private final Queue<ByteBuffer> frames = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The number of bytes of the frames waiting to be written.
+   */
+  private final AtomicInteger queuedBytes = new AtomicInteger();
+
+  /**
+   * The time the client last read a frame or the first frame was added since then (in ms).
+   */
+  private volatile long lastProgress;
+
+  private final AtomicBoolean isClosed = new AtomicBoolean();
+
+  /**
+   * Initializes a new {@code ClientChannel} for the specified key of a registered socket channel.
+   *
+   * @param key the key of the channel
+   * @param server the server handling the requests
+   * @param workers the executor the requests are handled on
+   */
+  ClientChannel(SelectionKey key, Server server, Executor workers) {
+    this.key = key;
+    this.channel = (SocketChannel) key.channel();
+    this.server = server;
+    this.workers = workers;
+  }
+
+  /**
+   * Reads the available bytes and hands the complete requests to the workers. Has to be called by
+   * the selector thread if the channel is readable.
+   *
+   * @throws IOException if the channel reached its end, is broken or a frame is invalid
+   */
+  void read() throws IOException {
+    while (true) {
+      ByteBuffer buffer = body == null ? header : body;
+      if (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          throw new EOFException();
+        }
+        if (buffer.hasRemaining()) {
+          return;
+        }
+      }
+      if (body == null) {
+        header.flip();
+        kind = header.get();
+        id = header.getInt();
+        int length = header.getInt();
+        header.clear();
+        if (kind != Connection.REQUEST) {
+          // the clients only send requests
+          throw new StreamCorruptedException("Invalid kind of frame " + kind + ".");
+        }
+        if (length < 0 || length > Connection.MAXIMUM_BODY_LENGTH) {
+          throw new StreamCorruptedException("Invalid length " + length + ".");
+        }
+        body = ByteBuffer.allocate(length);
+      } else {
+        requests.add(new Request(id, body.array()));
+        body = null;
+        handleRequests();
+      }
+    }
+  }
+
+  /**
+   * Writes the waiting frames as far as the channel accepts them. Has to be called by the selector
+   * thread if the channel is writable.
+   *
+   * @throws IOException if the channel is broken
+   */
+  void write() throws IOException {
+    ByteBuffer frame = frames.peek();
+    while (frame != null) {
+      if (channel.write(frame) > 0) {
+        lastProgress = System.currentTimeMillis();
+      }
+      if (frame.hasRemaining()) {
+        return;
+      }
+      frames.poll();
+      queuedBytes.addAndGet(-frame.capacity());
+      frame = frames.peek();
+    }
+    key.interestOps(SelectionKey.OP_READ);
+  }
+
+  /**
+   * Lets the selector wait until the channel is writable. Has to be called by the selector thread
+   * after frames were added.
+   */
+  void enableWrite() {
+    try {
+      key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    } catch (CancelledKeyException e) {
+      // closed in the meantime
+    }
+  }
+
+  /**
+   * Sends a frame to the client without waiting for it to be written. The frame is never changed,
+   * each client reads it through its own buffer.
+   */
+  @Override
+  public void push(byte[] frame) {
+    send(frame);
+  }
+
+  /**
+   * Closes the channel, the server is notified on a worker.
+   */
+  @Override
+  public void close() {
+    if (!isClosed.compareAndSet(false, true)) {
+      return;
+    }
+    key.cancel();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // do nothing
+    }
+    workers.execute(() -> server.closed(this));
+  }
+
+  /**
+   * Adds a frame to the frames waiting to be written, or disconnects the client if it is a slow
+   * consumer.
+   */
+  private void send(byte[] frame) {
+    if (isClosed.get()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    int queued = queuedBytes.getAndAdd(frame.length);
+    if (queued == 0) {
+      lastProgress = now;
+    } else if (queued + frame.length > MAXIMUM_QUEUED_BYTES
+        || now - lastProgress > SLOW_CONSUMER_TIMEOUT_IN_MS) {
+      // for testing purposes.
+      Client.log(" (server) disconnects slow client, " + queued + " bytes waiting");
+      close();
+      return;
+    }
+    frames.add(ByteBuffer.wrap(frame));
+    server.writeRequested(this);
+  }
+
+  /**
+   * Lets a worker handle the requests unless a worker handles them already.
+   */
+  private void handleRequests() {
+    if (!requests.isEmpty() && isHandling.compareAndSet(false, true)) {
+      workers.execute(this::handleWaitingRequests);
+    }
+  }
+
+  private void handleWaitingRequests() {
+    Request request = requests.poll();
+    while (request != null && !isClosed.get()) {
+      Message message;
+      try {
+        message = Message.fromBytes(request.body);
+      } catch (InvalidObjectException e) {
+        close();
+        break;
+      }
+      send(Connection.replyFrame(request.id, server.request(this, message)));
+      request = requests.poll();
+    }
+    isHandling.set(false);
+    if (!isClosed.get()) {
+      // a request may have been added after the last poll
+      handleRequests();
+    }
+  }
+
+}
@@ -0,0 +1,22 @@
+package networking;
+
+/**
+ * The connection of the server to a client, either a {@link ClientChannel} served by the selector
+ * of the server or a {@link Connection} served by threads of its own.
+ */
+interface ClientConnection {
+
+  /**
+   * Sends a frame to the client without waiting for it to be written. The frame is never changed,
+   * so it may be pushed to several clients.
+   *
+   * @param frame a frame returned by {@link Connection#pushFrame(Message)}
+   */
+  void push(byte[] frame);
+
+  /**
+   * Closes the connection, the server is notified that it is closed.
+   */
+  void close();
+
+}
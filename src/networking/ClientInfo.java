@@ -13,28 +13,28 @@ class ClientInfo {
   private boolean isHost;
 
   /**
-   * The IPv4-Address of the client.
+   * The connection to the client.
    */
-  private String ipAddress;
+  private ClientConnection connection;
 
   /**
-   * The port used by the client.
+   * The player connected via the client.
    */
-  private int port;
+  private Player player;
 
   /**
-   * The player connected via the client.
+   * Indicates whether the client receives the changes of turns instead of the whole game.
    */
-  private Player player;
+  private boolean isDeltaMode;
 
   /**
    * Initializes a new {@code ClientInfo} with the specified parameters.
    */
-  ClientInfo(boolean isHost, String ipAddress, int port, Player player) {
+  ClientInfo(boolean isHost, ClientConnection connection, Player player, boolean isDeltaMode) {
     this.isHost = isHost;
-    this.ipAddress = ipAddress;
-    this.port = port;
+    this.connection = connection;
     this.player = player;
+    this.isDeltaMode = isDeltaMode;
   }
 
   /**
@@ -45,24 +45,24 @@ class ClientInfo {
   }
 
   /**
-   * Returns the IP-Address of a ClientListener.
+   * Returns the connection to the client.
    */
-  String getIpAddress() {
-    return ipAddress;
+  ClientConnection getConnection() {
+    return connection;
   }
 
   /**
-   * Returns the port of a CLientListener.
+   * Returns the player.
    */
-  int getPort() {
-    return port;
+  Player getPlayer() {
+    return player;
   }
 
   /**
-   * Returns the player.
+   * Returns {@code true} if the client receives the changes of turns instead of the whole game.
    */
-  Player getPlayer() {
-    return player;
+  boolean isDeltaMode() {
+    return isDeltaMode;
   }
 
 }
@@ -1,44 +1,29 @@
 package networking;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 
 import networking.Message.Command;
 
 /**
- * ClientListener for receiving messages from server.
+ * ClientListener for receiving messages from server. The messages pushed by the server on the
+ * {@link Connection} of the client are handled in order on the thread of this listener, so the
+ * thread of the connection keeps reading replies while a message is handled, e.g. while the client
+ * waits for the whole game.
  */
-class ClientListener implements Runnable {
+class ClientListener implements Runnable, Connection.Receiver {
 
   /**
-   * Timeout for listening for incoming messages in ms (50 minutes).
+   * Marks the end of the messages, it is never sent.
    */
-  private static final int TIMEOUT_IN_MS = 3000000;
+  private static final Message CLOSED = new Message(null, null, Command.TERMINATE);
 
   /**
-   * Delay before final close of socket.
+   * The messages pushed by the server that are not handled yet.
    */
-  private static final int DELAY_IN_MS = 1000;
-
-  /**
-   * The socket for listening.
-   */
-  private ServerSocket clientSocket;
-
-  /**
-   * Port used by the socket for listening.
-   */
-  private int clientPort;
-
-  /**
-   * IP-Address of the clients computer.
-   */
-  private String clientIp;
+  private final BlockingQueue<Message> messages = new LinkedBlockingQueue<>();
 
   /**
    * The client which started this listener.
@@ -47,33 +32,26 @@ class ClientListener implements Runnable {
 
   private BooleanProperty quit;
 
-  ClientListener(Client client, String clientIp) throws SocketException, IOException {
+  /**
+   * Indicates whether the client left the game, so closing the connection does not terminate the
+   * game.
+   */
+  private volatile boolean isLeaving;
+
+  ClientListener(Client client) {
     quit = new SimpleBooleanProperty(false);
     this.client = client;
-    clientSocket = new ServerSocket(0); // 0 -> free Port
-    clientSocket.setSoTimeout(TIMEOUT_IN_MS);
-    clientSocket.setReuseAddress(true);
-    clientPort = clientSocket.getLocalPort();
-    this.clientIp = clientIp;
   }
 
   @Override
   public void run() {
-    while (!quit.getValue()) {
-      try {
-        Socket socket = clientSocket.accept();
-        readMessage(socket);
-        socket.close();
-      } catch (Exception e) {
-        break;
-      }
-    }
-
-    // ClientListener termination.
     try {
-      Thread.sleep(DELAY_IN_MS);
-      clientSocket.close();
-    } catch (InterruptedException | IOException e) {
+      Message message = messages.take();
+      while (message != CLOSED) {
+        readMessage(message);
+        message = messages.take();
+      }
+    } catch (InterruptedException e) {
       // do nothing
     }
     // for testing purposes.
@@ -88,44 +66,55 @@ class ClientListener implements Runnable {
   }
 
   /**
-   * Reading the message received from the server.
-   * 
-   * @param socket The socket for reading.
+   * Has to be called before the client leaving the game closes its connection, so the game is not
+   * terminated for the client.
    */
-  private void readMessage(Socket socket) {
-    try {
-      ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
-      Message message = (Message) input.readObject();
-      // for testing purposes
-      Client.log(" Client Listener empfängt: " + message.getCommand());
-      // refresh the clients currentGame
-      if (message.getCommand() == Command.UPDATEGAME) {
-        assert (message.getGame() != null);
-        client.setCurrentGame(message.getGame());
-      } else {
-        if (message.getCommand() == Command.TERMINATE) {
-          stop();
-        }
-      }
-    } catch (ClassNotFoundException e) {
-      // do nothing
-    } catch (IOException e) {
-      // do nothing
-    }
+  void leave() {
+    isLeaving = true;
+  }
+
+  @Override
+  public Object request(Connection connection, Message message) {
+    // the server does not send requests
+    return Boolean.FALSE;
+  }
+
+  @Override
+  public void push(Message message) {
+    messages.add(message);
   }
 
   /**
-   * Returns the port used by this {@code ClientListener}.
+   * Stops this listener after the messages received before. Unless the client left the game, the
+   * game is terminated for this client, as the server cannot reach it anymore.
    */
-  int getPort() {
-    return clientPort;
+  @Override
+  public void closed(Connection connection) {
+    if (!isLeaving) {
+      stop();
+    }
+    messages.add(CLOSED);
   }
 
   /**
-   * Returns the IP-Address of this {@code ClientListener}.
+   * Handles a message received from the server.
+   *
+   * @param message the message
    */
-  String getClientIp() {
-    return clientIp;
+  private void readMessage(Message message) {
+    // for testing purposes
+    Client.log(" Client Listener empfängt: " + message.getCommand());
+    // refresh the clients currentGame
+    if (message.getCommand() == Command.UPDATEGAME) {
+      assert (message.getGame() != null);
+      client.setServerGame(message.getGame(), message.getSequence());
+    } else if (message.getCommand() == Command.DELTA) {
+      client.applyDelta(message.getTurn(), message.getSequence(), message.getHash());
+    } else {
+      if (message.getCommand() == Command.TERMINATE) {
+        stop();
+      }
+    }
   }
 
   /**
@@ -0,0 +1,381 @@
+package networking;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The connection between a client and the server. It stays open while the client takes part in
+ * the game and carries the requests of the client, the replies of the server and the messages the
+ * server pushes to the client, so neither side opens a socket per message.
+ *
+ * <p>Every message is sent as a frame: the kind of the frame (one byte), the id of the request
+ * (four bytes), the length of the body (four bytes) and the body, see {@link Message#toBytes()}.
+ * A reply carries the id of its request, so a client may send requests from several threads. The
+ * frames are read on a thread of the connection and written in order on another one, see
+ * {@link #start(String)}. The server either uses a connection per client as well or reads and
+ * writes the same frames without blocking, see {@link ClientChannel}.
+ *
+ * <p>Like a {@code ClientChannel}, a connection disconnects a client that lets more than
+ * {@link ClientChannel#MAXIMUM_QUEUED_BYTES} pile up or does not read for
+ * {@link ClientChannel#SLOW_CONSUMER_TIMEOUT_IN_MS} while frames are waiting.
+ */
+final class Connection implements Closeable, ClientConnection {
+
+  /**
+   * Receives the frames read by a {@code Connection}. The methods are called on the thread of the
+   * connection.
+   */
+  interface Receiver {
+
+    /**
+     * Handles a request and returns the reply, either a {@code Boolean} or a {@code Message}.
+     *
+     * @param connection the connection the request was read from
+     * @param message the request
+     * @return the reply to the request
+     */
+    Object request(Connection connection, Message message);
+
+    /**
+     * Handles a message pushed by the other side.
+     *
+     * @param message the pushed message
+     */
+    void push(Message message);
+
+    /**
+     * Called once when the connection is closed by either side or broken.
+     *
+     * @param connection the closed connection
+     */
+    void closed(Connection connection);
+
+  }
+
+  static final byte REQUEST = 0;
+
+  static final byte PUSH = 1;
+
+  /**
+   * A reply with a message.
+   */
+  static final byte REPLY = 2;
+
+  /**
+   * A reply {@code true} without a body.
+   */
+  static final byte ACCEPTED = 3;
+
+  /**
+   * A reply {@code false} without a body.
+   */
+  static final byte REJECTED = 4;
+
+  /**
+   * The length of the kind, the id and the length of the body of a frame (in bytes).
+   */
+  static final int HEADER_LENGTH = 9;
+
+  /**
+   * The maximal length of the body of a frame that is read (in bytes), a message holds at most
+   * three encoded objects of one MiB.
+   */
+  static final int MAXIMUM_BODY_LENGTH = 4 << 20;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  /**
+   * Creates daemon threads.
+   */
+  private static final ThreadFactory DAEMONS = runnable -> {
+    Thread thread = new Thread(runnable);
+    thread.setDaemon(true);
+    return thread;
+  };
+
+  private final Socket socket;
+
+  private final DataInputStream input;
+
+  /**
+   * The stream the frames are written to, only by the writer.
+   */
+  private final OutputStream output;
+
+  private final Receiver receiver;
+
+  private final ThreadFactory threads;
+
+  private final AtomicInteger lastId = new AtomicInteger();
+
+  /**
+   * The requests waiting for their replies, by id.
+   */
+  private final Map<Integer, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+
+  /**
+   * The frames waiting to be written.
+   */
+  private final BlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+
+  /**
+   * The number of bytes of the frames waiting to be written.
+   */
+  private final AtomicInteger queuedBytes = new AtomicInteger();
+
+  /**
+   * The time the other side last read a frame or the first frame was added since then (in ms).
+   */
+  private volatile long lastProgress;
+
+  private Thread writer;
+
+  private volatile boolean isClosed;
+
+  /**
+   * Initializes a new {@code Connection} on the specified socket whose frames are read and written
+   * on daemon threads.
+   *
+   * @param socket the connected socket
+   * @param receiver the receiver of the requests and the pushed messages
+   * @throws IOException if the streams of the socket cannot be opened
+   */
+  Connection(Socket socket, Receiver receiver) throws IOException {
+    this(socket, receiver, DAEMONS);
+  }
+
+  /**
+   * Initializes a new {@code Connection} on the specified socket.
+   *
+   * @param socket the connected socket
+   * @param receiver the receiver of the requests and the pushed messages
+   * @param threads creates the threads reading and writing the frames
+   * @throws IOException if the streams of the socket cannot be opened
+   */
+  Connection(Socket socket, Receiver receiver, ThreadFactory threads) throws IOException {
+    this.socket = socket;
+    this.receiver = receiver;
+    this.threads = threads;
+    // every frame is flushed at once, so they must not wait for the acknowledgement of the last one
+    socket.setTcpNoDelay(true);
+    input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    output = new BufferedOutputStream(socket.getOutputStream());
+  }
+
+  /**
+   * Returns the frame of the specified kind with the specified id and body.
+   */
+  static byte[] frame(byte kind, int id, byte[] body) {
+    return ByteBuffer.allocate(HEADER_LENGTH + body.length)
+        .put(kind).putInt(id).putInt(body.length).put(body).array();
+  }
+
+  /**
+   * Returns the frame of the reply to the request with the specified id.
+   *
+   * @param id the id of the request
+   * @param reply either a {@code Boolean} or a {@code Message}
+   */
+  static byte[] replyFrame(int id, Object reply) {
+    if (reply instanceof Message) {
+      return frame(REPLY, id, ((Message) reply).toBytes());
+    }
+    return frame(Boolean.TRUE.equals(reply) ? ACCEPTED : REJECTED, id, EMPTY);
+  }
+
+  /**
+   * Returns the frame pushing the specified message to a client. The same frame can be pushed to
+   * any number of clients, so a message sent to all clients is encoded once.
+   */
+  static byte[] pushFrame(Message message) {
+    return frame(PUSH, 0, message.toBytes());
+  }
+
+  /**
+   * Starts the threads reading and writing the frames of this connection.
+   *
+   * @param name the name of the threads
+   */
+  void start(String name) {
+    Thread reader = threads.newThread(this::read);
+    reader.setName(name);
+    writer = threads.newThread(this::write);
+    writer.setName(name + " writer");
+    writer.start();
+    reader.start();
+  }
+
+  /**
+   * Sends a request and waits for its reply.
+   *
+   * @param message the request
+   * @return the reply, either a {@code Boolean} or a {@code Message}
+   * @throws IOException if the connection is closed before the reply is read
+   */
+  Object request(Message message) throws IOException {
+    int id = lastId.incrementAndGet();
+    CompletableFuture<Object> reply = new CompletableFuture<>();
+    pending.put(id, reply);
+    try {
+      send(frame(REQUEST, id, message.toBytes()));
+      if (isClosed) {
+        throw new IOException("The connection is closed.");
+      }
+      return reply.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the reply.");
+    } catch (ExecutionException e) {
+      throw new IOException("The connection is closed.", e.getCause());
+    } finally {
+      pending.remove(id);
+    }
+  }
+
+  @Override
+  public void push(byte[] frame) {
+    send(frame);
+  }
+
+  /**
+   * Returns {@code true} if this connection is closed.
+   */
+  boolean isClosed() {
+    return isClosed;
+  }
+
+  /**
+   * Closes the socket of this connection, the requests waiting for their replies fail.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (isClosed) {
+        return;
+      }
+      isClosed = true;
+    }
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // do nothing
+    }
+    if (writer != null) {
+      writer.interrupt();
+    }
+    IOException closed = new IOException("The connection is closed.");
+    for (CompletableFuture<Object> reply : pending.values()) {
+      reply.completeExceptionally(closed);
+    }
+    receiver.closed(this);
+  }
+
+  /**
+   * Adds a frame to the frames waiting to be written, or closes the connection if the other side
+   * is a slow consumer.
+   */
+  private void send(byte[] frame) {
+    if (isClosed) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    int queued = queuedBytes.getAndAdd(frame.length);
+    if (queued == 0) {
+      lastProgress = now;
+    } else if (queued + frame.length > ClientChannel.MAXIMUM_QUEUED_BYTES
+        || now - lastProgress > ClientChannel.SLOW_CONSUMER_TIMEOUT_IN_MS) {
+      // for testing purposes.
+      Client.log(" disconnects slow consumer, " + queued + " bytes waiting");
+      close();
+      return;
+    }
+    frames.add(frame);
+  }
+
+  /**
+   * Writes the frames in order until the connection is closed. The stream is flushed whenever no
+   * frame is waiting, so frames added at once are sent together.
+   */
+  private void write() {
+    try {
+      while (!isClosed) {
+        byte[] frame = frames.take();
+        output.write(frame);
+        if (frames.isEmpty()) {
+          output.flush();
+        }
+        lastProgress = System.currentTimeMillis();
+        queuedBytes.addAndGet(-frame.length);
+      }
+    } catch (InterruptedException | IOException e) {
+      // closed by either side or broken
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Reads the frames until the connection is closed. A malformed frame closes the connection.
+   */
+  private void read() {
+    try {
+      while (!isClosed) {
+        byte kind = input.readByte();
+        int id = input.readInt();
+        int length = input.readInt();
+        if (length < 0 || length > MAXIMUM_BODY_LENGTH) {
+          throw new StreamCorruptedException("Invalid length " + length + ".");
+        }
+        byte[] body = new byte[length];
+        input.readFully(body);
+        switch (kind) {
+          case REQUEST:
+            send(replyFrame(id, receiver.request(this, Message.fromBytes(body))));
+            break;
+          case PUSH:
+            receiver.push(Message.fromBytes(body));
+            break;
+          case REPLY:
+            complete(id, Message.fromBytes(body));
+            break;
+          case ACCEPTED:
+            complete(id, Boolean.TRUE);
+            break;
+          case REJECTED:
+            complete(id, Boolean.FALSE);
+            break;
+          default:
+            throw new StreamCorruptedException("Invalid kind of frame " + kind + ".");
+        }
+      }
+    } catch (IOException e) {
+      // closed by either side or broken
+    } finally {
+      close();
+    }
+  }
+
+  private void complete(int id, Object reply) {
+    CompletableFuture<Object> request = pending.get(id);
+    if (request != null) {
+      request.complete(reply);
+    }
+  }
+
+}
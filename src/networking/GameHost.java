@@ -0,0 +1,42 @@
+package networking;
+
+import java.io.IOException;
+
+/**
+ * Runs a dedicated server hosting any number of games, e.g. for all tables of a club. A player
+ * hosts a game on it with {@link Client#createSingletonHost(model.Rummikub, model.Player, String,
+ * int, int)} and the other players join the game by its id with
+ * {@link Client#createSingletonClient(model.Player, String, int, int)}. The server keeps running
+ * when a game terminates or no client is connected for a while.
+ *
+ * <p>Usage: {@code GameHost [--port p] [--mode SELECTOR|THREAD_PER_CONNECTION]}
+ */
+public final class GameHost {
+
+  private GameHost() {}
+
+  /**
+   * Runs the server as specified by the command line arguments until the process is stopped.
+   *
+   * @param args the command line arguments, see the description of this class
+   * @throws IOException if the port cannot be bound
+   */
+  public static void main(String[] args) throws IOException {
+    int port = Client.SERVERPORT;
+    Server.Mode mode = Server.Mode.SELECTOR;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--port":
+          port = Integer.parseInt(args[i + 1]);
+          break;
+        case "--mode":
+          mode = Server.Mode.valueOf(args[i + 1]);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+      }
+    }
+    new Server(port, mode, true).run();
+  }
+
+}
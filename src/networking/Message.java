@@ -1,21 +1,60 @@
 package networking;
 
-import java.io.Serializable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
 
+import model.GameCodec;
+import model.GameSnapshot;
 import model.Player;
 import model.Rummikub;
+import model.RummikubGame;
+import model.RummikubPlayer;
+import model.TurnDelta;
 
-class Message implements Serializable {
+/**
+ * A message between a client and the server. A message is sent as the body of a frame on the
+ * {@link Connection} of a client, see {@link #toBytes()}. The game, the player and the changes of a
+ * turn are written with the {@link GameCodec}, so only a few hundred bytes are sent per message and
+ * no classes are deserialized.
+ *
+ * <p>Clients that join in the delta mode send the changes of their turns ({@link Command#MOVE})
+ * instead of the whole game, and the server sends them the changes of each turn
+ * ({@link Command#DELTA}). Every game and every change sent by the server carries the sequence
+ * number of the state it leads to, and a change also carries the hash of that state. A client that
+ * misses a change or computes another hash asks for the whole game ({@link Command#BACKUP}).
+ *
+ * <p>Every message carries the id of the game it belongs to, as a server may host several games,
+ * see {@link Table}.
+ */
+class Message {
 
-  private static final long serialVersionUID = -4409722445222139025L;
+  /**
+   * The maximal length of an encoded game, player or turn that is read (in bytes).
+   */
+  private static final int MAXIMUM_ENCODED_LENGTH = 1 << 20;
+
+  /**
+   * Marks a missing game, player or turn in the stream.
+   */
+  private static final int NONE = -1;
 
   /**
    * Different commands to differentiate the receiving messages.
    */
   enum Command {
-    JOINGAME, UPDATEGAME, STARTGAME, BACKUP, LEAVEGAME, TERMINATE;
+    JOINGAME, UPDATEGAME, MOVE, DELTA, STARTGAME, BACKUP, LEAVEGAME, FILLSEATS, TERMINATE;
   }
 
+  /**
+   * The id of the game the message belongs to.
+   */
+  private int gameId;
+
   /**
    * Used for addPlayer and removePlayer at server side.
    */
@@ -27,14 +66,30 @@ class Message implements Serializable {
   private Rummikub game;
 
   /**
-   * Is needed for connecting the server to the clientListener.
+   * The state of a game that gets send instead of the game, it is read on any thread.
    */
-  private String ipAddress;
+  private GameSnapshot snapshot;
 
   /**
-   * Port where clientListener is listening for messages from server.
+   * The changes of a turn that get send instead of the game.
    */
-  private int port;
+  private TurnDelta turn;
+
+  /**
+   * The sequence number of the state of the game sent by the server, or the state a move is based
+   * on.
+   */
+  private int sequence;
+
+  /**
+   * The hash of the game after a delta, or of the game a move is based on.
+   */
+  private long hash;
+
+  /**
+   * Indicates whether the joining client sends and receives the changes of turns.
+   */
+  private boolean isDeltaMode;
 
   /**
    * The command that indicates the operation.
@@ -42,31 +97,85 @@ class Message implements Serializable {
   private Command command;
 
   /**
-   * A normal message does not contain a ipAddress and a port of the clientListener.
+   * A normal message.
    * 
    * @param player who sends the message
    * @param game to be sent
    * @param command that shows the reason of the message
    */
   Message(Player player, Rummikub game, Command command) {
-    this(player, game, command, null, 0);
+    this(player, game, command, false);
   }
 
   /**
-   * Special message used when the client connects the first time to the Server.
-   * 
+   * A message with a game sent by the server.
+   *
+   * @param player who receives the message, {@code null} for a message to all clients
+   * @param game to be sent
+   * @param command that shows the reason of the message
+   * @param sequence the sequence number of the state of the game
+   */
+  Message(Player player, Rummikub game, Command command, int sequence) {
+    this(player, game, command, false);
+    this.sequence = sequence;
+  }
+
+  /**
+   * A message with the state of a game sent by the server. The snapshot is encoded instead of a
+   * game, so the message may be sent while the game goes on.
+   *
+   * @param snapshot the state of the game to be sent
+   * @param command that shows the reason of the message
+   * @param sequence the sequence number of the state of the game
+   */
+  Message(GameSnapshot snapshot, Command command, int sequence) {
+    this(null, null, command, sequence);
+    this.snapshot = snapshot;
+  }
+
+  /**
+   * A message with the changes of a turn.
+   *
+   * @param player who sends the message, {@code null} for a message to all clients
+   * @param turn the changes of the turn
+   * @param command either {@code MOVE} or {@code DELTA}
+   * @param sequence the sequence number of the state before a move or after a delta
+   * @param hash the hash of the state before a move or after a delta
+   */
+  Message(Player player, TurnDelta turn, Command command, int sequence, long hash) {
+    this(player, null, command, false);
+    this.turn = turn;
+    this.sequence = sequence;
+    this.hash = hash;
+  }
+
+  /**
+   * Special message used when the client joins the game.
+   *
    * @param player who sends the message
    * @param game game to be sent
    * @param command command that shows the reason of the message
-   * @param ipAddress of the clientListener
-   * @param port of the clientListener
+   * @param isDeltaMode whether the client sends and receives the changes of turns
    */
-  Message(Player player, Rummikub game, Command command, String ipAddress, int port) {
+  Message(Player player, Rummikub game, Command command, boolean isDeltaMode) {
     this.game = game;
     this.player = player;
     this.command = command;
-    this.ipAddress = ipAddress;
-    this.port = port;
+    this.isDeltaMode = isDeltaMode;
+  }
+
+  /**
+   * Returns the id of the game this {@code Message} belongs to.
+   */
+  int getGameId() {
+    return gameId;
+  }
+
+  /**
+   * Sets the id of the game this {@code Message} belongs to.
+   */
+  void setGameId(int gameId) {
+    this.gameId = gameId;
   }
 
   /**
@@ -83,6 +192,34 @@ class Message implements Serializable {
     return game;
   }
 
+  /**
+   * Returns the changes of a turn contained in this {@code Message}.
+   */
+  TurnDelta getTurn() {
+    return turn;
+  }
+
+  /**
+   * Returns the sequence number of the state of the game.
+   */
+  int getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns the hash of the state of the game.
+   */
+  long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns {@code true} if the joining client sends and receives the changes of turns.
+   */
+  boolean isDeltaMode() {
+    return isDeltaMode;
+  }
+
   /**
    * Returns the command contained in this {@code Message}.
    */
@@ -91,22 +228,91 @@ class Message implements Serializable {
   }
 
   /**
-   * Returns the IPv4-Address contained in this {@code Message}.
+   * Returns the bytes of this message: the command, the id of the game, the sequence number, the
+   * hash and the delta mode, followed by the encoded player, game and turn.
    */
-  String getIpAddress() {
-    return ipAddress;
+  byte[] toBytes() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(command.ordinal());
+      out.writeInt(gameId);
+      out.writeInt(sequence);
+      out.writeLong(hash);
+      out.writeBoolean(isDeltaMode);
+      writeEncoded(out, player == null ? null : GameCodec.encodePlayer((RummikubPlayer) player));
+      writeEncoded(out, game != null ? GameCodec.encode((RummikubGame) game)
+          : snapshot != null ? GameCodec.encode(snapshot) : null);
+      writeEncoded(out, turn == null ? null : GameCodec.encodeTurn(turn));
+    } catch (IOException e) {
+      // unreachable, a byte array is written
+      throw new AssertionError(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeEncoded(DataOutputStream out, byte[] bytes) throws IOException {
+    if (bytes == null) {
+      out.writeInt(NONE);
+    } else {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
   }
 
   /**
-   * Returns the port contained in this {@code Message}.
+   * Returns the message read from the specified bytes, see {@link #toBytes()}.
+   *
+   * @throws InvalidObjectException if the bytes are not a message
    */
-  int getPort() {
-    return port;
+  static Message fromBytes(byte[] bytes) throws InvalidObjectException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    try {
+      int command = in.readUnsignedByte();
+      if (command >= Command.values().length) {
+        throw new InvalidObjectException("Invalid command " + command + ".");
+      }
+      Message message = new Message(null, null, Command.values()[command]);
+      message.gameId = in.readInt();
+      message.sequence = in.readInt();
+      message.hash = in.readLong();
+      message.isDeltaMode = in.readBoolean();
+      byte[] encodedPlayer = readEncoded(in);
+      message.player = encodedPlayer == null ? null : GameCodec.decodePlayer(encodedPlayer);
+      byte[] encodedGame = readEncoded(in);
+      message.game = encodedGame == null ? null : GameCodec.decode(encodedGame);
+      byte[] encodedTurn = readEncoded(in);
+      message.turn = encodedTurn == null ? null : GameCodec.decodeTurn(encodedTurn);
+      if (in.available() > 0) {
+        throw new InvalidObjectException(in.available() + " bytes after the message.");
+      }
+      return message;
+    } catch (IllegalArgumentException e) {
+      throw new InvalidObjectException(e.getMessage());
+    } catch (EOFException e) {
+      throw new InvalidObjectException("The message is truncated.");
+    } catch (IOException e) {
+      // unreachable, a byte array is read
+      throw new AssertionError(e);
+    }
+  }
+
+  private static byte[] readEncoded(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length == NONE) {
+      return null;
+    }
+    if (length < 0 || length > MAXIMUM_ENCODED_LENGTH) {
+      throw new InvalidObjectException("Invalid length " + length + ".");
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
   }
 
   @Override
   public String toString() {
-    return (command + ":" + player + ":" + game);
+    return (command + ":" + gameId + ":" + player + ":"
+        + (turn == null ? game : turn + " #" + sequence));
   }
 
 }
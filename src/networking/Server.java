@@ -1,23 +1,58 @@
 package networking;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.InetAddress;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.net.UnknownHostException;
-import java.util.LinkedList;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
-import model.Player;
-import model.Rummikub;
 import networking.Message.Command;
 
 /**
- * The server that starts a connection to other clients/players.
+ * The server that accepts the connections of the clients/players. It runs in one of two modes, see
+ * {@link Mode}: either a single thread reads and writes all connections without blocking and a
+ * small pool of workers handles the requests, or every connection has threads of its own. In both
+ * modes a slow client never stalls the others, and the replies and the messages to all clients are
+ * sent on the connections as well.
+ *
+ * <p>A server hosts any number of games, each on a {@link Table} of its own. The requests are
+ * routed to the tables by the id of the game, and a client takes part in the game of one table.
+ * The server of a hosting client stops when its game terminates, a dedicated server, see
+ * {@link GameHost}, keeps running.
  */
 class Server implements Runnable {
 
+  /**
+   * The ways the server handles the connections of the clients.
+   */
+  enum Mode {
+
+    /**
+     * A selector thread reads and writes all connections, see {@link ClientChannel}, and a pool of
+     * workers handles the requests.
+     */
+    SELECTOR,
+
+    /**
+     * Each connection is read and written by threads of its own, see {@link Connection}, which
+     * handle the requests as well. The threads are virtual threads if the runtime supports them.
+     */
+    THREAD_PER_CONNECTION;
+
+  }
+
   /**
    * Timeout for listening for incoming messages (in ms). It is equal to 50 minutes.
    */
@@ -29,291 +64,359 @@ class Server implements Runnable {
   private static final int DELAY_IN_MS = 100;
 
   /**
-   * The server's communication socket .
+   * The number of threads handling requests. They decode and encode the messages in parallel, the
+   * game is changed by one of them at a time.
    */
-  private ServerSocket serverSocket;
+  private static final int WORKERS = Math.max(2, Math.min(4,
+      Runtime.getRuntime().availableProcessors()));
+
+  private final Mode mode;
 
   /**
-   * The current game.
+   * Indicates whether the server keeps running when a game terminates.
    */
-  private Rummikub currentGame;
+  private final boolean isDedicated;
 
-  private boolean quit;
+  /**
+   * The server's communication channel.
+   */
+  private final ServerSocketChannel serverChannel;
 
   /**
-   * List of clients.
+   * Selects the channels that can be read or written, {@code null} unless the mode is
+   * {@link Mode#SELECTOR}.
    */
-  private LinkedList<ClientInfo> clients;
+  private final Selector selector;
 
-  static Command command = Command.TERMINATE;
+  /**
+   * The channels with frames added since the last selection.
+   */
+  private final Queue<ClientChannel> writes = new ConcurrentLinkedQueue<>();
 
-  Server(int portAdress) throws IOException {
-    clients = new LinkedList<ClientInfo>();
-    quit = false;
-    serverSocket = new ServerSocket(portAdress);
-    serverSocket.setSoTimeout(TIMEOUT_IN_MS);
-    serverSocket.setReuseAddress(true);
-  }
+  /**
+   * The open connections, including those of clients that have not joined the game.
+   */
+  private final Set<ClientConnection> connections = ConcurrentHashMap.newKeySet();
 
   /**
-   * Let's the server socket listen as long as quit is false, otherwise shuts the server down.
+   * Receives the requests read by the connections in the mode {@link Mode#THREAD_PER_CONNECTION}.
    */
-  @Override
-  public void run() {
-    while (!quit) {
-      try {
-        Socket socket = serverSocket.accept();
-        readMessage(socket);
-        socket.close();
-      } catch (Exception e) {
-        break;
-      }
+  private final Connection.Receiver receiver = new Connection.Receiver() {
+
+    @Override
+    public Object request(Connection connection, Message message) {
+      return Server.this.request(connection, message);
     }
-    // Server termination.
-    try {
-      Thread.sleep(DELAY_IN_MS);
-      serverSocket.close();
-    } catch (InterruptedException | IOException e) {
-      // do nothing
+
+    @Override
+    public void push(Message message) {
+      // the clients only send requests
     }
-    // for testing purposes.
-    Client.log(" server terminates ...");
+
+    @Override
+    public void closed(Connection connection) {
+      Server.this.closed(connection);
+    }
+
+  };
+
+  /**
+   * The tables by the id of their games.
+   */
+  private final Map<Integer, Table> tables = new ConcurrentHashMap<>();
+
+  /**
+   * The tables of the clients that joined a game, by their connections.
+   */
+  private final Map<ClientConnection, Table> joined = new ConcurrentHashMap<>();
+
+  private volatile boolean quit;
+
+  /**
+   * The threads waiting for the moves of computer players, so no connection waits for them.
+   */
+  private final ExecutorService bots;
+
+  /**
+   * The threads handling the requests of the clients in the mode {@link Mode#SELECTOR}.
+   */
+  private final ExecutorService workers;
+
+  /**
+   * The threads processing the mailboxes of the tables. The threads handling the requests wait for
+   * them, so they are never used for anything else.
+   */
+  private final ExecutorService mailboxes;
+
+  static Command command = Command.TERMINATE;
+
+  Server(int portAdress) throws IOException {
+    this(portAdress, Mode.SELECTOR);
   }
 
   /**
-   * Method to stop the server.
+   * Initializes a new {@code Server} of a hosting client, it stops when a game terminates.
    */
-  void stop() {
-    quit = true;
+  Server(int portAdress, Mode mode) throws IOException {
+    this(portAdress, mode, false);
   }
 
   /**
-   * Method to send a Massage to one client.
-   * 
-   * @param clientInfo client information of client receiving the massage
-   * @param message the massage to the client.
+   * Initializes a new {@code Server}.
+   *
+   * @param portAdress the port the server listens on
+   * @param mode the way the connections are handled
+   * @param isDedicated whether the server keeps running when a game terminates
+   * @throws IOException if the port cannot be bound
    */
-  private void send(ClientInfo clientInfo, Message message) {
-    try {
-      Socket socket = connect(clientInfo);
-      ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
-      output.writeObject(message);
-      socket.close();
-    } catch (IOException e) {
-      // do nothing
+  Server(int portAdress, Mode mode, boolean isDedicated) throws IOException {
+    this.mode = mode;
+    this.isDedicated = isDedicated;
+    bots = Executors.newCachedThreadPool(Server::newDaemon);
+    workers = Executors.newFixedThreadPool(WORKERS, Server::newDaemon);
+    mailboxes = Executors.newCachedThreadPool(Server::newDaemon);
+    quit = false;
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.socket().setReuseAddress(true);
+    serverChannel.bind(new InetSocketAddress(portAdress));
+    if (mode == Mode.SELECTOR) {
+      selector = Selector.open();
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    } else {
+      selector = null;
     }
   }
 
+  private static Thread newDaemon(Runnable runnable) {
+    Thread thread = new Thread(runnable);
+    thread.setDaemon(true);
+    return thread;
+  }
+
   /**
-   * Sends a message to all clients.
-   * 
-   * @param gameWithClients the game in which the clients are participating
-   * @param massageToAll the message which should be send
+   * Returns a factory of virtual threads if the runtime supports them (Java 21), otherwise a
+   * factory of daemon threads. The factory is looked up reflectively, so the server runs on older
+   * runtimes as well.
    */
-  private void sendAll(Rummikub gameWithClients, Command massageToAll) {
-    for (ClientInfo client : clients) {
-      // for testing purposes.
-      Client.log("server sends message to player " + client.getPlayer().getName() + "("
-          + client.getPlayer().getAge() + ")");
-
-      Message message = new Message(client.getPlayer(), gameWithClients, massageToAll);
-      send(client, message);
+  private static ThreadFactory newConnectionThreads() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory")
+          .invoke(builder);
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      return Server::newDaemon;
     }
   }
 
   /**
-   * Reads and handles massages received on the socket. Depending on the massages received sends out
-   * a massage to it's clients to update the game.
-   * 
-   * @param socket the socket listening
+   * Accepts connections and serves them as long as quit is false, otherwise shuts the server down.
    */
-  private void readMessage(Socket socket) {
+  @Override
+  public void run() {
     try {
-      ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
-      Message message = (Message) input.readObject();
-
-      // for testing purposes.
-      Client.log(" (server) message received: " + message);
-
-      Object response = execute(message);
-      ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
-      output.writeObject(response);
-    } catch (ClassNotFoundException e) {
+      if (mode == Mode.SELECTOR) {
+        select();
+      } else {
+        acceptConnections();
+      }
+    } catch (IOException e) {
       // do nothing
+    }
+    // Server termination.
+    for (Table table : tables.values()) {
+      table.close();
+    }
+    bots.shutdownNow();
+    for (ClientConnection connection : connections) {
+      connection.close();
+    }
+    try {
+      serverChannel.close();
+      if (selector != null) {
+        selector.close();
+      }
     } catch (IOException e) {
       // do nothing
     }
+    workers.shutdown();
+    mailboxes.shutdown();
+    // for testing purposes.
+    Client.log(" server terminates ...");
   }
 
-
   /**
-   * Method Handles the received message and starts the required action depending on the command and
-   * creates an object to be used as response.
-   * 
-   * @param message the received message
-   * @return the object which is used as response
-   * @throws IOException if stream cannot be written to or is closed
+   * Let's the selector accept connections and read and write them as long as quit is false and,
+   * unless the server is dedicated, a client was active during the timeout.
    */
-  private Object execute(Message message) throws IOException {
-    // for testing purposes.
-    Client.log("Server empfaengt: " + message.getCommand());
-
-    switch (message.getCommand()) {
-      case JOINGAME:
-        return joinGame(message);
-
-      case UPDATEGAME:
-        return updateGame(message);
-
-      case STARTGAME:
-        return startGame(message);
-
-      case BACKUP:
-        return currentGame;
-
-      case LEAVEGAME:
-        leaveGame(message);
-        break;
-
-      case TERMINATE:
-        terminate(message);
-        break;
-
-      default:
-        // unreachable
-        throw new AssertionError();
+  private void select() throws IOException {
+    long lastActivity = System.currentTimeMillis();
+    long end = Long.MAX_VALUE;
+    while (System.currentTimeMillis() < end) {
+      selector.select(quit ? DELAY_IN_MS : TIMEOUT_IN_MS);
+      long now = System.currentTimeMillis();
+      if (quit && end == Long.MAX_VALUE) {
+        // the replies to the last requests are sent in the meantime
+        end = now + DELAY_IN_MS;
+        serverChannel.close();
+      }
+      for (ClientChannel client = writes.poll(); client != null; client = writes.poll()) {
+        client.enableWrite();
+      }
+      Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+      while (keys.hasNext()) {
+        SelectionKey key = keys.next();
+        keys.remove();
+        lastActivity = now;
+        if (key.isValid() && key.isAcceptable()) {
+          accept();
+        } else if (key.isValid()) {
+          ClientChannel client = (ClientChannel) key.attachment();
+          try {
+            if (key.isReadable()) {
+              client.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+              client.write();
+            }
+          } catch (IOException | CancelledKeyException e) {
+            client.close();
+          }
+        }
+      }
+      if (!isDedicated && now - lastActivity >= TIMEOUT_IN_MS) {
+        stop();
+      }
     }
-    return Boolean.TRUE;
   }
 
   /**
-   * Establishes a connection to the client.
-   * 
-   * @throws IOException if stream cannot be written to or is closed
-   * @throws UnknownHostException if a machine with the specified IP does not exist, or a domain
-   *         name cannot be found
+   * Accepts connections as long as quit is false and starts the threads of each connection.
    */
-  private Socket connect(ClientInfo clientInfo) throws IOException, UnknownHostException {
-    Socket reading = null;
-    InetAddress adress = InetAddress.getByName(clientInfo.getIpAddress());
-
-    // for testing purposes.
-    Client.log(" connecting to client IP " + adress.toString() + ", using port "
-        + clientInfo.getPort() + "...");
-
-    reading = new Socket(adress, clientInfo.getPort());
-
-    // for testing purposes.
-    Client.log("...done");
-
-    return reading;
+  private void acceptConnections() {
+    ThreadFactory threads = newConnectionThreads();
+    while (!quit) {
+      try {
+        Socket socket = serverChannel.accept().socket();
+        Connection connection = new Connection(socket, receiver, threads);
+        connections.add(connection);
+        connection.start("connection to " + socket.getInetAddress());
+      } catch (IOException e) {
+        break;
+      }
+    }
+    try {
+      // the replies to the last requests are sent in the meantime
+      Thread.sleep(DELAY_IN_MS);
+    } catch (InterruptedException e) {
+      // do nothing
+    }
   }
 
   /**
-   * Adds a player to the current game and a new client to the client list. Also sends the modified
-   * game to all clients afterwards.
-   * 
-   * @param message the message which gets sent.
-   * @return returns true, if adding the player to the game was successful, false if not.
+   * Method to stop the server.
    */
-  private Boolean joinGame(Message message) {
-    // first player creates game
-    if (message.getGame() != null) {
-      if (currentGame != null) {
-        return Boolean.FALSE;
+  void stop() {
+    quit = true;
+    if (selector != null) {
+      selector.wakeup();
+    } else {
+      try {
+        // stops waiting for connections
+        serverChannel.close();
+      } catch (IOException e) {
+        // do nothing
       }
-      currentGame = message.getGame();
     }
-    // for testing purposes.
-    Client.log(
-        " new player " + message.getPlayer().getName() + "(" + message.getPlayer().getAge() + ")");
-
-    // TODO: duplicate player check here if not implemented in addPlayer()
-    Boolean upToDate = currentGame.addPlayer(message.getPlayer());
-    if (upToDate) {
-      ClientInfo clientInfo = new ClientInfo(message.getGame() != null, message.getIpAddress(),
-          message.getPort(), message.getPlayer());
-      clients.add(clientInfo);
+  }
 
-      sendAll(currentGame, Command.UPDATEGAME);
+  /**
+   * Accepts a waiting connection and registers it with the selector.
+   */
+  private void accept() throws IOException {
+    SocketChannel channel = serverChannel.accept();
+    if (channel == null) {
+      return;
     }
-    return upToDate;
+    channel.configureBlocking(false);
+    // every frame is written at once, so they must not wait for the acknowledgement of the last one
+    channel.socket().setTcpNoDelay(true);
+    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+    ClientChannel client = new ClientChannel(key, this, workers);
+    key.attach(client);
+    connections.add(client);
   }
 
   /**
-   * Sends the current game to all clients if the game is valid. This method will be called if a
-   * player has changed the game.
-   * 
-   * @param message the message which gets sent.
-   * @return true, if the received game from client is valid, false if not.
+   * Handles a request of a client on the table of the game of the request. A host joining with a
+   * game creates the table, the other requests are only handled on the table the client joined.
+   * This method is called by a worker or by the thread of the connection.
+   *
+   * @param client the connection the request was read from
+   * @param message the request
+   * @return the reply to the request
    */
-  private Boolean updateGame(Message message) {
-    Boolean isValid = message.getGame().isValid();
-    if (isValid) {
-      currentGame = message.getGame();
-      boolean isWinner = currentGame.isWon();
-      if (isWinner) {
-        currentGame.setWinner(currentGame.getCurrentPlayer());
-      } else {
-        currentGame.endCurrentRound();
+  Object request(ClientConnection client, Message message) {
+    // for testing purposes.
+    Client.log(" (server) message received: " + message);
+    int id = message.getGameId();
+    Table table;
+    if (message.getCommand() == Command.JOINGAME) {
+      if (joined.containsKey(client)) {
+        return Boolean.FALSE;
       }
-      sendAll(currentGame, Command.UPDATEGAME);
+      table = message.getGame() == null ? tables.get(id)
+          : tables.computeIfAbsent(id, key -> new Table(key, this, mailboxes, bots));
+      if (table == null) {
+        return Boolean.FALSE;
+      }
+      Object reply = table.execute(message, client);
+      if (Boolean.TRUE.equals(reply)) {
+        joined.put(client, table);
+      }
+      return reply;
+    }
+    table = joined.get(client);
+    if (table == null || table.getId() != id) {
+      return Boolean.FALSE;
     }
-    return isValid;
+    return table.execute(message, client);
   }
 
   /**
-   * Sends the game to all clients if the game has not been started. This method will be called if
-   * the host starts a new game.
-   * 
-   * @param message the message which gets sent.
-   * @return true if the game has not been started, false otherwise.
+   * Removes the closed table, so its id may be used by a new game.
    */
-  private Boolean startGame(Message message) {
-    Boolean notStarted = message.getGame().getRound() == 1;
-    if (notStarted) {
-      currentGame = message.getGame();
-      sendAll(currentGame, Command.UPDATEGAME);
-    }
-    return notStarted;
+  void removeTable(Table table) {
+    tables.remove(table.getId(), table);
   }
 
   /**
-   * Removes the player in the current game and sends modified game to all clients.
-   * 
-   * @param message the message which gets sent.
+   * Removes the table of the terminated game and stops the server unless it is dedicated.
    */
-  private void leaveGame(Message message) {
-    for (Player p : currentGame.getPlayers()) {
-      if (message.getPlayer().equals(p)) {
-        currentGame.removePlayer(p);
-        removeFromClientList(p);
-      }
+  void terminated(Table table) {
+    removeTable(table);
+    if (!isDedicated) {
+      stop();
     }
-    sendAll(currentGame, Command.UPDATEGAME);
   }
 
   /**
-   * Lets the clients know that the game terminates and then terminates the server.
-   * 
-   * @param message the message which gets sent.
+   * Lets the selector write the frames added to the specified channel.
    */
-  private void terminate(Message message) {
-    sendAll(null, Command.TERMINATE);
-    stop();
+  void writeRequested(ClientChannel client) {
+    writes.add(client);
+    selector.wakeup();
   }
 
   /**
-   * Removes the ClientInfo object from the ClientInfo list.
-   * 
-   * @param player the player who wants to leave.
+   * Removes the client of the closed connection from the table it joined. Its player stays in the
+   * game.
    */
-  private void removeFromClientList(Player player) {
-    for (ClientInfo c : clients) {
-      if (player.equals(c.getPlayer())) {
-        clients.remove(c);
-        break;
-      }
+  void closed(ClientConnection client) {
+    connections.remove(client);
+    Table table = joined.remove(client);
+    if (table != null) {
+      table.closed(client);
     }
   }
 
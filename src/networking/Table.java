@@ -0,0 +1,576 @@
+package networking;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.GameSnapshot;
+import model.Player;
+import model.Rummikub;
+import model.RummikubGame;
+import model.TurnDelta;
+import model.bot.ComputerPlayer;
+import model.solver.Solution;
+import networking.Message.Command;
+
+/**
+ * A game hosted by the {@link Server} together with the clients taking part in it. The server
+ * routes the requests to the tables by the id of the game.
+ *
+ * <p>A table is the single writer of its game: the requests, the moves of the computer players and
+ * the closed connections are commands added to the mailbox of the table, and the commands are
+ * processed in order, one at a time, see {@link #tell(Runnable)}. Thus the game is never locked,
+ * the tables of a server never wait for each other and no command waits for a client. After each
+ * command the table publishes an immutable {@link GameSnapshot} of the game, which is read without
+ * entering the mailbox, e.g. to send the whole game to a client.
+ *
+ * <p>A table is created by the first client joining with a game, the host. It is closed when it
+ * is terminated or the last client left it.
+ */
+class Table {
+
+  /**
+   * The time a computer player may search for his move (in ms).
+   */
+  private static final long BOT_BUDGET_IN_MS = 2000;
+
+  /**
+   * The age of the computer players, so they play after all human players.
+   */
+  private static final int BOT_AGE = 100;
+
+  /**
+   * The state of the game published by a table, it never changes.
+   */
+  private static final class Published {
+
+    private final GameSnapshot game;
+
+    /**
+     * The sequence number of the state.
+     */
+    private final int sequence;
+
+    Published(GameSnapshot game, int sequence) {
+      this.game = game;
+      this.sequence = sequence;
+    }
+
+  }
+
+  private final int id;
+
+  private final Server server;
+
+  /**
+   * The threads waiting for the moves of computer players, so no connection waits for them.
+   */
+  private final Executor bots;
+
+  /**
+   * The executor processing the commands of the mailbox.
+   */
+  private final Executor executor;
+
+  /**
+   * The commands waiting to be processed.
+   */
+  private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Indicates whether the commands of the mailbox are processed.
+   */
+  private final AtomicBoolean isProcessing = new AtomicBoolean();
+
+  /**
+   * The state of the game after the last command, {@code null} until the game is created.
+   */
+  private volatile Published published;
+
+  /**
+   * The current game.
+   */
+  private Rummikub currentGame;
+
+  /**
+   * The sequence number of the state of the current game last sent to the clients.
+   */
+  private int sequence;
+
+  /**
+   * List of clients.
+   */
+  private LinkedList<ClientInfo> clients = new LinkedList<ClientInfo>();
+
+  private volatile boolean isClosed;
+
+  /**
+   * Initializes a new {@code Table} without a game.
+   *
+   * @param id the id of the game
+   * @param server the server hosting the table
+   * @param executor the executor processing the commands of the table, it must not be used by the
+   *     threads waiting for the replies to requests
+   * @param bots the executor the computer players search their moves on
+   */
+  Table(int id, Server server, Executor executor, Executor bots) {
+    this.id = id;
+    this.server = server;
+    this.executor = executor;
+    this.bots = bots;
+  }
+
+  /**
+   * Returns the id of the game of this table.
+   */
+  int getId() {
+    return id;
+  }
+
+  /**
+   * Handles a request and waits for the reply. The whole game is sent from the published snapshot,
+   * the other requests are processed by the mailbox of this table.
+   *
+   * @param message the received message
+   * @param connection the connection the message was received on
+   * @return the object which is used as response
+   */
+  Object execute(Message message, ClientConnection connection) {
+    // for testing purposes.
+    Client.log("Server empfaengt: " + message.getCommand() + " for game " + id);
+
+    if (message.getCommand() == Command.BACKUP) {
+      Published state = published;
+      if (isClosed || state == null) {
+        return Boolean.FALSE;
+      }
+      return toClients(new Message(state.game, Command.BACKUP, state.sequence));
+    }
+    CompletableFuture<Object> reply = new CompletableFuture<>();
+    try {
+      tell(() -> {
+        try {
+          reply.complete(handle(message, connection));
+        } catch (RuntimeException | Error e) {
+          reply.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // the server is stopped
+      return Boolean.FALSE;
+    }
+    return reply.join();
+  }
+
+  /**
+   * Removes the client of the closed connection from the client list. Its player stays in the
+   * game.
+   */
+  void closed(ClientConnection client) {
+    try {
+      tell(() -> {
+        clients.removeIf(info -> info.getConnection() == client);
+        closeIfEmpty();
+      });
+    } catch (RejectedExecutionException e) {
+      // the server is stopped
+    }
+  }
+
+  /**
+   * Closes this table, the computer players stop playing.
+   */
+  void close() {
+    isClosed = true;
+  }
+
+  /**
+   * Adds a command to the mailbox of this table and lets the executor process the commands unless
+   * it processes them already. The commands are processed in the order they were added.
+   *
+   * @throws RejectedExecutionException if the executor is shut down
+   */
+  private void tell(Runnable command) {
+    mailbox.add(command);
+    processCommands();
+  }
+
+  private void processCommands() {
+    if (!mailbox.isEmpty() && isProcessing.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::processWaitingCommands);
+      } catch (RejectedExecutionException e) {
+        mailbox.clear();
+        isProcessing.set(false);
+        throw e;
+      }
+    }
+  }
+
+  private void processWaitingCommands() {
+    try {
+      for (Runnable command = mailbox.poll(); command != null; command = mailbox.poll()) {
+        command.run();
+      }
+    } finally {
+      isProcessing.set(false);
+    }
+    // a command may have been added after the last poll
+    processCommands();
+  }
+
+  /**
+   * Publishes the state of the current game. Has to be called before the state is sent to the
+   * clients, so a client never receives a state that is newer than the published one.
+   */
+  private void publish() {
+    if (currentGame != null) {
+      published = new Published(((RummikubGame) currentGame).snapshot(), sequence);
+    }
+  }
+
+  /**
+   * Method Handles the received message and starts the required action depending on the command and
+   * creates an object to be used as response. Is only called by the mailbox.
+   *
+   * @param message the received message
+   * @param connection the connection the message was received on
+   * @return the object which is used as response
+   */
+  private Object handle(Message message, ClientConnection connection) {
+    if (isClosed) {
+      return Boolean.FALSE;
+    }
+    switch (message.getCommand()) {
+      case JOINGAME:
+        return joinGame(message, connection);
+
+      case UPDATEGAME:
+        return updateGame(message);
+
+      case MOVE:
+        return move(message);
+
+      case STARTGAME:
+        return startGame(message);
+
+      case LEAVEGAME:
+        leaveGame(message);
+        break;
+
+      case FILLSEATS:
+        return fillSeats();
+
+      case TERMINATE:
+        terminate(message);
+        break;
+
+      default:
+        // unreachable
+        throw new AssertionError();
+    }
+    return Boolean.TRUE;
+  }
+
+  /**
+   * Sets the id of this table to the specified message and returns the message.
+   */
+  private Message toClients(Message message) {
+    message.setGameId(id);
+    return message;
+  }
+
+  /**
+   * Method to send a Massage to one client.
+   *
+   * @param clientInfo client information of client receiving the massage
+   * @param frame the frame of the massage to the client, it may be shared with other clients
+   */
+  private void send(ClientInfo clientInfo, byte[] frame) {
+    clientInfo.getConnection().push(frame);
+  }
+
+  /**
+   * Sends a message to all clients. The message is encoded once and the same frame is written to
+   * every client.
+   *
+   * @param gameWithClients the game in which the clients are participating
+   * @param massageToAll the message which should be send
+   */
+  private void sendAll(Rummikub gameWithClients, Command massageToAll) {
+    if (massageToAll == Command.UPDATEGAME) {
+      sequence++;
+      publish();
+    }
+    byte[] frame = Connection.pushFrame(
+        toClients(new Message(null, gameWithClients, massageToAll, sequence)));
+    for (ClientInfo client : clients) {
+      // for testing purposes.
+      Client.log("server sends message to player " + client.getPlayer().getName() + "("
+          + client.getPlayer().getAge() + ")");
+
+      send(client, frame);
+    }
+  }
+
+  /**
+   * Sends the changes of the last turn to all clients in the delta mode and the current game to
+   * all other clients. Each message is encoded at most once.
+   *
+   * @param turn the changes of the last turn
+   */
+  private void sendDelta(TurnDelta turn) {
+    sequence++;
+    publish();
+    long hash = ((RummikubGame) currentGame).getHash();
+    byte[] delta = null;
+    byte[] game = null;
+    for (ClientInfo client : clients) {
+      if (client.isDeltaMode()) {
+        if (delta == null) {
+          delta = Connection.pushFrame(
+              toClients(new Message(null, turn, Command.DELTA, sequence, hash)));
+        }
+        send(client, delta);
+      } else {
+        if (game == null) {
+          game = Connection.pushFrame(
+              toClients(new Message(null, currentGame, Command.UPDATEGAME, sequence)));
+        }
+        send(client, game);
+      }
+    }
+  }
+
+  /**
+   * Adds a player to the current game and a new client to the client list. Also sends the modified
+   * game to all clients afterwards.
+   *
+   * @param message the message which gets sent.
+   * @param connection the connection to the client
+   * @return returns true, if adding the player to the game was successful, false if not.
+   */
+  private Boolean joinGame(Message message, ClientConnection connection) {
+    // first player creates game
+    if (message.getGame() != null) {
+      if (currentGame != null) {
+        return Boolean.FALSE;
+      }
+      currentGame = message.getGame();
+    } else if (currentGame == null) {
+      // the host has not joined yet
+      return Boolean.FALSE;
+    }
+    // for testing purposes.
+    Client.log(
+        " new player " + message.getPlayer().getName() + "(" + message.getPlayer().getAge() + ")");
+
+    // TODO: duplicate player check here if not implemented in addPlayer()
+    Boolean upToDate = currentGame.addPlayer(message.getPlayer());
+    if (upToDate) {
+      ClientInfo clientInfo = new ClientInfo(message.getGame() != null, connection,
+          message.getPlayer(), message.isDeltaMode());
+      clients.add(clientInfo);
+
+      sendAll(currentGame, Command.UPDATEGAME);
+    } else {
+      closeIfEmpty();
+    }
+    return upToDate;
+  }
+
+  /**
+   * Sends the current game to all clients if the game is valid. This method will be called if a
+   * player has changed the game.
+   *
+   * @param message the message which gets sent.
+   * @return true, if the received game from client is valid, false if not.
+   */
+  private Boolean updateGame(Message message) {
+    Boolean isValid = message.getGame().isValid();
+    if (isValid) {
+      currentGame = message.getGame();
+      endRound(null);
+    }
+    return isValid;
+  }
+
+  /**
+   * Applies the changes of the turn of the current player to the current game, if they are based
+   * on the current state of the game and the round is valid. This method will be called if a
+   * client in the delta mode ends his turn.
+   *
+   * @param message the message with the changes of the turn
+   * @return true if the changes were applied, false if not.
+   */
+  private Boolean move(Message message) {
+    if (currentGame == null || !currentGame.hasStarted() || currentGame.isWon()
+        || !currentGame.getCurrentPlayer().equals(message.getPlayer())
+        || message.getSequence() != sequence
+        || message.getHash() != ((RummikubGame) currentGame).getHash()) {
+      return Boolean.FALSE;
+    }
+    if (!message.getTurn().applyTo((RummikubGame) currentGame)) {
+      return Boolean.FALSE;
+    }
+    endRound(message.getTurn());
+    return Boolean.TRUE;
+  }
+
+  /**
+   * Ends the round of the current player, sends the game or the changes of the round to all
+   * clients and lets the next player move if he is a computer player.
+   *
+   * @param turn the changes of the round, {@code null} to send the whole game to all clients
+   */
+  private void endRound(TurnDelta turn) {
+    boolean isWinner = currentGame.isWon();
+    if (isWinner) {
+      currentGame.setWinner(currentGame.getCurrentPlayer());
+    } else {
+      currentGame.endCurrentRound();
+    }
+    if (turn == null) {
+      sendAll(currentGame, Command.UPDATEGAME);
+    } else {
+      sendDelta(turn);
+    }
+    startBotRound();
+  }
+
+  /**
+   * Lets the current player search his move on another thread if he is a computer player. The
+   * move is played as soon as it is found, unless the game changed in the meantime.
+   */
+  private void startBotRound() {
+    Player player = currentGame.getCurrentPlayer();
+    if (currentGame.isWon() || !(player instanceof ComputerPlayer)) {
+      return;
+    }
+    ComputerPlayer bot = (ComputerPlayer) player;
+    Rummikub game = currentGame;
+    bot.think(game, bots).thenAccept(solution -> {
+      try {
+        tell(() -> finishBotRound(game, bot, solution));
+      } catch (RejectedExecutionException e) {
+        // the server is stopped
+      }
+    });
+  }
+
+  /**
+   * Plays the move found by a computer player and ends his round.
+   *
+   * @param game the game the move was searched for
+   * @param bot the computer player
+   * @param solution the move found
+   */
+  private void finishBotRound(Rummikub game, ComputerPlayer bot, Solution solution) {
+    if (isClosed || game != currentGame || game.getCurrentPlayer() != bot) {
+      return;
+    }
+    RummikubGame botGame = (RummikubGame) game;
+    int poolSize = botGame.getPoolSize();
+    bot.play(botGame, solution);
+    endRound(TurnDelta.of(botGame, botGame.getPoolSize() < poolSize));
+  }
+
+  /**
+   * Adds computer players to the current game until it is full and sends the modified game to all
+   * clients afterwards.
+   *
+   * @return true if at least one computer player was added, false otherwise.
+   */
+  private Boolean fillSeats() {
+    if (currentGame == null || currentGame.hasStarted()) {
+      return Boolean.FALSE;
+    }
+    int added = 0;
+    while (currentGame.addPlayer(
+        ComputerPlayer.of("Computer " + (added + 1), BOT_AGE, BOT_BUDGET_IN_MS))) {
+      added++;
+    }
+    if (added > 0) {
+      sendAll(currentGame, Command.UPDATEGAME);
+    }
+    return added > 0;
+  }
+
+  /**
+   * Sends the game to all clients if the game has not been started. This method will be called if
+   * the host starts a new game.
+   *
+   * @param message the message which gets sent.
+   * @return true if the game has not been started, false otherwise.
+   */
+  private Boolean startGame(Message message) {
+    Boolean notStarted = message.getGame().getRound() == 1;
+    if (notStarted) {
+      currentGame = message.getGame();
+      sendAll(currentGame, Command.UPDATEGAME);
+      startBotRound();
+    }
+    return notStarted;
+  }
+
+  /**
+   * Removes the player in the current game and sends modified game to all clients.
+   *
+   * @param message the message which gets sent.
+   */
+  private void leaveGame(Message message) {
+    Player current = currentGame.getCurrentPlayer();
+    for (Player p : currentGame.getPlayers()) {
+      if (message.getPlayer().equals(p)) {
+        currentGame.removePlayer(p);
+        removeFromClientList(p);
+        break;
+      }
+    }
+    sendAll(currentGame, Command.UPDATEGAME);
+    if (current != currentGame.getCurrentPlayer()) {
+      startBotRound();
+    }
+    closeIfEmpty();
+  }
+
+  /**
+   * Lets the clients know that the game terminates and then closes the table.
+   *
+   * @param message the message which gets sent.
+   */
+  private void terminate(Message message) {
+    sendAll(null, Command.TERMINATE);
+    isClosed = true;
+    server.terminated(this);
+  }
+
+  /**
+   * Closes this table if no client takes part in the game anymore.
+   */
+  private void closeIfEmpty() {
+    if (clients.isEmpty() && !isClosed) {
+      isClosed = true;
+      server.removeTable(this);
+    }
+  }
+
+  /**
+   * Removes the ClientInfo object from the ClientInfo list.
+   *
+   * @param player the player who wants to leave.
+   */
+  private void removeFromClientList(Player player) {
+    for (ClientInfo c : clients) {
+      if (player.equals(c.getPlayer())) {
+        clients.remove(c);
+        break;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,97 @@
+package testing;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.RummikubGame;
+import model.RummikubPlayer;
+import model.Tile;
+import model.bot.ComputerPlayer;
+import model.bot.Difficulty;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tests for ComputerPlayer.")
+class ComputerPlayerTest {
+
+  private static final long BUDGET_IN_MS = 200;
+
+  private static int tilesOnBoard(RummikubGame game) {
+    int count = 0;
+    for (int y = 0; y < game.getBoardHeight(); y++) {
+      for (int x = 0; x < game.getBoardWidth(); x++) {
+        if (game.getTile(x, y) != null) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  @DisplayName("Invalid budget.")
+  @Test
+  void testInvalidBudget() {
+    assertThrows(IllegalArgumentException.class, () -> ComputerPlayer.of("Bot", 20, 0));
+  }
+
+  @DisplayName("Turn of another player.")
+  @Test
+  void testNotMyTurn() {
+    RummikubGame game = RummikubGame.create(1L);
+    ComputerPlayer bot = ComputerPlayer.of("Bot", 30, BUDGET_IN_MS);
+    game.addPlayer(RummikubPlayer.of("Anna", 20));
+    game.addPlayer(bot);
+    game.start();
+    assertThrows(IllegalStateException.class, () -> bot.playTurn(game));
+  }
+
+  @DisplayName("Computer players play valid rounds.")
+  @Test
+  void testPlayRounds() {
+    RummikubGame game = RummikubGame.create(42L);
+    game.addPlayer(ComputerPlayer.of("Bot 1", 20, BUDGET_IN_MS));
+    game.addPlayer(ComputerPlayer.of("Bot 2", 30, BUDGET_IN_MS));
+    game.start();
+    int moves = 0;
+    for (int i = 0; i < 20 && !game.isWon(); i++) {
+      ComputerPlayer bot = (ComputerPlayer) game.getCurrentPlayer();
+      List<Tile> rackBefore = new ArrayList<>(bot.getRack());
+      int boardBefore = tilesOnBoard(game);
+      bot.playTurn(game);
+      int set = tilesOnBoard(game) - boardBefore;
+      if (set > 0) {
+        moves++;
+      }
+      assertAll(
+          () -> assertTrue(game.isBoardValid()),
+          () -> assertTrue(set >= 0),
+          () -> assertEquals(rackBefore.size() - set + (set == 0 ? 1 : 0), bot.getRack().size()));
+      game.endCurrentRound();
+    }
+    assertTrue(moves > 0);
+  }
+
+  @DisplayName("Monte Carlo search plays a valid round.")
+  @Test
+  void testHardDifficulty() {
+    RummikubGame game = RummikubGame.create(7L);
+    ComputerPlayer bot = ComputerPlayer.of("Bot", 20, BUDGET_IN_MS, Difficulty.HARD);
+    game.addPlayer(bot);
+    game.addPlayer(RummikubPlayer.of("Anna", 30));
+    game.start();
+    int rackBefore = bot.getRack().size();
+    bot.playTurn(game);
+    int set = tilesOnBoard(game);
+    assertAll(
+        () -> assertEquals(Difficulty.HARD, bot.getDifficulty()),
+        () -> assertTrue(game.isBoardValid()),
+        () -> assertEquals(rackBefore - set + (set == 0 ? 1 : 0), bot.getRack().size()));
+  }
+
+}
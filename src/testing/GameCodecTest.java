@@ -0,0 +1,164 @@
+package testing;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import model.GameCodec;
+import model.GameSnapshot;
+import model.Player;
+import model.RummikubGame;
+import model.RummikubPlayer;
+import model.Tile;
+import model.bot.ComputerPlayer;
+import model.bot.Difficulty;
+import model.solver.Solver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tests for GameCodec.")
+class GameCodecTest {
+
+  private static final int BOARD_POSITIONS = 22 * 8;
+
+  private RummikubGame game;
+
+  /**
+   * Plays a few turns and lets the current player set a tile without ending his round.
+   */
+  @BeforeEach
+  void setUp() {
+    game = RummikubGame.create(7L);
+    game.addPlayer(RummikubPlayer.of("Anna", 17));
+    game.addPlayer(ComputerPlayer.of("Bot", 30, 100));
+    game.addPlayer(ComputerPlayer.of("Jürgen", 40, 100, Difficulty.HARD));
+    game.start();
+    for (int turn = 0; turn < 7; turn++) {
+      Player player = game.getCurrentPlayer();
+      if (player instanceof ComputerPlayer) {
+        ((ComputerPlayer) player).play(game, Solver.solve(game, (ComputerPlayer) player));
+      } else {
+        player.pullTileFromPool(game.pullTile());
+      }
+      game.endCurrentRound();
+    }
+    Player player = game.getCurrentPlayer();
+    game.setTile(0, game.getBoardHeight() - 1, player.getTileFromRack(0), player);
+  }
+
+  private static int serializedSize(Object object) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    return bytes.size();
+  }
+
+  @DisplayName("Decoding an encoded game.")
+  @Test
+  void testRoundTrip() {
+    RummikubGame decoded = GameCodec.decode(GameCodec.encode(game));
+    assertAll(
+        () -> assertEquals(game.getHash(), decoded.getHash()),
+        () -> assertEquals(game.getPlayers(), decoded.getPlayers()),
+        () -> assertEquals(game.getCurrentPlayer(), decoded.getCurrentPlayer()),
+        () -> assertEquals(game.getRound(), decoded.getRound()),
+        () -> assertEquals(game.getPoolSize(), decoded.getPoolSize()));
+    for (int i = 0; i < game.getPlayers().size(); i++) {
+      RummikubPlayer player = (RummikubPlayer) game.getPlayers().get(i);
+      RummikubPlayer copy = (RummikubPlayer) decoded.getPlayers().get(i);
+      assertAll(
+          () -> assertEquals(player.getClass(), copy.getClass()),
+          () -> assertEquals(player.getName(), copy.getName()),
+          () -> assertEquals(player.getRack(), copy.getRack()),
+          () -> assertEquals(player.isFirstMoveDone(), copy.isFirstMoveDone()));
+    }
+    ComputerPlayer bot = (ComputerPlayer) decoded.getPlayers().get(2);
+    assertAll(
+        () -> assertEquals(100, bot.getBudgetInMs()),
+        () -> assertEquals(Difficulty.HARD, bot.getDifficulty()));
+    for (int y = 0; y < game.getBoardHeight(); y++) {
+      for (int x = 0; x < game.getBoardWidth(); x++) {
+        assertEquals(game.getTile(x, y), decoded.getTile(x, y));
+      }
+    }
+    Tile pulled = game.pullTile();
+    assertEquals(pulled, decoded.pullTile());
+    assertEquals(game.isValid(), decoded.isValid());
+  }
+
+  @DisplayName("Decoding a game that has not been started.")
+  @Test
+  void testRoundTripNotStarted() {
+    RummikubGame newGame = RummikubGame.create();
+    newGame.addPlayer(RummikubPlayer.of("Anna", 17));
+    RummikubGame decoded = GameCodec.decode(GameCodec.encode(newGame));
+    assertAll(
+        () -> assertEquals(newGame.getPlayers(), decoded.getPlayers()),
+        () -> assertEquals(false, decoded.hasStarted()),
+        () -> assertTrue(decoded.addPlayer(RummikubPlayer.of("Paul", 20))));
+  }
+
+  @DisplayName("Encoding a snapshot after the game went on.")
+  @Test
+  void testSnapshot() {
+    GameSnapshot snapshot = game.snapshot();
+    long hash = game.getHash();
+    byte[] bytes = GameCodec.encode(game);
+    Player player = game.getCurrentPlayer();
+    player.pullTileFromPool(game.pollTile(0, game.getBoardHeight() - 1, player));
+    player.pullTileFromPool(game.pullTile());
+    game.endCurrentRound();
+    assertAll(
+        () -> assertEquals(hash, GameCodec.decode(GameCodec.encode(snapshot)).getHash()),
+        () -> assertTrue(Arrays.equals(bytes, GameCodec.encode(snapshot))));
+  }
+
+  @DisplayName("Encoded games are small.")
+  @Test
+  void testSize() throws IOException {
+    int size = GameCodec.encode(game).length;
+    assertAll(
+        () -> assertTrue(size < 512, size + " bytes"),
+        () -> assertTrue(4 * size < serializedSize(game)));
+  }
+
+  @DisplayName("Decoding a player.")
+  @Test
+  void testPlayer() {
+    RummikubPlayer player = (RummikubPlayer) game.getPlayers().get(1);
+    RummikubPlayer decoded = GameCodec.decodePlayer(GameCodec.encodePlayer(player));
+    assertAll(
+        () -> assertEquals(player, decoded),
+        () -> assertEquals(player.getRack(), decoded.getRack()));
+  }
+
+  @DisplayName("Invalid encoded games.")
+  @Test
+  void testInvalid() {
+    byte[] bytes = GameCodec.encode(game);
+    byte[] wrongVersion = bytes.clone();
+    wrongVersion[2]++;
+    // the pool precedes the size of the board, the last position of the board is empty
+    byte[] twice = bytes.clone();
+    twice[twice.length - 1] = twice[twice.length - BOARD_POSITIONS - 3];
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(wrongVersion)),
+        () -> assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(twice)),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> GameCodec.decode(Arrays.copyOf(bytes, bytes.length - 1))),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> GameCodec.decode(Arrays.copyOf(bytes, bytes.length + 1))),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> GameCodec.decode(GameCodec.encodePlayer(RummikubPlayer.of("Anna", 17)))));
+  }
+
+}
@@ -0,0 +1,104 @@
+package testing;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.Comparator;
+
+import model.Color;
+import model.Rack;
+import model.RummikubPlayer;
+import model.RummikubTile;
+import model.Tile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tests for Rack.")
+class RackTest {
+
+  private RummikubPlayer testPlayer;
+
+  private Rack rack;
+
+  @BeforeEach
+  void setUp() {
+    testPlayer = RummikubPlayer.of("Juergen", 17);
+    rack = testPlayer.getTileRack();
+    testPlayer.pullTileFromPool(RummikubTile.createTile(Color.RED, 7));
+    testPlayer.pullTileFromPool(RummikubTile.createJoker());
+    testPlayer.pullTileFromPool(RummikubTile.createTile(Color.RED, 5));
+    testPlayer.pullTileFromPool(RummikubTile.createTile(Color.BLUE, 7));
+  }
+
+  @DisplayName("Counting tiles.")
+  @Test
+  void testCount() {
+    assertAll(
+        () -> assertEquals(1, rack.count(Color.RED, 7)),
+        () -> assertEquals(0, rack.count(Color.BLACK, 7)),
+        () -> assertEquals(1, rack.getJokerCount()),
+        () -> assertEquals(19, rack.getValueSum()),
+        () -> assertEquals(-49, testPlayer.getMinusPoints()));
+  }
+
+  @DisplayName("Forming runs and groups with jokers.")
+  @Test
+  void testCanFormMelds() {
+    assertAll(
+        () -> assertTrue(rack.canFormRun(Color.RED, 5, 3)),
+        () -> assertFalse(rack.canFormRun(Color.RED, 5, 4)),
+        () -> assertFalse(rack.canFormRun(Color.BLUE, 5, 3)),
+        () -> assertEquals(1 << 4, rack.getRunStarts(Color.RED, 3)),
+        () -> assertTrue(rack.canFormGroup(7)),
+        () -> assertFalse(rack.canFormGroup(5)));
+  }
+
+  @DisplayName("Changes through the list view update the counts.")
+  @Test
+  void testListView() {
+    Tile redSeven = testPlayer.getTileFromRack(0);
+    testPlayer.getRack().add(1, redSeven);
+    testPlayer.getRack().remove(RummikubTile.createTile(Color.BLUE, 7));
+    assertAll(
+        () -> assertEquals(redSeven, testPlayer.getRack().get(1)),
+        () -> assertEquals(3, rack.size()),
+        () -> assertEquals(0, rack.count(Color.BLUE, 7)),
+        () -> assertFalse(rack.canFormGroup(7)));
+  }
+
+  @DisplayName("Sorting keeps jokers at the end.")
+  @Test
+  void testSortRack() {
+    testPlayer.sortRack();
+    assertAll(
+        () -> assertEquals(5, testPlayer.getRack().get(0).getValue()),
+        () -> assertEquals(RummikubTile.createTile(Color.RED, 7), testPlayer.getRack().get(1)),
+        () -> assertEquals(RummikubTile.createTile(Color.BLUE, 7), testPlayer.getRack().get(2)),
+        () -> assertTrue(testPlayer.getRack().get(3).isJoker()));
+  }
+
+  @DisplayName("Sorting the list view updates the counts and the ids.")
+  @Test
+  void testSortListView() {
+    Collections.sort(testPlayer.getRack(), Comparator.comparingInt(Tile::getValue));
+    assertAll(
+        () -> assertTrue(testPlayer.getRack().get(0).isJoker()),
+        () -> assertEquals(RummikubTile.createTile(Color.RED, 5), testPlayer.getRack().get(1)),
+        () -> assertEquals(4, rack.size()),
+        () -> assertEquals(1, rack.count(Color.RED, 5)),
+        () -> assertEquals(1, rack.count(Color.RED, 7)),
+        () -> assertEquals(1, rack.count(Color.BLUE, 7)),
+        () -> assertEquals(1, rack.getJokerCount()),
+        () -> assertEquals(19, rack.getValueSum()),
+        () -> assertTrue(rack.contains(RummikubTile.createTile(Color.RED, 5))),
+        () -> assertTrue(rack.contains(RummikubTile.createTile(Color.RED, 7))),
+        () -> assertTrue(rack.contains(RummikubTile.createTile(Color.BLUE, 7))),
+        () -> assertTrue(rack.contains(RummikubTile.createJoker())));
+  }
+
+}
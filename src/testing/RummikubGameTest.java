@@ -3,14 +3,21 @@ package testing;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import model.GameSnapshot;
 import model.Player;
 import model.Rummikub;
 import model.RummikubGame;
 import model.RummikubPlayer;
+import model.Tile;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -135,4 +142,87 @@ class RummikubGameTest {
     assertThrows(IllegalStateException.class, () -> testGame.getWinner());
   }
 
+  @DisplayName("Restoring a snapshot.")
+  @Test
+  void testRestoreSnapshot() {
+    testGame.start();
+    RummikubGame game = (RummikubGame) testGame;
+    GameSnapshot snapshot = game.snapshot();
+    Tile tile = youngerPlayer.getTileFromRack(0);
+    testGame.setTile(0, 0, tile, youngerPlayer);
+    youngerPlayer.pullTileFromPool(testGame.pullTile());
+    testGame.endCurrentRound();
+    game.restore(snapshot);
+    assertAll(
+        () -> assertEquals(youngerPlayer, testGame.getCurrentPlayer()),
+        () -> assertEquals(14, youngerPlayer.getRack().size()),
+        () -> assertEquals(tile, youngerPlayer.getRack().get(0)),
+        () -> assertNull(testGame.getTile(0, 0)),
+        () -> assertEquals(snapshot.getTurns(), game.snapshot().getTurns()));
+  }
+
+  @DisplayName("Reverting a turn.")
+  @Test
+  void testRevertTurn() {
+    testGame.start();
+    RummikubGame game = (RummikubGame) testGame;
+    Tile first = youngerPlayer.getRack().get(0);
+    Tile second = youngerPlayer.getRack().get(1);
+    testGame.setTile(0, 0, youngerPlayer.getTileFromRack(0), youngerPlayer);
+    testGame.setTile(1, 0, youngerPlayer.getTileFromRack(0), youngerPlayer);
+    testGame.setTile(5, 2, testGame.pollTile(0, 0, youngerPlayer), youngerPlayer);
+    game.undo();
+    assertAll(
+        () -> assertNull(testGame.getTile(5, 2)),
+        () -> assertNull(testGame.getTile(0, 0)));
+    game.redo();
+    assertEquals(first, testGame.getTile(5, 2));
+    game.revertTurn();
+    assertAll(
+        () -> assertFalse(game.canUndo()),
+        () -> assertTrue(game.canRedo()),
+        () -> assertNull(testGame.getTile(5, 2)),
+        () -> assertNull(testGame.getTile(1, 0)),
+        () -> assertEquals(14, youngerPlayer.getRack().size()),
+        () -> assertEquals(first, youngerPlayer.getRack().get(0)),
+        () -> assertEquals(second, youngerPlayer.getRack().get(1)));
+  }
+
+  @DisplayName("Hash of positions.")
+  @Test
+  void testGetHash() {
+    testGame.start();
+    RummikubGame game = (RummikubGame) testGame;
+    long atStart = game.getHash();
+    testGame.setTile(0, 0, youngerPlayer.getTileFromRack(0), youngerPlayer);
+    long afterMove = game.getHash();
+    game.revertTurn();
+    assertAll(
+        () -> assertNotEquals(atStart, afterMove),
+        () -> assertEquals(atStart, game.getHash()));
+    GameSnapshot snapshot = game.snapshot();
+    testGame.endCurrentRound();
+    assertNotEquals(atStart, game.getHash());
+    game.restore(snapshot);
+    assertEquals(atStart, game.getHash());
+  }
+
+  @DisplayName("Equal seeds deal equal tiles.")
+  @Test
+  void testCreateWithSeed() {
+    Rummikub first = RummikubGame.create(42);
+    Rummikub second = RummikubGame.create(42);
+    first.addPlayer(olderPlayer);
+    first.addPlayer(youngerPlayer);
+    first.start();
+    List<Tile> dealt = new ArrayList<>(youngerPlayer.getRack());
+    Player other = RummikubPlayer.of("Paul", 14);
+    second.addPlayer(RummikubPlayer.of("Anna", 17));
+    second.addPlayer(other);
+    second.start();
+    assertAll(
+        () -> assertEquals(dealt, other.getRack()),
+        () -> assertEquals(first.pullTile(), second.pullTile()));
+  }
+
 }
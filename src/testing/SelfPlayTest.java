@@ -0,0 +1,73 @@
+package testing;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import model.bot.Difficulty;
+import model.bot.SelfPlay;
+import model.bot.SelfPlay.GameResult;
+import model.bot.SelfPlay.Report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tests for SelfPlay.")
+class SelfPlayTest {
+
+  private static final List<Difficulty> SEATS = Arrays.asList(Difficulty.NORMAL,
+      Difficulty.NORMAL, Difficulty.NORMAL);
+
+  /**
+   * The number of games played by a HARD and a NORMAL player on each seat.
+   */
+  private static final int STRENGTH_GAMES = 20;
+
+  /**
+   * The share of the games a HARD player has to win at least. A HARD player wins about half of the
+   * games, the margin absorbs the chance of the few games played.
+   */
+  private static final double MINIMAL_HARD_WIN_RATE = 0.3;
+
+  @DisplayName("Replaying a seed plays the same game.")
+  @Test
+  void testReplay() {
+    GameResult first = SelfPlay.play(3L, SEATS, 100, ForkJoinPool.commonPool(), null);
+    GameResult second = SelfPlay.play(3L, SEATS, 100, ForkJoinPool.commonPool(), null);
+    assertAll(
+        () -> assertEquals(first.getTurns(), second.getTurns()),
+        () -> assertEquals(first.getWinner(), second.getWinner()));
+  }
+
+  @DisplayName("Games played in parallel.")
+  @Test
+  void testRun() {
+    Report report = SelfPlay.run(1L, 4, SEATS, 100, 2);
+    double winRates = report.getWinRate(0) + report.getWinRate(1) + report.getWinRate(2);
+    assertAll(
+        () -> assertEquals(4, report.getResults().size()),
+        () -> assertEquals(1.0, winRates, 1e-9),
+        () -> assertEquals(0, report.getRejectedMoves()),
+        () -> assertEquals(
+            SelfPlay.play(2L, SEATS, 100, ForkJoinPool.commonPool(), null).getTurns(),
+            report.getResults().get(1).getTurns()));
+  }
+
+  @DisplayName("HARD players win about as often as NORMAL players.")
+  @Test
+  void testHardMatchesNormal() {
+    Report first = SelfPlay.run(1L, STRENGTH_GAMES,
+        Arrays.asList(Difficulty.HARD, Difficulty.NORMAL), 50, 1);
+    Report second = SelfPlay.run(1L, STRENGTH_GAMES,
+        Arrays.asList(Difficulty.NORMAL, Difficulty.HARD), 50, 1);
+    double hardWinRate = (first.getWinRate(0) + second.getWinRate(1)) / 2;
+    assertAll(
+        () -> assertTrue(hardWinRate >= MINIMAL_HARD_WIN_RATE, "HARD wins " + hardWinRate),
+        () -> assertEquals(0, first.getRejectedMoves() + second.getRejectedMoves()));
+  }
+
+}
@@ -0,0 +1,137 @@
+package testing;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.Color;
+import model.Meld;
+import model.RummikubTile;
+import model.Tile;
+import model.solver.ParallelSolver;
+import model.solver.Solution;
+import model.solver.Solver;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tests for Solver.")
+class SolverTest {
+
+  private static Tile tile(Color color, int value) {
+    return RummikubTile.createTile(color, value);
+  }
+
+  private static List<Tile> run(Color color, int from, int to) {
+    List<Tile> run = new ArrayList<>();
+    for (int value = from; value <= to; value++) {
+      run.add(tile(color, value));
+    }
+    return run;
+  }
+
+  private static void assertValidMelds(Solution solution) {
+    for (List<Tile> meld : solution.getMelds()) {
+      assertNotNull(Meld.of(meld), () -> meld + " is no meld.");
+    }
+  }
+
+  @DisplayName("First move below 30 points.")
+  @Test
+  void testFirstMoveBelowMinimum() {
+    List<Tile> rack = run(Color.RED, 1, 5);
+    Solution solution = Solver.solve(new ArrayList<List<Tile>>(), rack, false);
+    assertAll(
+        () -> assertFalse(solution.hasMove()),
+        () -> assertEquals(0, solution.getValue()));
+  }
+
+  @DisplayName("First move keeps the board untouched.")
+  @Test
+  void testFirstMove() {
+    List<List<Tile>> board = Arrays.asList(run(Color.BLUE, 1, 3));
+    List<Tile> rack = run(Color.BLUE, 4, 8);
+    rack.add(tile(Color.RED, 1));
+    Solution solution = Solver.solve(board, rack, false);
+    assertAll(
+        () -> assertEquals(30, solution.getValue()),
+        () -> assertEquals(5, solution.getPlacedTiles().size()),
+        () -> assertTrue(solution.getMelds().contains(run(Color.BLUE, 1, 3))),
+        () -> assertValidMelds(solution));
+  }
+
+  @DisplayName("Rearranging melds on the board.")
+  @Test
+  void testRearrangeBoard() {
+    List<List<Tile>> board = Arrays.asList(run(Color.RED, 1, 7));
+    List<Tile> rack = Arrays.asList(tile(Color.BLUE, 4), tile(Color.BLACK, 4),
+        tile(Color.ORANGE, 13));
+    Solution solution = Solver.solve(board, rack, true);
+    assertAll(
+        () -> assertEquals(8, solution.getValue()),
+        () -> assertEquals(3, solution.getMelds().size()),
+        () -> assertValidMelds(solution));
+  }
+
+  @DisplayName("Jokers represent the highest value possible.")
+  @Test
+  void testJoker() {
+    List<Tile> rack = Arrays.asList(tile(Color.RED, 5), tile(Color.RED, 6),
+        RummikubTile.createJoker());
+    Solution solution = Solver.solve(new ArrayList<List<Tile>>(), rack, true);
+    assertAll(
+        () -> assertEquals(18, solution.getValue()),
+        () -> assertEquals(3, solution.getPlacedTiles().size()),
+        () -> assertValidMelds(solution));
+  }
+
+  @DisplayName("Tiles on the board that cannot be arranged.")
+  @Test
+  void testInvalidBoard() {
+    List<List<Tile>> board = Arrays.asList(Arrays.asList(tile(Color.RED, 1), tile(Color.RED, 2)));
+    Solution solution = Solver.solve(board, run(Color.BLUE, 1, 3), true);
+    assertAll(
+        () -> assertFalse(solution.hasMove()),
+        () -> assertEquals(board, solution.getMelds()));
+  }
+
+  @DisplayName("Parallel search finds the same optimum.")
+  @Test
+  void testParallelSolver() {
+    List<List<Tile>> board = Arrays.asList(run(Color.RED, 1, 7), run(Color.BLUE, 3, 6),
+        Arrays.asList(tile(Color.BLACK, 9), tile(Color.ORANGE, 9), tile(Color.RED, 9)));
+    List<Tile> rack = Arrays.asList(tile(Color.BLUE, 4), tile(Color.BLACK, 4),
+        tile(Color.ORANGE, 13), tile(Color.BLUE, 9), tile(Color.RED, 8), tile(Color.BLUE, 7),
+        tile(Color.BLACK, 10), RummikubTile.createJoker());
+    Solution sequential = Solver.solve(board, rack, true);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Solution parallel = ParallelSolver.solve(board, rack, true, pool, new AtomicBoolean());
+      assertAll(
+          () -> assertEquals(sequential.getValue(), parallel.getValue()),
+          () -> assertTrue(parallel.isOptimal()),
+          () -> assertValidMelds(parallel));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @DisplayName("Cancelled parallel search is not optimal.")
+  @Test
+  void testParallelSolverCancelled() {
+    Solution solution = ParallelSolver.solve(new ArrayList<List<Tile>>(), run(Color.RED, 1, 13),
+        true, ForkJoinPool.commonPool(), new AtomicBoolean(true));
+    assertAll(
+        () -> assertFalse(solution.isOptimal()),
+        () -> assertFalse(solution.hasMove()));
+  }
+
+}
@@ -0,0 +1,164 @@
+package testing;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import model.GameCodec;
+import model.Player;
+import model.RummikubGame;
+import model.Tile;
+import model.TurnDelta;
+import model.bot.ComputerPlayer;
+import model.solver.Solver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tests for TurnDelta.")
+class TurnDeltaTest {
+
+  private static final int TURNS = 30;
+
+  private RummikubGame game;
+
+  @BeforeEach
+  void setUp() {
+    game = RummikubGame.create(11L);
+    game.addPlayer(ComputerPlayer.of("Anna", 17, 100));
+    game.addPlayer(ComputerPlayer.of("Paul", 30, 100));
+    game.start();
+  }
+
+  /**
+   * Lets the current computer player play his turn without ending his round and returns the
+   * changes of the turn.
+   */
+  private TurnDelta play() {
+    ComputerPlayer player = (ComputerPlayer) game.getCurrentPlayer();
+    int poolSize = game.getPoolSize();
+    player.play(game, Solver.solve(game, player));
+    return TurnDelta.of(game, game.getPoolSize() < poolSize);
+  }
+
+  /**
+   * Plays turns until a tile is on the board.
+   */
+  private void playUntilBoardIsSet() {
+    while (firstTileOnBoard() == null) {
+      play();
+      game.endCurrentRound();
+    }
+  }
+
+  private int[] firstTileOnBoard() {
+    for (int y = 0; y < game.getBoardHeight(); y++) {
+      for (int x = 0; x < game.getBoardWidth(); x++) {
+        if (game.getTile(x, y) != null) {
+          return new int[] {x, y};
+        }
+      }
+    }
+    return null;
+  }
+
+  @DisplayName("Applying the changes of a turn to a copy of the game.")
+  @Test
+  void testApply() {
+    int sets = 0;
+    for (int turn = 0; turn < TURNS && !game.isWon(); turn++) {
+      RummikubGame copy = GameCodec.decode(GameCodec.encode(game));
+      TurnDelta delta = play();
+      if (delta.size() > 0 || delta.isPull()) {
+        assertTrue(delta.applyTo(copy), delta.toString());
+      }
+      sets += delta.size() > 0 ? 1 : 0;
+      assertEquals(game.getHash(), copy.getHash(), delta.toString());
+      game.endCurrentRound();
+      copy.endCurrentRound();
+      assertEquals(game.getHash(), copy.getHash());
+    }
+    assertTrue(sets > 0);
+  }
+
+  @DisplayName("Tiles that are set and taken back are not part of the changes.")
+  @Test
+  void testCancelled() {
+    Player player = game.getCurrentPlayer();
+    game.setTile(3, 2, player.getTileFromRack(0), player);
+    game.setTile(4, 2, game.pollTile(3, 2, player), player);
+    player.pullTileFromPool(game.pollTile(4, 2, player));
+    assertEquals(0, TurnDelta.of(game, false).size());
+  }
+
+  @DisplayName("Tiles cannot be taken from the board.")
+  @Test
+  void testTakeFromBoard() {
+    playUntilBoardIsSet();
+    RummikubGame copy = GameCodec.decode(GameCodec.encode(game));
+    int[] position = firstTileOnBoard();
+    game.pollTile(position[0], position[1], game.getCurrentPlayer());
+    assertAll(
+        () -> assertFalse(TurnDelta.of(game, false).applyTo(copy)),
+        () -> assertTrue(copy.getTile(position[0], position[1]) != null),
+        () -> assertEquals(GameCodec.decode(GameCodec.encode(copy)).getHash(), copy.getHash()));
+  }
+
+  @DisplayName("Tiles that are not on the rack of the player cannot be set.")
+  @Test
+  void testUnavailableTile() {
+    RummikubGame copy = GameCodec.decode(GameCodec.encode(game));
+    Player other = game.getPlayers().get(1 - game.getPlayers().indexOf(game.getCurrentPlayer()));
+    Tile tile = other.getTileFromRack(0);
+    game.setTile(0, 0, tile, game.getCurrentPlayer());
+    long hash = copy.getHash();
+    assertAll(
+        () -> assertFalse(TurnDelta.of(game, false).applyTo(copy)),
+        () -> assertEquals(hash, copy.getHash()));
+  }
+
+  @DisplayName("Pulling a tile from the pool.")
+  @Test
+  void testPull() {
+    RummikubGame copy = GameCodec.decode(GameCodec.encode(game));
+    Player player = game.getCurrentPlayer();
+    player.pullTileFromPool(game.pullTile());
+    TurnDelta delta = TurnDelta.of(game, true);
+    assertAll(
+        () -> assertTrue(delta.isPull()),
+        () -> assertTrue(delta.applyTo(copy)),
+        () -> assertEquals(game.getPoolSize(), copy.getPoolSize()),
+        () -> assertEquals(game.getHash(), copy.getHash()));
+  }
+
+  @DisplayName("Decoding encoded changes.")
+  @Test
+  void testCodec() {
+    playUntilBoardIsSet();
+    RummikubGame copy = GameCodec.decode(GameCodec.encode(game));
+    TurnDelta delta = play();
+    while (delta.size() == 0) {
+      game.endCurrentRound();
+      copy = GameCodec.decode(GameCodec.encode(game));
+      delta = play();
+    }
+    byte[] bytes = GameCodec.encodeTurn(delta);
+    TurnDelta decoded = GameCodec.decodeTurn(bytes);
+    assertEquals(delta.toString(), decoded.toString());
+    assertTrue(decoded.applyTo(copy));
+    assertEquals(game.getHash(), copy.getHash());
+    byte[] trailing = Arrays.copyOf(bytes, bytes.length + 1);
+    byte[] outside = bytes.clone();
+    outside[5] = (byte) game.getBoardWidth();
+    assertAll(
+        () -> assertTrue(bytes.length < 64, bytes.length + " bytes"),
+        () -> assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeTurn(trailing)),
+        () -> assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeTurn(outside)));
+  }
+
+}